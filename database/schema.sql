@@ -111,6 +111,22 @@ CREATE TABLE task_history (
                               FOREIGN KEY (task_id) REFERENCES tasks(id) ON DELETE CASCADE
 ) ENGINE=InnoDB;
 
+-- Table: allocation_leases (one allocation run per project across server instances;
+-- token is incremented on every takeover and checked before the run writes)
+CREATE TABLE allocation_leases (
+                                   project_id INT PRIMARY KEY,
+                                   owner VARCHAR(100) NOT NULL,
+                                   token BIGINT NOT NULL,
+                                   expires_at TIMESTAMP(3) NOT NULL
+) ENGINE=InnoDB;
+
+-- Table: entity_versions (ETag version counters shared by the server instances; one row per
+-- entity, bumped in the transaction of each write)
+CREATE TABLE entity_versions (
+                                 name VARCHAR(64) PRIMARY KEY,
+                                 version BIGINT NOT NULL
+) ENGINE=InnoDB;
+
 -- Indexes for performance
 CREATE INDEX idx_tasks_project ON tasks(project_id);
 CREATE INDEX idx_tasks_assigned ON tasks(assigned_member_id);
@@ -120,6 +136,12 @@ CREATE INDEX idx_alerts_project ON alerts(project_id);
 CREATE INDEX idx_alerts_read ON alerts(is_read);
 CREATE INDEX idx_projects_status ON projects(status);
 CREATE INDEX idx_members_email ON members(email);
+-- Keyset pagination (seek on the listing sort order)
+CREATE INDEX idx_members_name ON members(name, id);
+CREATE INDEX idx_projects_created ON projects(created_at, id);
+CREATE INDEX idx_alerts_feed ON alerts(severity, created_at, id);
+-- Project statistics (GROUP BY status, priority, assignment without reading the rows)
+CREATE INDEX idx_tasks_project_stats ON tasks(project_id, status, priority, assigned_member_id, estimated_hours);
 
 -- Insert default skills
 INSERT INTO skills (name, description) VALUES
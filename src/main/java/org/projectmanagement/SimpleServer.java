@@ -2,313 +2,403 @@ package org.projectmanagement;
 
 import com.sun.net.httpserver.*;
 import com.google.gson.*;
+import com.google.gson.stream.JsonWriter;
 import org.projectmanagement.dao.*;
+import org.projectmanagement.dao.EntityVersions.Entity;
+import org.projectmanagement.event.AlertBus;
+import org.projectmanagement.json.ModelTypeAdapters;
 import org.projectmanagement.model.*;
+import org.projectmanagement.server.*;
 import org.projectmanagement.service.*;
+import org.projectmanagement.util.ServerConfig;
 import java.io.*;
 import java.net.InetSocketAddress;
-import java.nio.file.*;
-import java.sql.Date;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 
 public class SimpleServer {
-    private static final Gson gson = new GsonBuilder()
-        .registerTypeAdapter(Date.class, (JsonDeserializer<Date>) (json, typeOfT, context) -> {
-            try {
-                SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-                return new Date(sdf.parse(json.getAsString()).getTime());
-            } catch (Exception e) {
-                return null;
-            }
-        })
-        .registerTypeAdapter(Date.class, (JsonSerializer<Date>) (src, typeOfSrc, context) -> {
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-            return new JsonPrimitive(sdf.format(src));
-        })
-        .create();
+    // Adapters écrits à la main : pas de réflexion ni de SimpleDateFormat par objet
+    private static final Gson gson = ModelTypeAdapters.register(new GsonBuilder()).create();
     
     public static void main(String[] args) throws Exception {
-        HttpServer server = HttpServer.create(new InetSocketAddress(8080), 0);
+        int port = ServerConfig.getInt("server.port", 8080);
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
         
-        server.createContext("/", exchange -> {
-            String path = exchange.getRequestURI().getPath();
-            if (path.equals("/")) path = "/index.html";
-            
-            File file = new File("src/main/resources/webapp" + path);
-            if (file.exists()) {
-                byte[] bytes = Files.readAllBytes(file.toPath());
-                String contentType = path.endsWith(".html") ? "text/html; charset=UTF-8" :
-                                   path.endsWith(".css") ? "text/css" :
-                                   path.endsWith(".js") ? "application/javascript" : "text/plain";
-                exchange.getResponseHeaders().add("Content-Type", contentType);
-                exchange.sendResponseHeaders(200, bytes.length);
-                exchange.getResponseBody().write(bytes);
-            } else {
-                exchange.sendResponseHeaders(404, 0);
-            }
-            exchange.close();
-        });
+        // Executor des handlers (single = ancien comportement, pool, virtual)
+        RequestExecutor executor = RequestExecutor.create(
+            ServerConfig.getString("server.executor", "pool"),
+            ServerConfig.getInt("server.pool.threads", 32),
+            ServerConfig.getInt("server.pool.queueCapacity", 500));
+        server.setExecutor(executor);
+        
+        // Fichiers statiques (index.html, css, js) servis depuis la mémoire
+        StaticAssets staticAssets = new StaticAssets(
+            ServerConfig.getString("server.static.dir", "src/main/resources/webapp"),
+            "webapp",
+            ServerConfig.getInt("server.static.maxAge", 300));
+        staticAssets.load();
+        if (ServerConfig.getBoolean("server.static.watch", false)) {
+            staticAssets.watch();
+        }
+        server.createContext("/", staticAssets);
+        
+        // API REST : table de routes compilée une seule fois au démarrage
+        Router api = new Router(SimpleServer::cors, SimpleServer::error);
         
         // API Members
-        server.createContext("/api/members/", exchange -> {
-            cors(exchange);
-            if ("OPTIONS".equals(exchange.getRequestMethod())) { exchange.sendResponseHeaders(200, -1); exchange.close(); return; }
-            
-            MemberDAO dao = new MemberDAO();
-            String method = exchange.getRequestMethod();
-            String path = exchange.getRequestURI().getPath();
-            String response = "";
-            
-            try {
-                // POST /api/members/{id}/skills - Add skill to member
-                if ("POST".equals(method) && path.contains("/skills")) {
-                    String body = read(exchange);
-                    Map<String, Object> data = gson.fromJson(body, Map.class);
-                    int memberId = getId(exchange);
-                    int skillId = ((Double)data.get("skillId")).intValue();
-                    int proficiency = ((Double)data.get("proficiencyLevel")).intValue();
-                    dao.addSkill(memberId, skillId, proficiency);
-                    response = "{\"success\":true}";
-                }
-                // DELETE /api/members/{memberId}/skills/{skillId} - Remove skill
-                else if ("DELETE".equals(method) && path.contains("/skills")) {
-                    String[] parts = path.split("/");
-                    int memberId = Integer.parseInt(parts[3]);
-                    int skillId = Integer.parseInt(parts[5]);
-                    dao.removeSkill(memberId, skillId);
-                    response = "{\"success\":true}";
-                }
-                // Standard CRUD
-                else if ("GET".equals(method)) {
-                    response = gson.toJson(dao.findAll());
-                } else if ("POST".equals(method)) {
-                    Member m = gson.fromJson(read(exchange), Member.class);
-                    dao.create(m);
-                    response = gson.toJson(m);
-                } else if ("PUT".equals(method)) {
-                    Member m = gson.fromJson(read(exchange), Member.class);
-                    dao.update(m);
-                    response = gson.toJson(m);
-                } else if ("DELETE".equals(method)) {
-                    dao.delete(getId(exchange));
-                    response = "{\"success\":true}";
-                }
-                send(exchange, response);
-            } catch (Exception e) {
-                error(exchange, e);
+        api.get("/api/members/", (exchange, params) -> {
+            if (notModified(exchange, Entity.MEMBERS, Entity.SKILLS)) return;
+            Map<String, String> query = queryParams(exchange);
+            FieldSet fields = FieldSet.parse(query.get("fields"), MemberDAO.FIELDS);
+            ItemWriter<Member> writer = (out, m) -> ModelTypeAdapters.writeMember(out, m, fields);
+            if (isPaged(query)) {
+                streamPage(exchange, new MemberDAO().findPage(query.get("cursor"), limit(query), fields), writer);
+            } else {
+                stream(exchange, new MemberDAO().findAll(fields), writer);
             }
         });
+        api.get("/api/members/{id:int}", (exchange, params) -> {
+            if (notModified(exchange, Entity.MEMBERS, Entity.SKILLS)) return;
+            send(exchange, gson.toJson(new MemberDAO().findById(params.getInt("id"))));
+        });
+        api.post("/api/members/", (exchange, params) -> {
+            Member m = gson.fromJson(read(exchange), Member.class);
+            new MemberDAO().create(m);
+            send(exchange, gson.toJson(m));
+        });
+        api.put("/api/members/", (exchange, params) -> {
+            Member m = gson.fromJson(read(exchange), Member.class);
+            new MemberDAO().update(m);
+            send(exchange, gson.toJson(m));
+        });
+        api.delete("/api/members/{id:int}", (exchange, params) -> {
+            new MemberDAO().delete(params.getInt("id"));
+            send(exchange, "{\"success\":true}");
+        });
+        // POST /api/members/{id}/skills - Add skill to member
+        api.post("/api/members/{id:int}/skills", (exchange, params) -> {
+            Map<String, Object> data = gson.fromJson(read(exchange), Map.class);
+            int skillId = ((Double)data.get("skillId")).intValue();
+            int proficiency = ((Double)data.get("proficiencyLevel")).intValue();
+            new MemberDAO().addSkill(params.getInt("id"), skillId, proficiency);
+            send(exchange, "{\"success\":true}");
+        });
+        // DELETE /api/members/{memberId}/skills/{skillId} - Remove skill
+        api.delete("/api/members/{id:int}/skills/{skillId:int}", (exchange, params) -> {
+            new MemberDAO().removeSkill(params.getInt("id"), params.getInt("skillId"));
+            send(exchange, "{\"success\":true}");
+        });
         
         // API Projects
-        server.createContext("/api/projects/", exchange -> {
-            cors(exchange);
-            if ("OPTIONS".equals(exchange.getRequestMethod())) { exchange.sendResponseHeaders(200, -1); exchange.close(); return; }
-            
-            ProjectDAO dao = new ProjectDAO();
-            TaskDAO taskDAO = new TaskDAO();
-            String method = exchange.getRequestMethod();
-            String path = exchange.getRequestURI().getPath();
-            String response = "";
-            
-            try {
-                // GET /api/projects/{id}/tasks - Get tasks for a project
-                if ("GET".equals(method) && path.contains("/tasks")) {
-                    String[] parts = path.split("/");
-                    int projectId = 0;
-                    for (int i = 0; i < parts.length; i++) {
-                        if (parts[i].equals("projects") && i + 1 < parts.length) {
-                            try {
-                                projectId = Integer.parseInt(parts[i + 1]);
-                                break;
-                            } catch (Exception e) {}
-                        }
-                    }
-                    List<Task> tasks = taskDAO.findByProject(projectId);
-                    response = gson.toJson(tasks);
-                }
-                // GET /api/projects/{id} - Get single project
-                else if ("GET".equals(method) && path.matches(".*/\\d+/?$")) {
-                    int id = getId(exchange);
-                    Project project = dao.findById(id);
-                    response = gson.toJson(project);
-                }
-                // GET /api/projects/ - Get all projects
-                else if ("GET".equals(method)) {
-                    response = gson.toJson(dao.findAll());
-                } else if ("POST".equals(method)) {
-                    Project p = gson.fromJson(read(exchange), Project.class);
-                    dao.create(p);
-                    response = gson.toJson(p);
-                } else if ("PUT".equals(method)) {
-                    Project p = gson.fromJson(read(exchange), Project.class);
-                    dao.update(p);
-                    response = gson.toJson(p);
-                } else if ("DELETE".equals(method)) {
-                    dao.delete(getId(exchange));
-                    response = "{\"success\":true}";
-                }
-                send(exchange, response);
-            } catch (Exception e) {
-                error(exchange, e);
+        api.get("/api/projects/", (exchange, params) -> {
+            if (notModified(exchange, Entity.PROJECTS)) return;
+            Map<String, String> query = queryParams(exchange);
+            if (isPaged(query)) {
+                streamPage(exchange, new ProjectDAO().findPage(query.get("cursor"), limit(query)));
+            } else {
+                stream(exchange, new ProjectDAO().findAll());
             }
         });
+        api.get("/api/projects/{id:int}", (exchange, params) -> {
+            if (notModified(exchange, Entity.PROJECTS)) return;
+            send(exchange, gson.toJson(new ProjectDAO().findById(params.getInt("id"))));
+        });
+        // GET /api/projects/{id}/tasks - Get tasks for a project
+        api.get("/api/projects/{id:int}/tasks", (exchange, params) -> {
+            if (notModified(exchange, EntityVersions.projectTasksEtag(params.getInt("id"), exchange.getRequestURI().getRawQuery()))) return;
+            FieldSet fields = FieldSet.parse(queryParams(exchange).get("fields"), TaskDAO.FIELDS);
+            stream(exchange, new TaskDAO().findByProject(params.getInt("id"), fields),
+                (out, t) -> ModelTypeAdapters.writeTask(out, t, fields));
+        });
+        api.post("/api/projects/", (exchange, params) -> {
+            Project p = gson.fromJson(read(exchange), Project.class);
+            new ProjectDAO().create(p);
+            send(exchange, gson.toJson(p));
+        });
+        api.put("/api/projects/", (exchange, params) -> {
+            Project p = gson.fromJson(read(exchange), Project.class);
+            new ProjectDAO().update(p);
+            send(exchange, gson.toJson(p));
+        });
+        api.delete("/api/projects/{id:int}", (exchange, params) -> {
+            new ProjectDAO().delete(params.getInt("id"));
+            send(exchange, "{\"success\":true}");
+        });
         
         // API Tasks
-        server.createContext("/api/tasks/", exchange -> {
-            cors(exchange);
-            if ("OPTIONS".equals(exchange.getRequestMethod())) { exchange.sendResponseHeaders(200, -1); exchange.close(); return; }
-            
+        // GET /api/tasks/?projectId=..|memberId=.. or all tasks - streamed list
+        api.get("/api/tasks/", (exchange, params) -> {
+            Map<String, String> query = queryParams(exchange);
+            // Liste d'un seul projet : ETag propre au projet, les écritures ailleurs ne l'invalident pas
+            String etag = query.containsKey("projectId") && !query.containsKey("memberId")
+                ? EntityVersions.projectTasksEtag(Integer.parseInt(query.get("projectId")), exchange.getRequestURI().getRawQuery())
+                : EntityVersions.etag(exchange.getRequestURI().getRawQuery(), Entity.TASKS, Entity.MEMBERS, Entity.SKILLS);
+            if (notModified(exchange, etag)) return;
             TaskDAO dao = new TaskDAO();
-            String method = exchange.getRequestMethod();
-            String path = exchange.getRequestURI().getPath();
-            String response = "";
-            
-            try {
-                // POST /api/tasks/{taskId}/assign - Manually assign task to member
-                if ("POST".equals(method) && path.contains("/assign")) {
-                    String body = read(exchange);
-                    Map<String, Object> data = gson.fromJson(body, Map.class);
-                    int taskId = getId(exchange);
-                    int memberId = ((Double)data.get("memberId")).intValue();
-                    dao.assignTaskToMember(taskId, memberId);
-                    
-                    // Vérifier si l'assignation a causé une surcharge et créer une alerte si nécessaire
-                    TaskAllocationService allocationService = new TaskAllocationService();
-                    allocationService.checkAndCreateOverloadAlert(memberId, taskId);
-                    
-                    response = "{\"success\":true,\"message\":\"Task assigned successfully\"}";
-                }
-                // DELETE /api/tasks/{taskId}/assign - Unassign task (only if TODO)
-                else if ("DELETE".equals(method) && path.contains("/assign")) {
-                    int taskId = getId(exchange);
-                    dao.unassignTask(taskId);
-                    response = "{\"success\":true,\"message\":\"Task unassigned successfully\"}";
-                }
-                // PUT /api/tasks/{taskId}/status - Update task status
-                else if ("PUT".equals(method) && path.contains("/status")) {
-                    String body = read(exchange);
-                    Map<String, Object> data = gson.fromJson(body, Map.class);
-                    int taskId = getId(exchange);
-                    String statusStr = (String)data.get("status");
-                    Task.TaskStatus status = Task.TaskStatus.valueOf(statusStr);
-                    dao.updateStatus(taskId, status);
-                    response = "{\"success\":true,\"message\":\"Task status updated to " + statusStr + "\"}";
-                }
-                // Standard CRUD
-                else if ("GET".equals(method)) {
-                    response = gson.toJson(dao.findById(getId(exchange)));
-                } else if ("POST".equals(method)) {
-                    Task t = gson.fromJson(read(exchange), Task.class);
-                    dao.create(t);
-                    response = gson.toJson(t);
-                } else if ("PUT".equals(method)) {
-                    Task t = gson.fromJson(read(exchange), Task.class);
-                    dao.update(t);
-                    response = gson.toJson(t);
-                } else if ("DELETE".equals(method)) {
-                    dao.delete(getId(exchange));
-                    response = "{\"success\":true}";
-                }
-                send(exchange, response);
-            } catch (Exception e) {
-                error(exchange, e);
+            FieldSet fields = FieldSet.parse(query.get("fields"), TaskDAO.FIELDS);
+            ItemWriter<Task> writer = (out, t) -> ModelTypeAdapters.writeTask(out, t, fields);
+            if (isPaged(query)) {
+                Integer projectId = query.containsKey("projectId") ? Integer.valueOf(query.get("projectId")) : null;
+                Integer memberId = query.containsKey("memberId") ? Integer.valueOf(query.get("memberId")) : null;
+                streamPage(exchange, dao.findPage(projectId, memberId, query.get("cursor"), limit(query), fields), writer);
+            } else if (query.containsKey("projectId")) {
+                stream(exchange, dao.findByProject(Integer.parseInt(query.get("projectId")), fields), writer);
+            } else if (query.containsKey("memberId")) {
+                stream(exchange, dao.findByMember(Integer.parseInt(query.get("memberId")), fields), writer);
+            } else {
+                stream(exchange, dao.findAll(fields), writer);
             }
         });
+        api.get("/api/tasks/{id:int}", (exchange, params) -> {
+            if (notModified(exchange, Entity.TASKS, Entity.MEMBERS, Entity.SKILLS)) return;
+            send(exchange, gson.toJson(new TaskDAO().findById(params.getInt("id"))));
+        });
+        api.post("/api/tasks/", (exchange, params) -> {
+            Task t = gson.fromJson(read(exchange), Task.class);
+            new TaskDAO().create(t);
+            send(exchange, gson.toJson(t));
+        });
+        api.put("/api/tasks/", (exchange, params) -> {
+            Task t = gson.fromJson(read(exchange), Task.class);
+            new TaskDAO().update(t);
+            send(exchange, gson.toJson(t));
+        });
+        api.delete("/api/tasks/{id:int}", (exchange, params) -> {
+            new TaskDAO().delete(params.getInt("id"));
+            send(exchange, "{\"success\":true}");
+        });
+        // POST /api/tasks/{taskId}/assign - Manually assign task to member
+        api.post("/api/tasks/{id:int}/assign", (exchange, params) -> {
+            Map<String, Object> data = gson.fromJson(read(exchange), Map.class);
+            int taskId = params.getInt("id");
+            int memberId = ((Double)data.get("memberId")).intValue();
+            new TaskDAO().assignTaskToMember(taskId, memberId);
+            
+            // Vérifier si l'assignation a causé une surcharge et créer une alerte si nécessaire
+            TaskAllocationService allocationService = new TaskAllocationService();
+            allocationService.checkAndCreateOverloadAlert(memberId, taskId);
+            
+            send(exchange, "{\"success\":true,\"message\":\"Task assigned successfully\"}");
+        });
+        // DELETE /api/tasks/{taskId}/assign - Unassign task (only if TODO)
+        api.delete("/api/tasks/{id:int}/assign", (exchange, params) -> {
+            new TaskDAO().unassignTask(params.getInt("id"));
+            send(exchange, "{\"success\":true,\"message\":\"Task unassigned successfully\"}");
+        });
+        // PUT /api/tasks/{taskId}/status - Update task status
+        api.put("/api/tasks/{id:int}/status", (exchange, params) -> {
+            Map<String, Object> data = gson.fromJson(read(exchange), Map.class);
+            String statusStr = (String)data.get("status");
+            Task.TaskStatus status = Task.TaskStatus.valueOf(statusStr);
+            new TaskDAO().updateStatus(params.getInt("id"), status);
+            send(exchange, "{\"success\":true,\"message\":\"Task status updated to " + statusStr + "\"}");
+        });
+        // POST /api/tasks/{taskId}/skills - Add required skill (called by the task form)
+        api.post("/api/tasks/{id:int}/skills", (exchange, params) -> {
+            Map<String, Object> data = gson.fromJson(read(exchange), Map.class);
+            int skillId = ((Double)data.get("skillId")).intValue();
+            int requiredLevel = ((Double)data.get("requiredLevel")).intValue();
+            new TaskDAO().addSkillRequirement(params.getInt("id"), skillId, requiredLevel);
+            send(exchange, "{\"success\":true}");
+        });
+        // POST /api/tasks/{taskId}/dependencies - Add dependency
+        api.post("/api/tasks/{id:int}/dependencies", (exchange, params) -> {
+            Map<String, Object> data = gson.fromJson(read(exchange), Map.class);
+            int dependsOn = ((Double)data.get("dependsOnTaskId")).intValue();
+            new TaskDAO().addDependency(params.getInt("id"), dependsOn);
+            send(exchange, "{\"success\":true}");
+        });
         
         // API Skills
-        server.createContext("/api/skills/", exchange -> {
-            cors(exchange);
-            if ("OPTIONS".equals(exchange.getRequestMethod())) { exchange.sendResponseHeaders(200, -1); exchange.close(); return; }
-            
+        api.get("/api/skills/", (exchange, params) -> {
+            if (notModified(exchange, Entity.SKILLS)) return;
+            send(exchange, gson.toJson(new SkillDAO().findAll()));
+        });
+        
+        // API Allocation : soumise comme job (202 + id), suivie par GET /jobs/{id} ou le flux SSE
+        AllocationJobs allocationJobs = AllocationJobs.getInstance();
+        api.post("/api/allocate/{projectId:int}", (exchange, params) -> {
+            String engineName = queryParams(exchange).get("engine");
+            TaskAllocationService.Engine engine = engineName != null
+                ? TaskAllocationService.parseEngine(engineName) : TaskAllocationService.defaultEngine();
+            AllocationJob job;
             try {
-                SkillDAO dao = new SkillDAO();
-                send(exchange, gson.toJson(dao.findAll()));
-            } catch (Exception e) {
-                error(exchange, e);
+                job = allocationJobs.submit(params.getInt("projectId"), engine);
+            } catch (java.util.concurrent.RejectedExecutionException e) {
+                send(exchange, 503, "{\"success\":false,\"error\":\"Too many allocations queued, retry later\"}");
+                return;
+            }
+            exchange.getResponseHeaders().set("Location", "/api/allocate/jobs/" + job.getId());
+            send(exchange, 202, gson.toJson(job.snapshot()));
+        });
+        api.get("/api/allocate/jobs/", (exchange, params) -> {
+            List<Map<String, Object>> snapshots = new ArrayList<>();
+            for (AllocationJob job : allocationJobs.list()) {
+                snapshots.add(job.snapshot());
+            }
+            send(exchange, gson.toJson(snapshots));
+        });
+        api.get("/api/allocate/jobs/{id:int}", (exchange, params) -> {
+            AllocationJob job = allocationJobs.get(params.getInt("id"));
+            if (job == null) {
+                send(exchange, 404, "{\"success\":false,\"error\":\"Unknown allocation job\"}");
+                return;
+            }
+            send(exchange, gson.toJson(job.snapshot()));
+        });
+        // DELETE /api/allocate/jobs/{id} - Cancel (nothing is written by a cancelled run)
+        api.delete("/api/allocate/jobs/{id:int}", (exchange, params) -> {
+            AllocationJob job = allocationJobs.get(params.getInt("id"));
+            if (job == null) {
+                send(exchange, 404, "{\"success\":false,\"error\":\"Unknown allocation job\"}");
+                return;
             }
+            boolean cancelled = allocationJobs.cancel(job.getId());
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("success", cancelled);
+            map.put("job", job.snapshot());
+            send(exchange, gson.toJson(map));
         });
         
-        // API Allocation
-        server.createContext("/api/allocate/", exchange -> {
-            cors(exchange);
-            if ("OPTIONS".equals(exchange.getRequestMethod())) { exchange.sendResponseHeaders(200, -1); exchange.close(); return; }
-            
+        // API Schedule : dates prévues des tâches ouvertes (capacité hebdomadaire et dépendances)
+        api.get("/api/schedule/project/{id:int}", (exchange, params) -> {
+            String from = queryParams(exchange).get("from");
+            LocalDate start;
             try {
-                TaskAllocationService service = new TaskAllocationService();
-                TaskAllocationService.AllocationResult result = service.allocateTasks(getId(exchange));
-                Map<String, Object> map = new HashMap<>();
-                map.put("success", result.getAssignedCount() > 0);
-                map.put("assignedCount", result.getAssignedCount());
-                map.put("failedCount", result.getFailedCount());
-                map.put("message", result.getMessage());
-                send(exchange, gson.toJson(map));
-            } catch (Exception e) {
-                error(exchange, e);
+                start = from != null ? LocalDate.parse(from) : LocalDate.now();
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid from date, expected yyyy-MM-dd: " + from);
+            }
+            send(exchange, gson.toJson(new SchedulingService().schedule(start).toMap(params.getInt("id"))));
+        });
+        
+        // API Optimizer : rééquilibrage de fond de tous les projets (PUT {"enabled":false} l'arrête)
+        WorkloadOptimizer optimizer = WorkloadOptimizer.getInstance();
+        api.get("/api/optimizer", (exchange, params) -> send(exchange, gson.toJson(optimizer.snapshot())));
+        api.put("/api/optimizer", (exchange, params) -> {
+            JsonObject body = gson.fromJson(read(exchange), JsonObject.class);
+            if (body == null || !body.has("enabled")) {
+                throw new IllegalArgumentException("Expected {\"enabled\": true|false}");
             }
+            optimizer.setEnabled(body.get("enabled").getAsBoolean());
+            send(exchange, gson.toJson(optimizer.snapshot()));
         });
+        optimizer.start();
         
         // API Alerts
-        server.createContext("/api/alerts/", exchange -> {
-            cors(exchange);
-            if ("OPTIONS".equals(exchange.getRequestMethod())) { exchange.sendResponseHeaders(200, -1); exchange.close(); return; }
-            
-            AlertDAO dao = new AlertDAO();
-            String method = exchange.getRequestMethod();
-            String path = exchange.getRequestURI().getPath();
-            String query = exchange.getRequestURI().getQuery();
-            String response = "";
-            
-            try {
-                if ("GET".equals(method) && path.endsWith("/count")) {
-                    List<Alert> unread = dao.findAll(true);
-                    response = "{\"count\":" + unread.size() + "}";
-                } else if ("GET".equals(method) && query != null && query.contains("unread=true")) {
-                    response = gson.toJson(dao.findAll(true));
-                } else if ("GET".equals(method)) {
-                    response = gson.toJson(dao.findAll());
-                } else if ("DELETE".equals(method)) {
-                    dao.delete(getId(exchange));
-                    response = "{\"success\":true}";
-                } else if ("PUT".equals(method) && path.contains("/read")) {
-                    dao.markAsRead(getId(exchange));
-                    response = "{\"success\":true}";
-                }
-                send(exchange, response);
-            } catch (Exception e) {
-                error(exchange, e);
+        api.get("/api/alerts/", (exchange, params) -> {
+            if (notModified(exchange, Entity.ALERTS, Entity.MEMBERS, Entity.PROJECTS, Entity.TASKS)) return;
+            Map<String, String> query = queryParams(exchange);
+            boolean unreadOnly = "true".equals(query.get("unread"));
+            FieldSet fields = FieldSet.parse(query.get("fields"), AlertDAO.FIELDS);
+            ItemWriter<Alert> writer = (out, a) -> ModelTypeAdapters.writeAlert(out, a, fields);
+            if (isPaged(query)) {
+                streamPage(exchange, new AlertDAO().findPage(unreadOnly, query.get("cursor"), limit(query), fields), writer);
+            } else {
+                stream(exchange, new AlertDAO().findAll(unreadOnly, fields), writer);
             }
         });
+        api.get("/api/alerts/count", (exchange, params) -> {
+            if (notModified(exchange, Entity.ALERTS)) return;
+            send(exchange, "{\"count\":" + new AlertDAO().getUnreadCount() + "}");
+        });
+        api.get("/api/alerts/{id:int}", (exchange, params) -> {
+            if (notModified(exchange, Entity.ALERTS, Entity.MEMBERS, Entity.PROJECTS, Entity.TASKS)) return;
+            send(exchange, gson.toJson(new AlertDAO().findById(params.getInt("id"))));
+        });
+        api.put("/api/alerts/{id:int}/read", (exchange, params) -> {
+            new AlertDAO().markAsRead(params.getInt("id"));
+            send(exchange, "{\"success\":true}");
+        });
+        api.put("/api/alerts/read-all", (exchange, params) -> {
+            new AlertDAO().markAllAsRead();
+            send(exchange, "{\"success\":true}");
+        });
+        api.delete("/api/alerts/{id:int}", (exchange, params) -> {
+            new AlertDAO().delete(params.getInt("id"));
+            send(exchange, "{\"success\":true}");
+        });
         
         // API Statistics
-        server.createContext("/api/statistics/", exchange -> {
-            cors(exchange);
-            if ("OPTIONS".equals(exchange.getRequestMethod())) { exchange.sendResponseHeaders(200, -1); exchange.close(); return; }
-            
-            StatisticsService service = new StatisticsService();
-            String path = exchange.getRequestURI().getPath();
-            String response = "";
-            
-            try {
-                if (path.contains("/workload")) {
-                    response = gson.toJson(service.getMemberWorkloadStatistics());
-                } else if (path.matches(".*/project/\\d+/?")) {
-                    int id = Integer.parseInt(path.split("/")[4]);
-                    response = gson.toJson(service.getProjectStatistics(id));
-                } else {
-                    response = gson.toJson(service.getOverallStatistics());
-                }
-                send(exchange, response);
-            } catch (Exception e) {
-                error(exchange, e);
-            }
+        api.get("/api/statistics/", (exchange, params) -> {
+            if (notModified(exchange, Entity.MEMBERS, Entity.PROJECTS, Entity.TASKS, Entity.ALERTS)) return;
+            send(exchange, gson.toJson(new StatisticsService().getOverallStatistics()));
         });
+        api.get("/api/statistics/workload", (exchange, params) -> {
+            if (notModified(exchange, Entity.MEMBERS, Entity.TASKS)) return;
+            send(exchange, gson.toJson(new StatisticsService().getMemberWorkloadStatistics()));
+        });
+        api.get("/api/statistics/project/{id:int}", (exchange, params) -> {
+            if (notModified(exchange, Entity.PROJECTS, Entity.TASKS, Entity.MEMBERS)) return;
+            send(exchange, gson.toJson(new StatisticsService().getProjectStatistics(params.getInt("id"))));
+        });
+        
+        // Plusieurs serveurs (baux d'allocation actifs) : versions des ETags en base, sinon un 304
+        // pourrait masquer l'écriture d'un autre nœud
+        boolean multiNode = ServerConfig.getBoolean("allocation.lease.enabled", true);
+        if (ServerConfig.getBoolean("server.etag.sharedVersions", multiNode)) {
+            EntityVersions.share(ServerConfig.getLong("server.etag.versionsCacheMillis", 1000));
+        }
+        
+        // Statistiques en mémoire : réconciliation périodique avec MySQL, plus fréquente quand
+        // d'autres serveurs écrivent sans mettre à jour les compteurs de celui-ci
+        StatisticsCounters.getInstance().startReconciliation(multiNode
+            ? ServerConfig.getInt("server.stats.sharedReconcileSeconds", 15)
+            : ServerConfig.getInt("server.stats.reconcileSeconds", 300));
+        
+        // API Batch : plusieurs appels en un aller-retour et une seule transaction
+        api.post("/api/batch", new BatchHandler(api, ServerConfig.getInt("server.batch.maxOperations", 200)));
+        // Effets hors de la transaction du lot (job d'allocation, interrupteur en mémoire, lot imbriqué)
+        api.excludeFromBatch("/api/batch")
+            .excludeFromBatch("/api/allocate/{projectId:int}")
+            .excludeFromBatch("/api/allocate/jobs/")
+            .excludeFromBatch("/api/allocate/jobs/{id:int}")
+            .excludeFromBatch("/api/optimizer");
+        
+        // Flux SSE des alertes : contexte à part, la connexion reste ouverte après le handler
+        AlertBus.getInstance().setUnreadCounter(() -> new AlertDAO().getUnreadCount());
+        AlertStreamHandler alertStream = new AlertStreamHandler(AlertBus.getInstance(), SimpleServer::cors,
+            ServerConfig.getInt("server.sse.threads", 4),
+            ServerConfig.getInt("server.sse.heartbeatSeconds", 15),
+            ServerConfig.getInt("server.sse.retryMillis", 5000));
+        
+        // Flux SSE de progression d'un job d'allocation
+        AllocationJobStreamHandler jobStream = new AllocationJobStreamHandler(allocationJobs, SimpleServer::cors, gson,
+            ServerConfig.getInt("allocation.jobs.streamThreads", 2),
+            ServerConfig.getInt("allocation.jobs.streamIntervalMillis", 250),
+            ServerConfig.getInt("server.sse.heartbeatSeconds", 15));
+        
+        // API Server - executor metrics (queue depth, active handlers)
+        api.get("/api/server/stats", (exchange, params) -> {
+            Map<String, Object> stats = new LinkedHashMap<>(executor.getStats());
+            stats.put("alertStreams", alertStream.getStreamCount());
+            stats.put("allocationQueueDepth", allocationJobs.getQueueDepth());
+            stats.put("allocationActiveJobs", allocationJobs.getActiveCount());
+            stats.put("allocationStreams", jobStream.getStreamCount());
+            send(exchange, gson.toJson(stats));
+        });
+        
+        server.createContext("/api/", api);
+        server.createContext("/api/alerts/stream", alertStream);
+        server.createContext("/api/allocate/events/", jobStream);
+        
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            alertStream.shutdown();
+            jobStream.shutdown();
+            optimizer.shutdown();
+            allocationJobs.shutdown();
+            StatisticsCounters.getInstance().stopReconciliation();
+            server.stop(1);
+            executor.shutdown();
+        }));
         
         server.start();
         System.out.println("\n======================================");
         System.out.println("  Serveur demarre !");
         System.out.println("======================================");
-        System.out.println("\nURL: http://localhost:8080\n");
+        System.out.println("\nURL: http://localhost:" + port);
+        System.out.println("Executor: " + executor.getMode() + "\n");
         System.out.println("Appuyez sur Ctrl+C pour arreter\n");
     }
     
@@ -316,7 +406,8 @@ public class SimpleServer {
         ex.getResponseHeaders().add("Content-Type", "application/json; charset=UTF-8");
         ex.getResponseHeaders().add("Access-Control-Allow-Origin", "*");
         ex.getResponseHeaders().add("Access-Control-Allow-Methods", "GET,POST,PUT,DELETE,OPTIONS");
-        ex.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type");
+        ex.getResponseHeaders().add("Access-Control-Allow-Headers", "Content-Type, If-None-Match");
+        ex.getResponseHeaders().add("Access-Control-Expose-Headers", "X-Next-Cursor, Link, ETag");
     }
     
     static String read(HttpExchange ex) throws IOException {
@@ -327,26 +418,133 @@ public class SimpleServer {
         return sb.toString();
     }
     
-    static int getId(HttpExchange ex) {
-        String[] parts = ex.getRequestURI().getPath().split("/");
-        for (int i = parts.length - 1; i >= 0; i--) {
-            try { return Integer.parseInt(parts[i]); } catch (Exception e) {}
-        }
-        return 0;
+    static void send(HttpExchange ex, String response) throws IOException {
+        send(ex, 200, response);
     }
     
-    static void send(HttpExchange ex, String response) throws IOException {
+    static void send(HttpExchange ex, int status, String response) throws IOException {
         byte[] bytes = response.getBytes("UTF-8");
-        ex.sendResponseHeaders(200, bytes.length);
+        ex.sendResponseHeaders(status, bytes.length);
         ex.getResponseBody().write(bytes);
         ex.close();
     }
     
+    /**
+     * Conditional GET: sets the ETag derived from the version counters of the entities the
+     * response is built from, and answers 304 when the client already has it. Checked before
+     * any DAO call, so a revalidation reads no rows (at most the shared versions, see
+     * EntityVersions.share).
+     */
+    static boolean notModified(HttpExchange ex, Entity... entities) throws IOException {
+        return notModified(ex, EntityVersions.etag(ex.getRequestURI().getRawQuery(), entities));
+    }
+    
+    static boolean notModified(HttpExchange ex, String etag) throws IOException {
+        ex.getResponseHeaders().set("ETag", etag);
+        // Toujours revalider : les compteurs changent à chaque écriture
+        ex.getResponseHeaders().set("Cache-Control", "no-cache");
+        if (StaticAssets.matches(ex.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+            ex.sendResponseHeaders(304, -1);
+            return true;
+        }
+        return false;
+    }
+    
+    /** Writes one list element; lets list endpoints apply a ?fields= projection. */
+    @FunctionalInterface
+    interface ItemWriter<T> {
+        void write(JsonWriter out, T item) throws IOException;
+    }
+    
+    /**
+     * Writes a JSON array element by element straight into the response body (chunked),
+     * instead of building the whole payload as a String and then as a byte[].
+     */
+    static void stream(HttpExchange ex, Iterable<?> items) throws IOException {
+        stream(ex, items, (out, item) -> gson.toJson(item, item.getClass(), out));
+    }
+    
+    static <T> void stream(HttpExchange ex, Iterable<? extends T> items, ItemWriter<T> itemWriter) throws IOException {
+        ex.sendResponseHeaders(200, 0);
+        try (JsonWriter writer = new JsonWriter(new BufferedWriter(
+                new OutputStreamWriter(ex.getResponseBody(), "UTF-8"), 8192))) {
+            writer.beginArray();
+            for (T item : items) {
+                if (item == null) {
+                    writer.nullValue();
+                } else {
+                    itemWriter.write(writer, item);
+                }
+            }
+            writer.endArray();
+        } finally {
+            ex.close();
+        }
+    }
+    
+    /**
+     * Streams one page and advertises the next one in X-Next-Cursor and a Link header.
+     * The body stays a plain JSON array, like the unpaginated listing.
+     */
+    static void streamPage(HttpExchange ex, Page<?> page) throws IOException {
+        streamPage(ex, page, (out, item) -> gson.toJson(item, item.getClass(), out));
+    }
+    
+    static <T> void streamPage(HttpExchange ex, Page<? extends T> page, ItemWriter<T> itemWriter) throws IOException {
+        if (page.hasNext()) {
+            ex.getResponseHeaders().add("X-Next-Cursor", page.getNextCursor());
+            ex.getResponseHeaders().add("Link", "<" + nextPageUri(ex, page.getNextCursor()) + ">; rel=\"next\"");
+        }
+        stream(ex, page.getItems(), itemWriter);
+    }
+    
+    private static String nextPageUri(HttpExchange ex, String cursor) {
+        StringBuilder uri = new StringBuilder(ex.getRequestURI().getPath()).append("?cursor=").append(cursor);
+        String query = ex.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                if (!pair.startsWith("cursor=") && !pair.isEmpty()) uri.append('&').append(pair);
+            }
+        }
+        return uri.toString();
+    }
+    
+    static boolean isPaged(Map<String, String> query) {
+        return query.containsKey("limit") || query.containsKey("cursor");
+    }
+    
+    static int limit(Map<String, String> query) {
+        String limit = query.get("limit");
+        return limit == null || limit.isEmpty() ? 0 : Integer.parseInt(limit);
+    }
+    
+    static Map<String, String> queryParams(HttpExchange ex) {
+        Map<String, String> params = new HashMap<>();
+        String query = ex.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) return params;
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq >= 0 ? pair.substring(0, eq) : pair;
+            String value = eq >= 0 ? pair.substring(eq + 1) : "";
+            try {
+                params.put(java.net.URLDecoder.decode(key, "UTF-8"), java.net.URLDecoder.decode(value, "UTF-8"));
+            } catch (UnsupportedEncodingException e) {
+                params.put(key, value);
+            }
+        }
+        return params;
+    }
+    
     static void error(HttpExchange ex, Exception e) throws IOException {
-        e.printStackTrace();
-        String err = "{\"success\":false,\"error\":\"" + e.getMessage().replace("\"", "'") + "\"}";
+        // Paramètre invalide (id, limit, cursor...) : erreur du client, pas du serveur
+        int status = e instanceof IllegalArgumentException ? 400 : 500;
+        if (status == 500) e.printStackTrace();
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        String err = "{\"success\":false,\"error\":\"" + message.replace("\"", "'") + "\"}";
         byte[] bytes = err.getBytes("UTF-8");
-        ex.sendResponseHeaders(500, bytes.length);
+        // Une erreur ne doit pas être revalidée comme la représentation normale
+        ex.getResponseHeaders().remove("ETag");
+        ex.sendResponseHeaders(status, bytes.length);
         ex.getResponseBody().write(bytes);
         ex.close();
     }
@@ -1,5 +1,6 @@
 package org.projectmanagement.dao;
 
+import org.projectmanagement.event.AlertBus;
 import org.projectmanagement.model.Alert;
 import org.projectmanagement.model.Member;
 import org.projectmanagement.model.Project;
@@ -12,34 +13,36 @@ import java.util.List;
 
 public class AlertDAO {
 
+    // Champs acceptés par ?fields= sur la liste des alertes
+    public static final List<String> FIELDS = FieldSet.names("id", "type", "severity", "title", "message",
+            "member", "project", "task", "isRead", "createdAt");
+
     public int create(Alert alert) throws SQLException {
+        return EntityVersions.atomic(() -> doCreate(alert));
+    }
+
+    private int doCreate(Alert alert) throws SQLException {
         String sql = "INSERT INTO alerts (type, severity, title, message, member_id, project_id, task_id, is_read) " +
                 "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
 
         try (Connection conn = DatabaseUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
-            stmt.setString(1, alert.getType().name());
-            stmt.setString(2, alert.getSeverity().name());
-            stmt.setString(3, alert.getTitle());
-            stmt.setString(4, alert.getMessage());
-            // setIntOrNull(stmt, 5, alert.getMemberId());
-            setIntOrNull(stmt, 5, alert.getMember() != null ? alert.getMember().getId() : null);
-            // setIntOrNull(stmt, 6, alert.getProjectId());
-            setIntOrNull(stmt, 6, alert.getProject() != null ? alert.getProject().getId() : null);
-            // setIntOrNull(stmt, 7, alert.getTaskId());
-            setIntOrNull(stmt, 7, alert.getTask() != null ? alert.getTask().getId() : null);
-            stmt.setBoolean(8, alert.isRead());
+            bindAlert(stmt, alert);
 
             int affectedRows = stmt.executeUpdate();
             if (affectedRows == 0) {
                 throw new SQLException("Creating alert failed, no rows affected.");
             }
+            EntityVersions.bump(EntityVersions.Entity.ALERTS);
 
             try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
                 if (generatedKeys.next()) {
                     int id = generatedKeys.getInt(1);
                     alert.setId(id);
+                    if (!alert.isRead()) {
+                        AlertBus.getInstance().publishCreated(id, alert.getSeverity().name(), alert.getTitle());
+                    }
                     return id;
                 } else {
                     throw new SQLException("Creating alert failed, no ID obtained.");
@@ -48,6 +51,46 @@ public class AlertDAO {
         }
     }
 
+    /**
+     * Inserts all the alerts with one JDBC batch (one round trip with rewriteBatchedStatements)
+     * and sets their generated ids.
+     */
+    public void createAll(List<Alert> alerts) throws SQLException {
+        EntityVersions.atomic(() -> {
+            doCreateAll(alerts);
+            return null;
+        });
+    }
+
+    private void doCreateAll(List<Alert> alerts) throws SQLException {
+        if (alerts.isEmpty()) return;
+        String sql = "INSERT INTO alerts (type, severity, title, message, member_id, project_id, task_id, is_read) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+            for (Alert alert : alerts) {
+                bindAlert(stmt, alert);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            EntityVersions.bump(EntityVersions.Entity.ALERTS);
+
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                for (Alert alert : alerts) {
+                    if (!generatedKeys.next()) {
+                        throw new SQLException("Creating alerts failed, missing generated IDs.");
+                    }
+                    alert.setId(generatedKeys.getInt(1));
+                    if (!alert.isRead()) {
+                        AlertBus.getInstance().publishCreated(alert.getId(), alert.getSeverity().name(), alert.getTitle());
+                    }
+                }
+            }
+        }
+    }
+
     public Alert findById(int id) throws SQLException {
         String sql = "SELECT a.*, m.name as member_name, p.name as project_name, t.title as task_title " +
                 "FROM alerts a " +
@@ -74,11 +117,11 @@ public class AlertDAO {
     }
 
     public List<Alert> findAll(boolean unreadOnly) throws SQLException {
-        String sql = "SELECT a.*, m.name as member_name, p.name as project_name, t.title as task_title " +
-                "FROM alerts a " +
-                "LEFT JOIN members m ON a.member_id = m.id " +
-                "LEFT JOIN projects p ON a.project_id = p.id " +
-                "LEFT JOIN tasks t ON a.task_id = t.id ";
+        return findAll(unreadOnly, FieldSet.ALL);
+    }
+
+    public List<Alert> findAll(boolean unreadOnly, FieldSet fields) throws SQLException {
+        String sql = "SELECT " + alertColumns(fields) + " FROM alerts a " + alertJoins(fields);
 
         if (unreadOnly) {
             sql += "WHERE a.is_read = FALSE ";
@@ -93,12 +136,76 @@ public class AlertDAO {
              ResultSet rs = stmt.executeQuery()) {
 
             while (rs.next()) {
-                alerts.add(extractAlertFromResultSet(rs));
+                alerts.add(extractAlertFromResultSet(rs, fields));
             }
         }
         return alerts;
     }
 
+    /**
+     * Keyset page in the same order as findAll: severity DESC, created_at DESC (id DESC as tie-break).
+     * Severity is compared by its ENUM index (LOW=1 .. CRITICAL=4) so the seek can use idx_alerts_feed.
+     */
+    public Page<Alert> findPage(boolean unreadOnly, String cursor, int limit) throws SQLException {
+        return findPage(unreadOnly, cursor, limit, FieldSet.ALL);
+    }
+
+    public Page<Alert> findPage(boolean unreadOnly, String cursor, int limit, FieldSet fields) throws SQLException {
+        limit = Cursor.clampLimit(limit);
+        String[] after = Cursor.decode(cursor, "alerts", 3);
+        // severity et created_at forment la clé du curseur : toujours lues
+        String sql = "SELECT " + alertColumns(fields) +
+                (fields.isAll() ? "" : ", a.severity AS key_severity, a.created_at AS key_created_at") +
+                " FROM alerts a " + alertJoins(fields) + "WHERE 1 = 1 ";
+
+        if (unreadOnly) {
+            sql += "AND a.is_read = FALSE ";
+        }
+        if (after != null) {
+            sql += "AND (a.severity < ? OR (a.severity = ? AND (a.created_at < ? " +
+                    "OR (a.created_at = ? AND a.id < ?)))) ";
+        }
+
+        sql += "ORDER BY a.severity DESC, a.created_at DESC, a.id DESC LIMIT ?";
+
+        List<Alert> alerts = new ArrayList<>();
+        int lastSeverity = 0;
+        Timestamp lastCreatedAt = null;
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            int i = 1;
+            if (after != null) {
+                int severity = Integer.parseInt(after[0]);
+                Timestamp createdAt = Timestamp.valueOf(after[1]);
+                stmt.setInt(i++, severity);
+                stmt.setInt(i++, severity);
+                stmt.setTimestamp(i++, createdAt);
+                stmt.setTimestamp(i++, createdAt);
+                stmt.setInt(i++, Integer.parseInt(after[2]));
+            }
+            stmt.setInt(i, limit + 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (alerts.size() < limit) {
+                        String severityColumn = fields.isAll() ? "severity" : "key_severity";
+                        lastSeverity = Alert.Severity.valueOf(rs.getString(severityColumn)).ordinal() + 1;
+                        lastCreatedAt = rs.getTimestamp(fields.isAll() ? "created_at" : "key_created_at");
+                    }
+                    alerts.add(extractAlertFromResultSet(rs, fields));
+                }
+            }
+        }
+
+        String next = null;
+        if (alerts.size() > limit) {
+            alerts.remove(limit);
+            next = Cursor.encode("alerts", lastSeverity, lastCreatedAt, alerts.get(limit - 1).getId());
+        }
+        return new Page<>(alerts, next);
+    }
+
     public List<Alert> findByMember(int memberId) throws SQLException {
         String sql = "SELECT a.*, m.name as member_name, p.name as project_name, t.title as task_title " +
                 "FROM alerts a " +
@@ -146,6 +253,13 @@ public class AlertDAO {
     }
 
     public void markAsRead(int id) throws SQLException {
+        EntityVersions.atomic(() -> {
+            doMarkAsRead(id);
+            return null;
+        });
+    }
+
+    private void doMarkAsRead(int id) throws SQLException {
         String sql = "UPDATE alerts SET is_read = TRUE WHERE id = ?";
 
         try (Connection conn = DatabaseUtil.getConnection();
@@ -153,20 +267,38 @@ public class AlertDAO {
 
             stmt.setInt(1, id);
             stmt.executeUpdate();
+            EntityVersions.bump(EntityVersions.Entity.ALERTS);
+            AlertBus.getInstance().publishRead(id);
         }
     }
 
     public void markAllAsRead() throws SQLException {
+        EntityVersions.atomic(() -> {
+            doMarkAllAsRead();
+            return null;
+        });
+    }
+
+    private void doMarkAllAsRead() throws SQLException {
         String sql = "UPDATE alerts SET is_read = TRUE";
 
         try (Connection conn = DatabaseUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.executeUpdate();
+            EntityVersions.bump(EntityVersions.Entity.ALERTS);
+            AlertBus.getInstance().publishAllRead();
         }
     }
 
     public void delete(int id) throws SQLException {
+        EntityVersions.atomic(() -> {
+            doDelete(id);
+            return null;
+        });
+    }
+
+    private void doDelete(int id) throws SQLException {
         String sql = "DELETE FROM alerts WHERE id = ?";
 
         try (Connection conn = DatabaseUtil.getConnection();
@@ -174,6 +306,8 @@ public class AlertDAO {
 
             stmt.setInt(1, id);
             stmt.executeUpdate();
+            EntityVersions.bump(EntityVersions.Entity.ALERTS);
+            AlertBus.getInstance().publishDeleted(id);
         }
     }
 
@@ -192,42 +326,90 @@ public class AlertDAO {
     }
 
     private Alert extractAlertFromResultSet(ResultSet rs) throws SQLException {
+        return extractAlertFromResultSet(rs, FieldSet.ALL);
+    }
+
+    private Alert extractAlertFromResultSet(ResultSet rs, FieldSet fields) throws SQLException {
         Alert alert = new Alert();
         alert.setId(rs.getInt("id"));
-        alert.setType(Alert.AlertType.valueOf(rs.getString("type")));
-        alert.setSeverity(Alert.Severity.valueOf(rs.getString("severity")));
-        alert.setTitle(rs.getString("title"));
-        alert.setMessage(rs.getString("message"));
-
-        int memberId = rs.getInt("member_id");
-        if (!rs.wasNull()) {
-            Member member = new Member();
-            member.setId(memberId);
-            member.setName(rs.getString("member_name"));
-            alert.setMember(member);
+        if (fields.has("type")) alert.setType(Alert.AlertType.valueOf(rs.getString("type")));
+        if (fields.has("severity")) alert.setSeverity(Alert.Severity.valueOf(rs.getString("severity")));
+        if (fields.has("title")) alert.setTitle(rs.getString("title"));
+        if (fields.has("message")) alert.setMessage(rs.getString("message"));
+
+        if (fields.has("member")) {
+            int memberId = rs.getInt("member_id");
+            if (!rs.wasNull()) {
+                Member member = new Member();
+                member.setId(memberId);
+                member.setName(rs.getString("member_name"));
+                alert.setMember(member);
+            }
         }
 
-        int projectId = rs.getInt("project_id");
-        if (!rs.wasNull()) {
-            Project project = new Project();
-            project.setId(projectId);
-            project.setName(rs.getString("project_name"));
-            alert.setProject(project);
+        if (fields.has("project")) {
+            int projectId = rs.getInt("project_id");
+            if (!rs.wasNull()) {
+                Project project = new Project();
+                project.setId(projectId);
+                project.setName(rs.getString("project_name"));
+                alert.setProject(project);
+            }
         }
 
-        int taskId = rs.getInt("task_id");
-        if (!rs.wasNull()) {
-            Task task = new Task();
-            task.setId(taskId);
-            task.setTitle(rs.getString("task_title"));
-            alert.setTask(task);
+        if (fields.has("task")) {
+            int taskId = rs.getInt("task_id");
+            if (!rs.wasNull()) {
+                Task task = new Task();
+                task.setId(taskId);
+                task.setTitle(rs.getString("task_title"));
+                alert.setTask(task);
+            }
         }
 
-        alert.setRead(rs.getBoolean("is_read"));
-        alert.setCreatedAt(rs.getTimestamp("created_at"));
+        if (fields.has("isRead")) alert.setRead(rs.getBoolean("is_read"));
+        if (fields.has("createdAt")) alert.setCreatedAt(rs.getTimestamp("created_at"));
         return alert;
     }
 
+    private String alertColumns(FieldSet fields) {
+        if (fields.isAll()) return "a.*, m.name as member_name, p.name as project_name, t.title as task_title";
+        StringBuilder columns = new StringBuilder("a.id");
+        if (fields.has("type")) columns.append(", a.type");
+        if (fields.has("severity")) columns.append(", a.severity");
+        if (fields.has("title")) columns.append(", a.title");
+        if (fields.has("message")) columns.append(", a.message");
+        if (fields.has("member")) columns.append(", a.member_id, m.name as member_name");
+        if (fields.has("project")) columns.append(", a.project_id, p.name as project_name");
+        if (fields.has("task")) columns.append(", a.task_id, t.title as task_title");
+        if (fields.has("isRead")) columns.append(", a.is_read");
+        if (fields.has("createdAt")) columns.append(", a.created_at");
+        return columns.toString();
+    }
+
+    // Les jointures ne sont faites que pour les références demandées
+    private String alertJoins(FieldSet fields) {
+        StringBuilder joins = new StringBuilder();
+        if (fields.has("member")) joins.append("LEFT JOIN members m ON a.member_id = m.id ");
+        if (fields.has("project")) joins.append("LEFT JOIN projects p ON a.project_id = p.id ");
+        if (fields.has("task")) joins.append("LEFT JOIN tasks t ON a.task_id = t.id ");
+        return joins.toString();
+    }
+
+    private void bindAlert(PreparedStatement stmt, Alert alert) throws SQLException {
+        stmt.setString(1, alert.getType().name());
+        stmt.setString(2, alert.getSeverity().name());
+        stmt.setString(3, alert.getTitle());
+        stmt.setString(4, alert.getMessage());
+        // setIntOrNull(stmt, 5, alert.getMemberId());
+        setIntOrNull(stmt, 5, alert.getMember() != null ? alert.getMember().getId() : null);
+        // setIntOrNull(stmt, 6, alert.getProjectId());
+        setIntOrNull(stmt, 6, alert.getProject() != null ? alert.getProject().getId() : null);
+        // setIntOrNull(stmt, 7, alert.getTaskId());
+        setIntOrNull(stmt, 7, alert.getTask() != null ? alert.getTask().getId() : null);
+        stmt.setBoolean(8, alert.isRead());
+    }
+
     private void setIntOrNull(PreparedStatement stmt, int paramIndex, Integer value) throws SQLException {
         if (value != null) {
             stmt.setInt(paramIndex, value);
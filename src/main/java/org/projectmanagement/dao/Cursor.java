@@ -0,0 +1,53 @@
+package org.projectmanagement.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque pagination cursor: the sort key values of the last row of a page.
+ * Clients only pass it back; its content is private to the DAO that produced it.
+ */
+final class Cursor {
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = 500;
+
+    private Cursor() {
+    }
+
+    static String encode(String kind, Object... keys) {
+        StringBuilder sb = new StringBuilder(kind);
+        for (Object key : keys) {
+            sb.append('.').append(ENCODER.encodeToString(String.valueOf(key).getBytes(StandardCharsets.UTF_8)));
+        }
+        return ENCODER.encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the key values, or null when no cursor was given (first page).
+     * Throws IllegalArgumentException for a cursor produced by another listing or tampered with.
+     */
+    static String[] decode(String cursor, String kind, int keyCount) {
+        if (cursor == null || cursor.isEmpty()) return null;
+        try {
+            String[] parts = new String(DECODER.decode(cursor), StandardCharsets.UTF_8).split("\\.", -1);
+            if (parts.length != keyCount + 1 || !parts[0].equals(kind)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            String[] keys = new String[keyCount];
+            for (int i = 0; i < keyCount; i++) {
+                keys[i] = new String(DECODER.decode(parts[i + 1]), StandardCharsets.UTF_8);
+            }
+            return keys;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    static int clampLimit(int limit) {
+        if (limit <= 0) return DEFAULT_LIMIT;
+        return Math.min(limit, MAX_LIMIT);
+    }
+}
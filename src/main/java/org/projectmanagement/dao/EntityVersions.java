@@ -0,0 +1,286 @@
+package org.projectmanagement.dao;
+
+import org.projectmanagement.util.DatabaseUtil;
+import org.projectmanagement.util.TransactionScope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic version counters per table (and per project for tasks).
+ * DAOs bump them after every successful write; the API derives ETags from them so an
+ * unchanged collection can be answered with 304 without reading the collection.
+ * By default counters live in this JVM only: the random epoch makes tags from a previous run
+ * never match. With several servers on one database, share() moves them to the
+ * entity_versions table: a write bumps the rows in its own transaction (just before the
+ * commit, in key order, so concurrent writers cannot deadlock on them) and tags are built
+ * from a copy of the table re-read at most every cacheMillis. A node sees its own writes at
+ * once and the other nodes' writes within cacheMillis. DAO writes run through atomic() so
+ * that they always have that transaction.
+ * Inside a transaction (DatabaseUtil.inTransaction) the bumps wait for the commit.
+ */
+public final class EntityVersions {
+    private static final Logger logger = LoggerFactory.getLogger(EntityVersions.class);
+
+    public enum Entity { MEMBERS, PROJECTS, TASKS, SKILLS, ALERTS }
+
+    // Clés des lignes de entity_versions
+    private static final String ALL_PROJECT_TASKS = "tasks:all";
+    private static final String PROJECT_TASKS = "tasks:project:";
+
+    private static final String EPOCH = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    // Compteurs en base : persistants, le même préfixe sur tous les nœuds
+    private static final String SHARED_EPOCH = "db";
+
+    private static final AtomicLong[] counters = new AtomicLong[Entity.values().length];
+    // Incrémenté quand une écriture touche les tâches de plusieurs projets à la fois
+    private static final AtomicLong allProjectTasks = new AtomicLong();
+    private static final ConcurrentHashMap<Integer, AtomicLong> projectTasks = new ConcurrentHashMap<>();
+
+    private static volatile boolean shared;
+    private static volatile long cacheMillis;
+    private static volatile Map<String, Long> sharedVersions = Collections.emptyMap();
+    private static volatile long sharedReadAt;
+    // Incrémenté à chaque écriture locale validée : une lecture commencée avant est périmée
+    private static final AtomicLong localWrites = new AtomicLong();
+    private static volatile long readWrites = -1;
+
+    static {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new AtomicLong();
+        }
+    }
+
+    private EntityVersions() {
+    }
+
+    /**
+     * Keeps the counters in the entity_versions table, for setups where several servers
+     * write to the same database. Call once at startup.
+     */
+    public static void share(long versionsCacheMillis) {
+        cacheMillis = Math.max(0, versionsCacheMillis);
+        sharedReadAt = 0;
+        shared = true;
+    }
+
+    /**
+     * Runs a DAO write in a transaction when the versions are shared, so the version rows
+     * are committed with the data; as is otherwise (or inside an enclosing transaction).
+     */
+    public static <T> T atomic(DatabaseUtil.SqlWork<T> work) throws SQLException {
+        return shared && !TransactionScope.isActive() ? DatabaseUtil.inTransaction(work) : work.run();
+    }
+
+    public static void bump(Entity... entities) {
+        if (shared) {
+            String[] keys = new String[entities.length];
+            for (int i = 0; i < entities.length; i++) {
+                keys[i] = key(entities[i]);
+            }
+            bumpShared(keys);
+            return;
+        }
+        TransactionScope.afterCommit(() -> {
+            for (Entity entity : entities) {
+                counters[entity.ordinal()].incrementAndGet();
+            }
+        });
+    }
+
+    /** A write on the tasks of one project. */
+    public static void bumpProjectTasks(int projectId) {
+        if (shared) {
+            bumpShared(PROJECT_TASKS + projectId, key(Entity.TASKS));
+            return;
+        }
+        TransactionScope.afterCommit(() -> projectTasks.computeIfAbsent(projectId, id -> new AtomicLong()).incrementAndGet());
+        bump(Entity.TASKS);
+    }
+
+    /** A write whose effect on tasks cannot be pinned to one project (cascades...). */
+    public static void bumpAllTasks() {
+        if (shared) {
+            bumpShared(ALL_PROJECT_TASKS, key(Entity.TASKS));
+            return;
+        }
+        TransactionScope.afterCommit(allProjectTasks::incrementAndGet);
+        bump(Entity.TASKS);
+    }
+
+    public static long get(Entity entity) {
+        return shared ? sharedVersion(sharedVersions(), key(entity)) : counters[entity.ordinal()].get();
+    }
+
+    public static long getProjectTasks(int projectId) {
+        if (shared) return sharedVersion(sharedVersions(), PROJECT_TASKS + projectId);
+        AtomicLong counter = projectTasks.get(projectId);
+        return counter != null ? counter.get() : 0;
+    }
+
+    /**
+     * Strong ETag over the given entities. The variant (query string...) distinguishes
+     * representations of the same resource.
+     */
+    public static String etag(String variant, Entity... entities) {
+        if (shared) {
+            Map<String, Long> versions = sharedVersions();
+            if (versions == null) return unknownTag();
+            StringBuilder sb = new StringBuilder("\"").append(SHARED_EPOCH);
+            for (Entity entity : entities) {
+                sb.append('-').append(Long.toString(sharedVersion(versions, key(entity)), 36));
+            }
+            return appendVariant(sb, variant);
+        }
+        StringBuilder sb = new StringBuilder("\"").append(EPOCH);
+        for (Entity entity : entities) {
+            sb.append('-').append(Long.toString(get(entity), 36));
+        }
+        return appendVariant(sb, variant);
+    }
+
+    /** ETag for the task list of one project (tasks embed member and skill names). */
+    public static String projectTasksEtag(int projectId, String variant) {
+        if (shared) {
+            Map<String, Long> versions = sharedVersions();
+            if (versions == null) return unknownTag();
+            StringBuilder sb = new StringBuilder("\"").append(SHARED_EPOCH)
+                .append("-p").append(projectId)
+                .append('-').append(Long.toString(sharedVersion(versions, ALL_PROJECT_TASKS), 36))
+                .append('-').append(Long.toString(sharedVersion(versions, PROJECT_TASKS + projectId), 36))
+                .append('-').append(Long.toString(sharedVersion(versions, key(Entity.MEMBERS)), 36))
+                .append('-').append(Long.toString(sharedVersion(versions, key(Entity.SKILLS)), 36));
+            return appendVariant(sb, variant);
+        }
+        StringBuilder sb = new StringBuilder("\"").append(EPOCH)
+            .append("-p").append(projectId)
+            .append('-').append(Long.toString(allProjectTasks.get(), 36))
+            .append('-').append(Long.toString(getProjectTasks(projectId), 36))
+            .append('-').append(Long.toString(get(Entity.MEMBERS), 36))
+            .append('-').append(Long.toString(get(Entity.SKILLS), 36));
+        return appendVariant(sb, variant);
+    }
+
+    private static String appendVariant(StringBuilder sb, String variant) {
+        if (variant != null && !variant.isEmpty()) {
+            sb.append('-').append(Integer.toHexString(variant.hashCode()));
+        }
+        return sb.append('"').toString();
+    }
+
+    // ==================== Shared counters ====================
+
+    private static String key(Entity entity) {
+        return entity.name().toLowerCase();
+    }
+
+    /**
+     * Inside a transaction the keys are collected and written once, just before the commit.
+     * Otherwise (a bump with no data write of its own, like a reconciliation) right away: a
+     * failure is only logged, the other nodes then see the change with the next bump.
+     */
+    private static void bumpShared(String... keys) {
+        Set<String> pending = TransactionScope.resource(EntityVersions.class, () -> {
+            Set<String> collected = new TreeSet<>();
+            try {
+                TransactionScope.beforeCommit(() -> {
+                    writeShared(collected);
+                    return null;
+                });
+            } catch (SQLException e) {
+                // Inatteignable : dans une transaction l'action est seulement enregistrée
+                throw new IllegalStateException(e);
+            }
+            TransactionScope.afterCommit(localWrites::incrementAndGet);
+            return collected;
+        });
+        if (pending != null) {
+            Collections.addAll(pending, keys);
+            return;
+        }
+        Set<String> sorted = new TreeSet<>();
+        Collections.addAll(sorted, keys);
+        try {
+            writeShared(sorted);
+        } catch (SQLException e) {
+            logger.warn("Could not bump entity versions {}: {}", sorted, e.getMessage());
+        }
+        localWrites.incrementAndGet();
+    }
+
+    private static void writeShared(Set<String> keys) throws SQLException {
+        if (keys.isEmpty()) return;
+        StringBuilder sql = new StringBuilder("INSERT INTO entity_versions (name, version) VALUES ");
+        for (int i = 0; i < keys.size(); i++) {
+            sql.append(i == 0 ? "(?, 1)" : ", (?, 1)");
+        }
+        sql.append(" ON DUPLICATE KEY UPDATE version = version + 1");
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int i = 1;
+            for (String key : keys) {
+                stmt.setString(i++, key);
+            }
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Copy of entity_versions, re-read when older than cacheMillis or after a local write;
+     * null when it cannot be read.
+     */
+    private static Map<String, Long> sharedVersions() {
+        long now = System.currentTimeMillis();
+        long writes = localWrites.get();
+        Map<String, Long> versions = sharedVersions;
+        if (now - sharedReadAt < cacheMillis && writes == readWrites) {
+            return versions;
+        }
+        synchronized (EntityVersions.class) {
+            if (System.currentTimeMillis() - sharedReadAt < cacheMillis && localWrites.get() == readWrites) {
+                return sharedVersions;
+            }
+            writes = localWrites.get();
+            Map<String, Long> read = new HashMap<>();
+            try (Connection conn = DatabaseUtil.getConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT name, version FROM entity_versions")) {
+                while (rs.next()) {
+                    read.put(rs.getString("name"), rs.getLong("version"));
+                }
+            } catch (SQLException e) {
+                // Sans les versions, aucune réponse ne doit être tenue pour à jour
+                logger.warn("Could not read entity versions: {}", e.getMessage());
+                return null;
+            }
+            sharedVersions = read;
+            readWrites = writes;
+            sharedReadAt = System.currentTimeMillis();
+            return read;
+        }
+    }
+
+    private static long sharedVersion(Map<String, Long> versions, String key) {
+        Long version = versions != null ? versions.get(key) : null;
+        return version != null ? version : 0;
+    }
+
+    /** Tag matching nothing, used when the versions could not be read. */
+    private static String unknownTag() {
+        return "\"" + SHARED_EPOCH + "-unknown-" + Long.toString(System.nanoTime() & Long.MAX_VALUE, 36) + "\"";
+    }
+}
@@ -0,0 +1,53 @@
+package org.projectmanagement.dao;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Top-level fields requested with ?fields=a,b,c.
+ * DAOs use it to narrow the SELECT column list and skip child collections,
+ * the JSON writers use it to leave out what was not loaded. "id" is always included.
+ */
+public final class FieldSet {
+    public static final FieldSet ALL = new FieldSet(null);
+
+    private final Set<String> fields;
+
+    private FieldSet(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Parses a comma separated list. Null or blank means every field.
+     * Throws IllegalArgumentException for a field the resource does not have.
+     */
+    public static FieldSet parse(String spec, List<String> allowed) {
+        if (spec == null || spec.trim().isEmpty()) return ALL;
+        Set<String> fields = new HashSet<>();
+        fields.add("id");
+        for (String field : spec.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) continue;
+            if (!allowed.contains(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "', expected one of " + allowed);
+            }
+            fields.add(name);
+        }
+        return new FieldSet(Collections.unmodifiableSet(fields));
+    }
+
+    public static List<String> names(String... names) {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    public boolean has(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    public boolean isAll() {
+        return fields == null;
+    }
+}
@@ -0,0 +1,129 @@
+package org.projectmanagement.dao;
+
+import org.projectmanagement.util.DatabaseUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+
+/**
+ * Time-limited leases stored in allocation_leases, one row per project, shared by every
+ * server instance. All times come from the MySQL clock, so nodes need no synchronized
+ * clocks. Each takeover increments the row's token (fencing token): a holder that stalled
+ * past its expiry can no longer write once someone else took the lease, because its writes
+ * re-check the token under a row lock (checkFence) in the same transaction.
+ */
+public class LeaseDAO {
+    private static final Logger logger = LoggerFactory.getLogger(LeaseDAO.class);
+
+    /** A lease held by this node. */
+    public static final class Lease {
+        private final int projectId;
+        private final String owner;
+        private final long token;
+
+        Lease(int projectId, String owner, long token) {
+            this.projectId = projectId;
+            this.owner = owner;
+            this.token = token;
+        }
+
+        public int getProjectId() {
+            return projectId;
+        }
+
+        public String getOwner() {
+            return owner;
+        }
+
+        public long getToken() {
+            return token;
+        }
+    }
+
+    /**
+     * Takes the lease of a project for ttlMillis when it is free or expired. Returns null
+     * when another owner still holds it.
+     */
+    public Lease tryAcquire(int projectId, String owner, long ttlMillis) throws SQLException {
+        // expires_at est modifié en dernier : les conditions précédentes voient l'ancienne valeur
+        String sql = "INSERT INTO allocation_leases (project_id, owner, token, expires_at) " +
+                    "VALUES (?, ?, 1, NOW(3) + INTERVAL ? MICROSECOND) " +
+                    "ON DUPLICATE KEY UPDATE " +
+                    "token = IF(expires_at <= NOW(3), token + 1, token), " +
+                    "owner = IF(expires_at <= NOW(3), VALUES(owner), owner), " +
+                    "expires_at = IF(expires_at <= NOW(3), VALUES(expires_at), expires_at)";
+
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, projectId);
+                stmt.setString(2, owner);
+                stmt.setLong(3, ttlMillis * 1000);
+                stmt.executeUpdate();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT owner, token FROM allocation_leases WHERE project_id = ?")) {
+                stmt.setInt(1, projectId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next() && owner.equals(rs.getString("owner"))) {
+                        Lease lease = new Lease(projectId, owner, rs.getLong("token"));
+                        logger.debug("Acquired allocation lease of project {} (token {})", projectId, lease.token);
+                        return lease;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /** Extends the lease; false when it expired and was taken over (or released). */
+    public boolean renew(Lease lease, long ttlMillis) throws SQLException {
+        String sql = "UPDATE allocation_leases SET expires_at = NOW(3) + INTERVAL ? MICROSECOND " +
+                    "WHERE project_id = ? AND owner = ? AND token = ?";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, ttlMillis * 1000);
+            stmt.setInt(2, lease.projectId);
+            stmt.setString(3, lease.owner);
+            stmt.setLong(4, lease.token);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    /** Makes the lease expire now, so the next node takes it without waiting for the TTL. */
+    public void release(Lease lease) throws SQLException {
+        String sql = "UPDATE allocation_leases SET expires_at = NOW(3) " +
+                    "WHERE project_id = ? AND owner = ? AND token = ?";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, lease.projectId);
+            stmt.setString(2, lease.owner);
+            stmt.setLong(3, lease.token);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * To call inside the transaction that writes on behalf of the lease: locks the lease row
+     * until commit (a takeover waits for it) and fails when the token has moved on.
+     */
+    public void checkFence(Lease lease) throws SQLException {
+        String sql = "SELECT owner, token FROM allocation_leases WHERE project_id = ? FOR UPDATE";
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, lease.projectId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next() || rs.getLong("token") != lease.token || !lease.owner.equals(rs.getString("owner"))) {
+                    throw new SQLException("Allocation lease of project " + lease.projectId +
+                            " was taken over (token " + lease.token + "), write refused");
+                }
+            }
+        }
+    }
+}
@@ -6,7 +6,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.projectmanagement.model.Member;
 import org.projectmanagement.model.MemberSkill;
@@ -15,7 +17,18 @@ import org.projectmanagement.util.DatabaseUtil;
 
 public class MemberDAO{
 
+    // Taille max des listes IN pour le chargement groupé des compétences
+    private static final int IN_CHUNK = 500;
+
+    // Champs acceptés par ?fields= sur la liste des membres
+    public static final List<String> FIELDS = FieldSet.names("id", "name", "email",
+            "weeklyAvailability", "currentWorkload", "skills");
+
     public int create(Member member) throws SQLException {
+        return EntityVersions.atomic(() -> doCreate(member));
+    }
+
+    private int doCreate(Member member) throws SQLException {
         String sql = "INSERT INTO members (name, email, weekly_availability, current_workload) VALUES (?, ?, ?, ?)";
         
         try (Connection conn = DatabaseUtil.getConnection();
@@ -30,11 +43,13 @@ public class MemberDAO{
             if (affectedRows == 0) {
                 throw new SQLException("Creating member failed, no rows affected.");
             }
+            EntityVersions.bump(EntityVersions.Entity.MEMBERS);
             
             try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
                 if (generatedKeys.next()) {
                     int id = generatedKeys.getInt(1);
                     member.setId(id);
+                    StatisticsCounters.getInstance().memberChanged(id, member);
                     return id;
                 } else {
                     throw new SQLException("Creating member failed, no ID obtained.");
@@ -62,7 +77,11 @@ public class MemberDAO{
     }
 
     public List<Member> findAll() throws SQLException {
-        String sql = "SELECT * FROM members ORDER BY name";
+        return findAll(FieldSet.ALL);
+    }
+
+    public List<Member> findAll(FieldSet fields) throws SQLException {
+        String sql = "SELECT " + memberColumns(fields) + " FROM members ORDER BY name";
         List<Member> members = new ArrayList<>();
         
         try (Connection conn = DatabaseUtil.getConnection();
@@ -70,15 +89,83 @@ public class MemberDAO{
              ResultSet rs = stmt.executeQuery()) {
             
             while (rs.next()) {
-                Member member = extractMemberFromResultSet(rs);
-                member.setSkills(findMemberSkills(member.getId()));
-                members.add(member);
+                members.add(extractMemberFromResultSet(rs, fields));
             }
         }
+        if (fields.has("skills")) {
+            // Toute la table : une seule requête member_skills, sans liste IN
+            loadSkills(members, true);
+        }
         return members;
     }
 
+    /**
+     * Keyset page ordered by (name, id): seeks past the last row of the previous page
+     * instead of using OFFSET, so every page costs the same.
+     */
+    public Page<Member> findPage(String cursor, int limit) throws SQLException {
+        return findPage(cursor, limit, FieldSet.ALL);
+    }
+
+    public Page<Member> findPage(String cursor, int limit, FieldSet fields) throws SQLException {
+        limit = Cursor.clampLimit(limit);
+        String[] after = Cursor.decode(cursor, "members", 2);
+        // name est la clé du curseur : toujours lue, même si non demandée
+        String sql = "SELECT " + memberColumns(fields) + (fields.has("name") ? "" : ", name") + " FROM members " +
+                    (after != null ? "WHERE (name > ? OR (name = ? AND id > ?)) " : "") +
+                    "ORDER BY name, id LIMIT ?";
+        List<Member> members = new ArrayList<>();
+        String lastName = null;
+        
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            int i = 1;
+            if (after != null) {
+                stmt.setString(i++, after[0]);
+                stmt.setString(i++, after[0]);
+                stmt.setInt(i++, Integer.parseInt(after[1]));
+            }
+            stmt.setInt(i, limit + 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Member member = extractMemberFromResultSet(rs, fields);
+                    if (members.size() < limit) {
+                        lastName = rs.getString("name");
+                    }
+                    members.add(member);
+                }
+            }
+        }
+        
+        String next = null;
+        if (members.size() > limit) {
+            members.remove(limit);
+            next = Cursor.encode("members", lastName, members.get(limit - 1).getId());
+        }
+        if (fields.has("skills")) {
+            loadSkills(members, false);
+        }
+        return new Page<>(members, next);
+    }
+
+    public int count() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM members");
+             ResultSet rs = stmt.executeQuery()) {
+            
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
     public void update(Member member) throws SQLException {
+        EntityVersions.atomic(() -> {
+            doUpdate(member);
+            return null;
+        });
+    }
+
+    private void doUpdate(Member member) throws SQLException {
         String sql = "UPDATE members SET name = ?, email = ?, weekly_availability = ?, " +
                     "current_workload = ? WHERE id = ?";
         
@@ -91,11 +178,21 @@ public class MemberDAO{
             stmt.setDouble(4, member.getCurrentWorkload());
             stmt.setInt(5, member.getId());
             
-            stmt.executeUpdate();
+            if (stmt.executeUpdate() > 0) {
+                StatisticsCounters.getInstance().memberChanged(member.getId(), member);
+            }
+            EntityVersions.bump(EntityVersions.Entity.MEMBERS);
         }
     }
 
     public void updateWorkload(int memberId, double workload) throws SQLException {
+        EntityVersions.atomic(() -> {
+            doUpdateWorkload(memberId, workload);
+            return null;
+        });
+    }
+
+    private void doUpdateWorkload(int memberId, double workload) throws SQLException {
         String sql = "UPDATE members SET current_workload = ? WHERE id = ?";
         
         try (Connection conn = DatabaseUtil.getConnection();
@@ -104,10 +201,78 @@ public class MemberDAO{
             stmt.setDouble(1, workload);
             stmt.setInt(2, memberId);
             stmt.executeUpdate();
+            StatisticsCounters.getInstance().memberChanged(memberId, findWorkload(conn, memberId));
+            EntityVersions.bump(EntityVersions.Entity.MEMBERS);
+        }
+    }
+
+    /**
+     * Adds a signed number of hours to the workload of each member (never below 0) with one
+     * JDBC batch: relative updates, so concurrent writers never overwrite each other.
+     */
+    public void addWorkloads(Map<Integer, Double> deltas) throws SQLException {
+        EntityVersions.atomic(() -> {
+            doAddWorkloads(deltas);
+            return null;
+        });
+    }
+
+    private void doAddWorkloads(Map<Integer, Double> deltas) throws SQLException {
+        if (deltas.isEmpty()) return;
+        String sql = "UPDATE members SET current_workload = GREATEST(0, current_workload + ?) WHERE id = ?";
+        
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (Map.Entry<Integer, Double> delta : deltas.entrySet()) {
+                    stmt.setDouble(1, delta.getValue());
+                    stmt.setInt(2, delta.getKey());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            EntityVersions.bump(EntityVersions.Entity.MEMBERS);
+            
+            // Nouvelles charges relues par listes IN pour les compteurs de statistiques
+            List<Integer> ids = new ArrayList<>(deltas.keySet());
+            for (int from = 0; from < ids.size(); from += IN_CHUNK) {
+                List<Integer> chunk = ids.subList(from, Math.min(from + IN_CHUNK, ids.size()));
+                String select = "SELECT id, name, weekly_availability, current_workload FROM members " +
+                               "WHERE id IN (" + placeholders(chunk.size()) + ")";
+                try (PreparedStatement stmt = conn.prepareStatement(select)) {
+                    bindIds(stmt, chunk);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            Member member = extractMemberFromResultSet(rs, StatisticsCounters.WORKLOAD_FIELDS);
+                            StatisticsCounters.getInstance().memberChanged(member.getId(), member);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Name, availability and workload of a member read on the given connection (inside the
+     * caller's write), for StatisticsCounters; null when the member does not exist.
+     */
+    Member findWorkload(Connection conn, int memberId) throws SQLException {
+        String sql = "SELECT id, name, weekly_availability, current_workload FROM members WHERE id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, memberId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? extractMemberFromResultSet(rs, StatisticsCounters.WORKLOAD_FIELDS) : null;
+            }
         }
     }
 
     public void delete(int id) throws SQLException {
+        EntityVersions.atomic(() -> {
+            doDelete(id);
+            return null;
+        });
+    }
+
+    private void doDelete(int id) throws SQLException {
         String sql = "DELETE FROM members WHERE id = ?";
         
         try (Connection conn = DatabaseUtil.getConnection();
@@ -115,10 +280,21 @@ public class MemberDAO{
             
             stmt.setInt(1, id);
             stmt.executeUpdate();
+            // Cascade : alertes supprimées, tâches désassignées
+            StatisticsCounters.getInstance().invalidate();
+            EntityVersions.bump(EntityVersions.Entity.MEMBERS, EntityVersions.Entity.ALERTS);
+            EntityVersions.bumpAllTasks();
         }
     }
 
     public void addSkill(int memberId, int skillId, int proficiencyLevel) throws SQLException {
+        EntityVersions.atomic(() -> {
+            doAddSkill(memberId, skillId, proficiencyLevel);
+            return null;
+        });
+    }
+
+    private void doAddSkill(int memberId, int skillId, int proficiencyLevel) throws SQLException {
         String sql = "INSERT INTO member_skills (member_id, skill_id, proficiency_level) " +
                     "VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE proficiency_level = ?";
         
@@ -130,10 +306,18 @@ public class MemberDAO{
             stmt.setInt(3, proficiencyLevel);
             stmt.setInt(4, proficiencyLevel);
             stmt.executeUpdate();
+            EntityVersions.bump(EntityVersions.Entity.MEMBERS);
         }
     }
 
     public void removeSkill(int memberId, int skillId) throws SQLException {
+        EntityVersions.atomic(() -> {
+            doRemoveSkill(memberId, skillId);
+            return null;
+        });
+    }
+
+    private void doRemoveSkill(int memberId, int skillId) throws SQLException {
         String sql = "DELETE FROM member_skills WHERE member_id = ? AND skill_id = ?";
         
         try (Connection conn = DatabaseUtil.getConnection();
@@ -142,6 +326,7 @@ public class MemberDAO{
             stmt.setInt(1, memberId);
             stmt.setInt(2, skillId);
             stmt.executeUpdate();
+            EntityVersions.bump(EntityVersions.Entity.MEMBERS);
         }
     }
 
@@ -156,19 +341,7 @@ public class MemberDAO{
             stmt.setInt(1, memberId);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    MemberSkill memberSkill = new MemberSkill();
-                    
-                    Member member = new Member();
-                    member.setId(rs.getInt("member_id"));
-                    memberSkill.setMember(member);
-                    
-                    Skill skill = new Skill();
-                    skill.setId(rs.getInt("skill_id"));
-                    skill.setName(rs.getString("skill_name"));
-                    memberSkill.setSkill(skill);
-                    
-                    memberSkill.setProficiencyLevel(rs.getInt("proficiency_level"));
-                    skills.add(memberSkill);
+                    skills.add(extractMemberSkillFromResultSet(rs));
                 }
             }
         }
@@ -186,12 +359,11 @@ public class MemberDAO{
             stmt.setDouble(1, minAvailableHours);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Member member = extractMemberFromResultSet(rs);
-                    member.setSkills(findMemberSkills(member.getId()));
-                    members.add(member);
+                    members.add(extractMemberFromResultSet(rs));
                 }
             }
         }
+        loadSkills(members, false);
         return members;
     }
 
@@ -209,22 +381,117 @@ public class MemberDAO{
             stmt.setInt(2, minProficiency);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Member member = extractMemberFromResultSet(rs);
-                    member.setSkills(findMemberSkills(member.getId()));
-                    members.add(member);
+                    members.add(extractMemberFromResultSet(rs));
                 }
             }
         }
+        loadSkills(members, false);
         return members;
     }
 
+    /**
+     * Hydrates the skills of a list of members with member_skills JOIN skills fetched in bulk
+     * (IN lists of at most IN_CHUNK ids, or the whole table when every member is in the list),
+     * then dispatched by member id.
+     */
+    private void loadSkills(List<Member> members, boolean allMembers) throws SQLException {
+        if (members.isEmpty()) return;
+        Map<Integer, Member> byId = new HashMap<>(members.size() * 2);
+        for (Member member : members) {
+            member.setSkills(new ArrayList<>());
+            byId.put(member.getId(), member);
+        }
+        String select = "SELECT ms.*, s.name as skill_name FROM member_skills ms " +
+                       "JOIN skills s ON ms.skill_id = s.id";
+
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            if (allMembers) {
+                try (PreparedStatement stmt = conn.prepareStatement(select);
+                     ResultSet rs = stmt.executeQuery()) {
+                    addSkills(rs, byId);
+                }
+                return;
+            }
+            List<Integer> ids = new ArrayList<>(byId.keySet());
+            for (int from = 0; from < ids.size(); from += IN_CHUNK) {
+                List<Integer> chunk = ids.subList(from, Math.min(from + IN_CHUNK, ids.size()));
+                StringBuilder sql = new StringBuilder(select).append(" WHERE ms.member_id IN (");
+                for (int i = 0; i < chunk.size(); i++) {
+                    sql.append(i == 0 ? "?" : ",?");
+                }
+                try (PreparedStatement stmt = conn.prepareStatement(sql.append(')').toString())) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        stmt.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        addSkills(rs, byId);
+                    }
+                }
+            }
+        }
+    }
+
+    private void addSkills(ResultSet rs, Map<Integer, Member> byId) throws SQLException {
+        while (rs.next()) {
+            Member member = byId.get(rs.getInt("member_id"));
+            if (member != null) {
+                member.getSkills().add(extractMemberSkillFromResultSet(rs));
+            }
+        }
+    }
+
+    private MemberSkill extractMemberSkillFromResultSet(ResultSet rs) throws SQLException {
+        MemberSkill memberSkill = new MemberSkill();
+        
+        Member member = new Member();
+        member.setId(rs.getInt("member_id"));
+        memberSkill.setMember(member);
+        
+        Skill skill = new Skill();
+        skill.setId(rs.getInt("skill_id"));
+        skill.setName(rs.getString("skill_name"));
+        memberSkill.setSkill(skill);
+        
+        memberSkill.setProficiencyLevel(rs.getInt("proficiency_level"));
+        return memberSkill;
+    }
+
     private Member extractMemberFromResultSet(ResultSet rs) throws SQLException {
+        return extractMemberFromResultSet(rs, FieldSet.ALL);
+    }
+
+    private Member extractMemberFromResultSet(ResultSet rs, FieldSet fields) throws SQLException {
         Member member = new Member();
         member.setId(rs.getInt("id"));
-        member.setName(rs.getString("name"));
-        member.setEmail(rs.getString("email"));
-        member.setWeeklyAvailability(rs.getInt("weekly_availability"));
-        member.setCurrentWorkload(rs.getDouble("current_workload"));
+        if (fields.has("name")) member.setName(rs.getString("name"));
+        if (fields.has("email")) member.setEmail(rs.getString("email"));
+        if (fields.has("weeklyAvailability")) member.setWeeklyAvailability(rs.getInt("weekly_availability"));
+        if (fields.has("currentWorkload")) member.setCurrentWorkload(rs.getDouble("current_workload"));
         return member;
     }
-}
\ No newline at end of file
+
+    private String memberColumns(FieldSet fields) {
+        if (fields.isAll()) return "*";
+        StringBuilder columns = new StringBuilder("id");
+        if (fields.has("name")) columns.append(", name");
+        if (fields.has("email")) columns.append(", email");
+        if (fields.has("weeklyAvailability")) columns.append(", weekly_availability");
+        if (fields.has("currentWorkload")) columns.append(", current_workload");
+        return columns.toString();
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 2);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(',');
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+
+    private static void bindIds(PreparedStatement stmt, List<Integer> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            stmt.setInt(i + 1, ids.get(i));
+        }
+    }
+}
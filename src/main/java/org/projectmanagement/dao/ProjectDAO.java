@@ -13,6 +13,10 @@ public class ProjectDAO {
     private static final Logger logger = LoggerFactory.getLogger(ProjectDAO.class);
 
     public int create(Project project) throws SQLException {
+        return EntityVersions.atomic(() -> doCreate(project));
+    }
+
+    private int doCreate(Project project) throws SQLException {
         String sql = "INSERT INTO projects (name, description, start_date, deadline, status) VALUES (?, ?, ?, ?, ?)";
         
         try (Connection conn = DatabaseUtil.getConnection();
@@ -28,11 +32,13 @@ public class ProjectDAO {
             if (affectedRows == 0) {
                 throw new SQLException("Creating project failed, no rows affected.");
             }
+            EntityVersions.bump(EntityVersions.Entity.PROJECTS);
             
             try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
                 if (generatedKeys.next()) {
                     int id = generatedKeys.getInt(1);
                     project.setId(id);
+                    StatisticsCounters.getInstance().projectCreated(id);
                     logger.info("Created project: {} with ID: {}", project.getName(), id);
                     return id;
                 } else {
@@ -73,7 +79,78 @@ public class ProjectDAO {
         return projects;
     }
 
+    /**
+     * Keyset page ordered by (created_at DESC, id DESC), the same order as findAll.
+     */
+    public Page<Project> findPage(String cursor, int limit) throws SQLException {
+        limit = Cursor.clampLimit(limit);
+        String[] after = Cursor.decode(cursor, "projects", 2);
+        String sql = "SELECT * FROM projects " +
+                    (after != null ? "WHERE (created_at < ? OR (created_at = ? AND id < ?)) " : "") +
+                    "ORDER BY created_at DESC, id DESC LIMIT ?";
+        List<Project> projects = new ArrayList<>();
+        Timestamp lastCreatedAt = null;
+        
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            int i = 1;
+            if (after != null) {
+                Timestamp createdAt = Timestamp.valueOf(after[0]);
+                stmt.setTimestamp(i++, createdAt);
+                stmt.setTimestamp(i++, createdAt);
+                stmt.setInt(i++, Integer.parseInt(after[1]));
+            }
+            stmt.setInt(i, limit + 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (projects.size() < limit) {
+                        lastCreatedAt = rs.getTimestamp("created_at");
+                    }
+                    projects.add(extractProjectFromResultSet(rs));
+                }
+            }
+        }
+        
+        String next = null;
+        if (projects.size() > limit) {
+            projects.remove(limit);
+            next = Cursor.encode("projects", lastCreatedAt, projects.get(limit - 1).getId());
+        }
+        return new Page<>(projects, next);
+    }
+
+    public List<Integer> findAllIds() throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT id FROM projects");
+             ResultSet rs = stmt.executeQuery()) {
+            
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return ids;
+    }
+
+    public int count() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM projects");
+             ResultSet rs = stmt.executeQuery()) {
+            
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
     public void update(Project project) throws SQLException {
+        EntityVersions.atomic(() -> {
+            doUpdate(project);
+            return null;
+        });
+    }
+
+    private void doUpdate(Project project) throws SQLException {
         String sql = "UPDATE projects SET name = ?, description = ?, start_date = ?, " +
                     "deadline = ?, status = ? WHERE id = ?";
         
@@ -88,12 +165,20 @@ public class ProjectDAO {
             stmt.setInt(6, project.getId());
             
             stmt.executeUpdate();
+            EntityVersions.bump(EntityVersions.Entity.PROJECTS);
             logger.info("Updated project: {}", project.getName());
         }
     }
 
 
     public void delete(int id) throws SQLException {
+        EntityVersions.atomic(() -> {
+            doDelete(id);
+            return null;
+        });
+    }
+
+    private void doDelete(int id) throws SQLException {
         String sql = "DELETE FROM projects WHERE id = ?";
         
         try (Connection conn = DatabaseUtil.getConnection();
@@ -101,6 +186,10 @@ public class ProjectDAO {
             
             stmt.setInt(1, id);
             stmt.executeUpdate();
+            // Cascade : tâches et alertes du projet
+            StatisticsCounters.getInstance().invalidate();
+            EntityVersions.bump(EntityVersions.Entity.PROJECTS, EntityVersions.Entity.ALERTS);
+            EntityVersions.bumpAllTasks();
             logger.info("Deleted project with ID: {}", id);
         }
     }
@@ -14,6 +14,10 @@ public class SkillDAO {
     private static final Logger logger = LoggerFactory.getLogger(SkillDAO.class);
 
     public int create(Skill skill) throws SQLException {
+        return EntityVersions.atomic(() -> doCreate(skill));
+    }
+
+    private int doCreate(Skill skill) throws SQLException {
         String sql = "INSERT INTO skills (name, description) VALUES (?, ?)";
         
         try (Connection conn = DatabaseUtil.getConnection();
@@ -26,6 +30,7 @@ public class SkillDAO {
             if (affectedRows == 0) {
                 throw new SQLException("Creating skill failed, no rows affected.");
             }
+            EntityVersions.bump(EntityVersions.Entity.SKILLS);
             
             try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
                 if (generatedKeys.next()) {
@@ -88,6 +93,13 @@ public class SkillDAO {
     }
 
     public void update(Skill skill) throws SQLException {
+        EntityVersions.atomic(() -> {
+            doUpdate(skill);
+            return null;
+        });
+    }
+
+    private void doUpdate(Skill skill) throws SQLException {
         String sql = "UPDATE skills SET name = ?, description = ? WHERE id = ?";
         
         try (Connection conn = DatabaseUtil.getConnection();
@@ -98,11 +110,19 @@ public class SkillDAO {
             stmt.setInt(3, skill.getId());
             
             stmt.executeUpdate();
+            EntityVersions.bump(EntityVersions.Entity.SKILLS);
             logger.info("Updated skill: {}", skill.getName());
         }
     }
 
     public void delete(int id) throws SQLException {
+        EntityVersions.atomic(() -> {
+            doDelete(id);
+            return null;
+        });
+    }
+
+    private void doDelete(int id) throws SQLException {
         String sql = "DELETE FROM skills WHERE id = ?";
         
         try (Connection conn = DatabaseUtil.getConnection();
@@ -110,6 +130,8 @@ public class SkillDAO {
             
             stmt.setInt(1, id);
             stmt.executeUpdate();
+            // Cascade : member_skills et task_skills
+            EntityVersions.bump(EntityVersions.Entity.SKILLS, EntityVersions.Entity.MEMBERS);
             logger.info("Deleted skill with ID: {}", id);
         }
     }
@@ -0,0 +1,382 @@
+package org.projectmanagement.dao;
+
+import org.projectmanagement.model.Member;
+import org.projectmanagement.model.Task;
+import org.projectmanagement.util.TransactionScope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * In-memory statistics kept up to date by the DAO writes, so the statistics endpoints
+ * read memory instead of MySQL. Per project: task count and hours per (status, priority,
+ * assigned). Per member: availability, workload and task count; plus the overloaded count.
+ * Task writes report the row before and after (read on the write's connection) and the
+ * delta is applied after commit. Cascading deletes simply drop the state, which is rebuilt
+ * from SQL on the next read. A periodic reconciliation rebuilds it anyway to correct drift
+ * (concurrent writes on the same row, changes made outside the application). With several
+ * servers each one only sees its own writes, so its statistics lag the others' until the
+ * next reconciliation (server.stats.sharedReconcileSeconds in that setup).
+ */
+public final class StatisticsCounters {
+    private static final Logger logger = LoggerFactory.getLogger(StatisticsCounters.class);
+
+    private static final StatisticsCounters INSTANCE = new StatisticsCounters();
+
+    private static final int STATUSES = Task.TaskStatus.values().length;
+    private static final int PRIORITIES = Task.Priority.values().length;
+    private static final int CELLS = STATUSES * PRIORITIES * 2;
+    // Reconstruction abandonnée si des écritures arrivent pendant la lecture ; au-delà, installée quand même
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+    // Colonnes des membres nécessaires (pas de compétences)
+    static final FieldSet WORKLOAD_FIELDS =
+        FieldSet.parse("name,weeklyAvailability,currentWorkload", MemberDAO.FIELDS);
+
+    private final Object lock = new Object();
+    private State state;
+    private long writeSeq;
+    private ScheduledExecutorService reconciler;
+
+    private StatisticsCounters() {
+    }
+
+    public static StatisticsCounters getInstance() {
+        return INSTANCE;
+    }
+
+    // ==================== Writes (called by the DAOs) ====================
+
+    /** Values of a task row that the counters depend on. */
+    static final class TaskRow {
+        final int projectId;
+        final Task.TaskStatus status;
+        final Task.Priority priority;
+        final Integer memberId;
+        final double hours;
+
+        TaskRow(int projectId, Task.TaskStatus status, Task.Priority priority, Integer memberId, double hours) {
+            this.projectId = projectId;
+            this.status = status;
+            this.priority = priority;
+            this.memberId = memberId;
+            this.hours = hours;
+        }
+    }
+
+    /** A task was created (before == null), changed, or deleted (after == null). */
+    void taskChanged(TaskRow before, TaskRow after) {
+        if (before == null && after == null) return;
+        TransactionScope.afterCommit(() -> {
+            synchronized (lock) {
+                writeSeq++;
+                if (state == null) return;
+                if (before != null) state.addTask(before, -1);
+                if (after != null) state.addTask(after, 1);
+            }
+        });
+    }
+
+    /** A member was created or updated (workload, availability, name), or deleted (member == null). */
+    void memberChanged(int memberId, Member member) {
+        TransactionScope.afterCommit(() -> {
+            synchronized (lock) {
+                writeSeq++;
+                if (state == null) return;
+                state.putMember(memberId, member);
+            }
+        });
+    }
+
+    void projectCreated(int projectId) {
+        TransactionScope.afterCommit(() -> {
+            synchronized (lock) {
+                writeSeq++;
+                if (state == null) return;
+                state.projects.computeIfAbsent(projectId, id -> new Cube());
+            }
+        });
+    }
+
+    /** A write whose effects cannot be followed row by row (cascades): rebuild on next read. */
+    void invalidate() {
+        TransactionScope.afterCommit(() -> {
+            synchronized (lock) {
+                writeSeq++;
+                state = null;
+            }
+        });
+    }
+
+    // ==================== Reads ====================
+
+    public int getTotalProjects() throws SQLException {
+        return read(s -> s.projects.size());
+    }
+
+    public int getTotalMembers() throws SQLException {
+        return read(s -> s.members.size());
+    }
+
+    public long getTotalTasks() throws SQLException {
+        return read(s -> s.totalTasks);
+    }
+
+    public int getOverloadedMembers() throws SQLException {
+        return read(s -> s.overloaded);
+    }
+
+    public Map<Task.TaskStatus, Long> getTasksByStatus() throws SQLException {
+        return read(s -> {
+            Map<Task.TaskStatus, Long> byStatus = new EnumMap<>(Task.TaskStatus.class);
+            for (Task.TaskStatus status : Task.TaskStatus.values()) {
+                byStatus.put(status, s.tasksByStatus[status.ordinal()]);
+            }
+            return byStatus;
+        });
+    }
+
+    /** Same rows as TaskDAO.aggregateByProject, or null when the project does not exist. */
+    public List<TaskAggregate> getProjectAggregates(int projectId) throws SQLException {
+        return read(s -> {
+            Cube cube = s.projects.get(projectId);
+            return cube != null ? cube.toAggregates() : null;
+        });
+    }
+
+    /** Copies of the members (name, availability, workload), ordered by name. */
+    public List<Member> getMembers() throws SQLException {
+        List<Member> members = read(s -> {
+            List<Member> copies = new ArrayList<>(s.members.size());
+            for (Member member : s.members.values()) {
+                copies.add(copy(member));
+            }
+            return copies;
+        });
+        members.sort(Comparator.comparing(Member::getName, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return members;
+    }
+
+    public Map<Integer, Integer> getTaskCountsByMember() throws SQLException {
+        return read(s -> new HashMap<>(s.taskCounts));
+    }
+
+    /** Runs the reader on the current state, rebuilding it first (outside the lock) when needed. */
+    private <T> T read(Function<State, T> reader) throws SQLException {
+        while (true) {
+            synchronized (lock) {
+                if (state != null) return reader.apply(state);
+            }
+            // Premier accès ou état invalidé : reconstruction depuis MySQL
+            install(build());
+        }
+    }
+
+    // ==================== Reconciliation ====================
+
+    /** Rebuilds the counters from MySQL every intervalSeconds (0 disables it). */
+    public synchronized void startReconciliation(int intervalSeconds) {
+        if (intervalSeconds <= 0 || reconciler != null) return;
+        reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stats-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reconciler.scheduleWithFixedDelay(() -> {
+            try {
+                reconcile();
+            } catch (Exception e) {
+                logger.warn("Statistics reconciliation failed: {}", e.getMessage());
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stopReconciliation() {
+        if (reconciler != null) {
+            reconciler.shutdownNow();
+            reconciler = null;
+        }
+    }
+
+    /**
+     * Rebuilds from SQL and logs how far the in-memory totals had drifted. Any difference
+     * (a status or an hour moved by another server leaves the totals equal) bumps the
+     * versions, so no client keeps a 304 on statistics computed before.
+     */
+    public void reconcile() throws SQLException {
+        State rebuilt = build();
+        boolean drifted = false;
+        synchronized (lock) {
+            if (state != null && !state.sameAs(rebuilt)) {
+                logger.info("Statistics counters drifted (tasks {} -> {}, overloaded {} -> {})",
+                        state.totalTasks, rebuilt.totalTasks, state.overloaded, rebuilt.overloaded);
+                drifted = true;
+            }
+        }
+        install(rebuilt);
+        if (drifted) {
+            // Les ETags des statistiques ne reflètent que les écritures : les invalider
+            // (hors du verrou, les versions partagées sont en base)
+            EntityVersions.bump(EntityVersions.Entity.MEMBERS, EntityVersions.Entity.PROJECTS);
+            EntityVersions.bumpAllTasks();
+        }
+    }
+
+    /**
+     * Installs a rebuilt state unless writes were applied while it was read (their deltas
+     * could be counted twice or not at all); in that case it is read again.
+     */
+    private void install(State rebuilt) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            synchronized (lock) {
+                if (rebuilt.seq == writeSeq || attempt >= MAX_LOAD_ATTEMPTS) {
+                    state = rebuilt;
+                    return;
+                }
+            }
+            rebuilt = build();
+        }
+    }
+
+    private State build() throws SQLException {
+        State s = new State();
+        synchronized (lock) {
+            s.seq = writeSeq;
+        }
+        for (Integer projectId : new ProjectDAO().findAllIds()) {
+            s.projects.put(projectId, new Cube());
+        }
+        for (Map.Entry<Integer, List<TaskAggregate>> entry : new TaskDAO().aggregateAllProjects().entrySet()) {
+            Cube cube = s.projects.computeIfAbsent(entry.getKey(), id -> new Cube());
+            for (TaskAggregate row : entry.getValue()) {
+                int cell = cell(row.getStatus(), row.getPriority(), row.isAssigned());
+                cube.counts[cell] += row.getCount();
+                cube.hours[cell] += row.getEstimatedHours();
+                s.totalTasks += row.getCount();
+                s.tasksByStatus[row.getStatus().ordinal()] += row.getCount();
+            }
+        }
+        for (Member member : new MemberDAO().findAll(WORKLOAD_FIELDS)) {
+            s.putMember(member.getId(), member);
+        }
+        s.taskCounts.putAll(new TaskDAO().countByMember());
+        return s;
+    }
+
+    private static int cell(Task.TaskStatus status, Task.Priority priority, boolean assigned) {
+        return (status.ordinal() * PRIORITIES + priority.ordinal()) * 2 + (assigned ? 1 : 0);
+    }
+
+    private static Member copy(Member member) {
+        Member copy = new Member();
+        copy.setId(member.getId());
+        copy.setName(member.getName());
+        copy.setWeeklyAvailability(member.getWeeklyAvailability());
+        copy.setCurrentWorkload(member.getCurrentWorkload());
+        return copy;
+    }
+
+    // Sommes d'heures faites dans un autre ordre : écart d'arrondi toléré
+    private static boolean sameHours(double a, double b) {
+        return Math.abs(a - b) <= 1e-6 * Math.max(1, Math.abs(a));
+    }
+
+    private static final class Cube {
+        final long[] counts = new long[CELLS];
+        final double[] hours = new double[CELLS];
+
+        boolean sameAs(Cube other) {
+            if (!Arrays.equals(counts, other.counts)) return false;
+            for (int i = 0; i < CELLS; i++) {
+                if (!sameHours(hours[i], other.hours[i])) return false;
+            }
+            return true;
+        }
+
+        List<TaskAggregate> toAggregates() {
+            List<TaskAggregate> rows = new ArrayList<>();
+            for (Task.TaskStatus status : Task.TaskStatus.values()) {
+                for (Task.Priority priority : Task.Priority.values()) {
+                    for (int assigned = 0; assigned < 2; assigned++) {
+                        int cell = cell(status, priority, assigned == 1);
+                        if (counts[cell] > 0) {
+                            rows.add(new TaskAggregate(status, priority, assigned == 1, counts[cell], hours[cell]));
+                        }
+                    }
+                }
+            }
+            return rows;
+        }
+    }
+
+    static final class State {
+        long seq;
+        final Map<Integer, Cube> projects = new HashMap<>();
+        final Map<Integer, Member> members = new HashMap<>();
+        final Map<Integer, Integer> taskCounts = new HashMap<>();
+        final long[] tasksByStatus = new long[STATUSES];
+        long totalTasks;
+        int overloaded;
+
+        void addTask(TaskRow row, int sign) {
+            Cube cube = projects.computeIfAbsent(row.projectId, id -> new Cube());
+            int cell = cell(row.status, row.priority, row.memberId != null);
+            cube.counts[cell] += sign;
+            cube.hours[cell] += sign * row.hours;
+            totalTasks += sign;
+            tasksByStatus[row.status.ordinal()] += sign;
+            if (row.memberId != null) {
+                taskCounts.merge(row.memberId, sign, Integer::sum);
+            }
+        }
+
+        /** Same counters, cube cells, members (name, availability, workload) and task counts. */
+        boolean sameAs(State other) {
+            if (totalTasks != other.totalTasks || overloaded != other.overloaded
+                    || !Arrays.equals(tasksByStatus, other.tasksByStatus)
+                    || !projects.keySet().equals(other.projects.keySet())
+                    || !members.keySet().equals(other.members.keySet())
+                    || !nonZero(taskCounts).equals(nonZero(other.taskCounts))) {
+                return false;
+            }
+            for (Map.Entry<Integer, Cube> entry : projects.entrySet()) {
+                if (!entry.getValue().sameAs(other.projects.get(entry.getKey()))) return false;
+            }
+            for (Map.Entry<Integer, Member> entry : members.entrySet()) {
+                Member member = entry.getValue();
+                Member theirs = other.members.get(entry.getKey());
+                if (!Objects.equals(member.getName(), theirs.getName())
+                        || !sameHours(member.getWeeklyAvailability(), theirs.getWeeklyAvailability())
+                        || !sameHours(member.getCurrentWorkload(), theirs.getCurrentWorkload())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Les deltas laissent des compteurs à 0 que la reconstruction ne crée pas
+        private static Map<Integer, Integer> nonZero(Map<Integer, Integer> counts) {
+            Map<Integer, Integer> result = new HashMap<>(counts);
+            result.values().removeIf(count -> count == 0);
+            return result;
+        }
+
+        void putMember(int memberId, Member member) {
+            Member previous = member != null ? members.put(memberId, copy(member)) : members.remove(memberId);
+            if (previous != null && previous.isOverloaded()) overloaded--;
+            if (member != null && member.isOverloaded()) overloaded++;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.projectmanagement.dao;
+
+import org.projectmanagement.model.Task;
+
+/**
+ * One row of a GROUP BY over tasks: how many tasks share a status, a priority and an
+ * assigned/unassigned state, and their total estimated hours.
+ */
+public class TaskAggregate {
+    private final Task.TaskStatus status;
+    private final Task.Priority priority;
+    private final boolean assigned;
+    private final long count;
+    private final double estimatedHours;
+
+    public TaskAggregate(Task.TaskStatus status, Task.Priority priority, boolean assigned,
+                         long count, double estimatedHours) {
+        this.status = status;
+        this.priority = priority;
+        this.assigned = assigned;
+        this.count = count;
+        this.estimatedHours = estimatedHours;
+    }
+
+    public Task.TaskStatus getStatus() {
+        return status;
+    }
+
+    public Task.Priority getPriority() {
+        return priority;
+    }
+
+    public boolean isAssigned() {
+        return assigned;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getEstimatedHours() {
+        return estimatedHours;
+    }
+}
@@ -1,5 +1,6 @@
 package org.projectmanagement.dao;
 
+import org.projectmanagement.event.AlertBus;
 import org.projectmanagement.model.Task;
 import org.projectmanagement.model.TaskSkill;
 import org.projectmanagement.model.Skill;
@@ -10,12 +11,27 @@ import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class TaskDAO {
     private static final Logger logger = LoggerFactory.getLogger(TaskDAO.class);
 
+    // Taille max des listes IN pour le chargement groupé des enfants
+    private static final int IN_CHUNK = 500;
+
+    // Champs acceptés par ?fields= sur les listes de tâches
+    public static final List<String> FIELDS = FieldSet.names("id", "projectId", "title", "description",
+            "estimatedHours", "priority", "status", "startDate", "deadline", "assignedMember",
+            "requiredSkills", "dependencies");
+
     public int create(Task task) throws SQLException {
+        return EntityVersions.atomic(() -> doCreate(task));
+    }
+
+    private int doCreate(Task task) throws SQLException {
         String sql = "INSERT INTO tasks (project_id, title, description, estimated_hours, priority, " +
                     "status, start_date, deadline, assigned_member_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
         
@@ -40,6 +56,13 @@ public class TaskDAO {
             if (affectedRows == 0) {
                 throw new SQLException("Creating task failed, no rows affected.");
             }
+            Integer memberId = task.getAssignedMember() != null ? task.getAssignedMember().getId() : null;
+            StatisticsCounters.getInstance().taskChanged(null, new StatisticsCounters.TaskRow(task.getProjectId(),
+                    task.getStatus(), task.getPriority(), memberId, task.getEstimatedHours()));
+            EntityVersions.bumpProjectTasks(task.getProjectId());
+            if (memberId != null) {
+                EntityVersions.bump(EntityVersions.Entity.MEMBERS);
+            }
             
             try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
                 if (generatedKeys.next()) {
@@ -74,9 +97,77 @@ public class TaskDAO {
         return null;
     }
 
+    public List<Task> findAll() throws SQLException {
+        return findAll(FieldSet.ALL);
+    }
+
+    public List<Task> findAll(FieldSet fields) throws SQLException {
+        String sql = "SELECT " + taskColumns(fields) + " FROM tasks t " + memberJoin(fields) + "ORDER BY t.id";
+        List<Task> tasks = new ArrayList<>();
+        
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            while (rs.next()) {
+                tasks.add(extractTaskFromResultSet(rs, fields));
+            }
+        }
+        loadChildren(tasks, fields);
+        return tasks;
+    }
+
+    /**
+     * Keyset page ordered by id, optionally filtered by project or member.
+     * (project_id, id) and (assigned_member_id, id) are covered by the existing
+     * secondary indexes, so the seek stays an index range scan.
+     */
+    public Page<Task> findPage(Integer projectId, Integer memberId, String cursor, int limit) throws SQLException {
+        return findPage(projectId, memberId, cursor, limit, FieldSet.ALL);
+    }
+
+    public Page<Task> findPage(Integer projectId, Integer memberId, String cursor, int limit,
+                               FieldSet fields) throws SQLException {
+        limit = Cursor.clampLimit(limit);
+        String[] after = Cursor.decode(cursor, "tasks", 1);
+        StringBuilder sql = new StringBuilder("SELECT " + taskColumns(fields) + " FROM tasks t " +
+                    memberJoin(fields) + "WHERE 1 = 1");
+        if (projectId != null) sql.append(" AND t.project_id = ?");
+        if (memberId != null) sql.append(" AND t.assigned_member_id = ?");
+        if (after != null) sql.append(" AND t.id > ?");
+        sql.append(" ORDER BY t.id LIMIT ?");
+        List<Task> tasks = new ArrayList<>();
+        
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            
+            int i = 1;
+            if (projectId != null) stmt.setInt(i++, projectId);
+            if (memberId != null) stmt.setInt(i++, memberId);
+            if (after != null) stmt.setInt(i++, Integer.parseInt(after[0]));
+            stmt.setInt(i, limit + 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    tasks.add(extractTaskFromResultSet(rs, fields));
+                }
+            }
+        }
+        
+        String next = null;
+        if (tasks.size() > limit) {
+            tasks.remove(limit);
+            next = Cursor.encode("tasks", tasks.get(limit - 1).getId());
+        }
+        loadChildren(tasks, fields);
+        return new Page<>(tasks, next);
+    }
+
     public List<Task> findByProject(int projectId) throws SQLException {
-        String sql = "SELECT t.*, m.name as member_name FROM tasks t " +
-                    "LEFT JOIN members m ON t.assigned_member_id = m.id " +
+        return findByProject(projectId, FieldSet.ALL);
+    }
+
+    public List<Task> findByProject(int projectId, FieldSet fields) throws SQLException {
+        String sql = "SELECT " + taskColumns(fields) + " FROM tasks t " + memberJoin(fields) +
                     "WHERE t.project_id = ? ORDER BY t.priority DESC, t.deadline ASC";
         List<Task> tasks = new ArrayList<>();
         
@@ -86,13 +177,11 @@ public class TaskDAO {
             stmt.setInt(1, projectId);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Task task = extractTaskFromResultSet(rs);
-                    task.setRequiredSkills(findTaskSkills(task.getId()));
-                    task.setDependencies(findTaskDependencies(task.getId()));
-                    tasks.add(task);
+                    tasks.add(extractTaskFromResultSet(rs, fields));
                 }
             }
         }
+        loadChildren(tasks, fields);
         return tasks;
     }
 
@@ -109,13 +198,11 @@ public class TaskDAO {
             stmt.setInt(1, projectId);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Task task = extractTaskFromResultSet(rs);
-                    task.setRequiredSkills(findTaskSkills(task.getId()));
-                    task.setDependencies(findTaskDependencies(task.getId()));
-                    tasks.add(task);
+                    tasks.add(extractTaskFromResultSet(rs));
                 }
             }
         }
+        loadChildren(tasks, FieldSet.ALL);
         return tasks;
     }
 
@@ -133,19 +220,98 @@ public class TaskDAO {
             stmt.setString(2, status.name());
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Task task = extractTaskFromResultSet(rs);
-                    task.setRequiredSkills(findTaskSkills(task.getId()));
-                    task.setDependencies(findTaskDependencies(task.getId()));
-                    tasks.add(task);
+                    tasks.add(extractTaskFromResultSet(rs));
+                }
+            }
+        }
+        loadChildren(tasks, FieldSet.ALL);
+        return tasks;
+    }
+
+    /**
+     * Assigned tasks of every project in a status (portfolio-wide optimizer). Run inside
+     * DatabaseUtil.inTransaction together with MemberDAO.findAll to read one consistent
+     * snapshot of tasks and workloads.
+     */
+    public List<Task> findAssignedByStatus(Task.TaskStatus status, FieldSet fields) throws SQLException {
+        String sql = "SELECT " + taskColumns(fields) + " FROM tasks t " + memberJoin(fields) +
+                    "WHERE t.status = ? AND t.assigned_member_id IS NOT NULL " +
+                    "ORDER BY t.assigned_member_id, t.id";
+        List<Task> tasks = new ArrayList<>();
+
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, status.name());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    tasks.add(extractTaskFromResultSet(rs, fields));
                 }
             }
         }
+        loadChildren(tasks, fields);
         return tasks;
     }
 
+    /**
+     * Locks the given tasks until the end of the current transaction and returns their current
+     * project, status, hours and member (member id only). Lets a writer working from an older
+     * snapshot skip the tasks changed in the meantime; deleted tasks are absent.
+     */
+    public Map<Integer, Task> lockForUpdate(Collection<Integer> taskIds) throws SQLException {
+        Map<Integer, Task> tasks = new HashMap<>(taskIds.size() * 2);
+        if (taskIds.isEmpty()) return tasks;
+        List<Integer> ids = new ArrayList<>(taskIds);
+
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            for (int from = 0; from < ids.size(); from += IN_CHUNK) {
+                List<Integer> chunk = ids.subList(from, Math.min(from + IN_CHUNK, ids.size()));
+                String sql = "SELECT id, project_id, status, estimated_hours, assigned_member_id FROM tasks " +
+                            "WHERE id IN (" + placeholders(chunk.size()) + ") FOR UPDATE";
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    bindIds(stmt, chunk);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            Task task = new Task();
+                            task.setId(rs.getInt("id"));
+                            task.setProjectId(rs.getInt("project_id"));
+                            task.setStatus(Task.TaskStatus.valueOf(rs.getString("status")));
+                            task.setEstimatedHours(rs.getDouble("estimated_hours"));
+                            int memberId = rs.getInt("assigned_member_id");
+                            if (!rs.wasNull()) {
+                                Member member = new Member();
+                                member.setId(memberId);
+                                task.setAssignedMember(member);
+                            }
+                            tasks.put(task.getId(), task);
+                        }
+                    }
+                }
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Same lock, reduced to the member of the tasks still in the status (task id -> member
+     * id, absent when unassigned or moved on).
+     */
+    public Map<Integer, Integer> lockAssignments(Collection<Integer> taskIds, Task.TaskStatus status) throws SQLException {
+        Map<Integer, Integer> members = new HashMap<>(taskIds.size() * 2);
+        for (Task task : lockForUpdate(taskIds).values()) {
+            if (task.getStatus() == status && task.getAssignedMember() != null) {
+                members.put(task.getId(), task.getAssignedMember().getId());
+            }
+        }
+        return members;
+    }
+
     public List<Task> findByMember(int memberId) throws SQLException {
-        String sql = "SELECT t.*, m.name as member_name FROM tasks t " +
-                    "LEFT JOIN members m ON t.assigned_member_id = m.id " +
+        return findByMember(memberId, FieldSet.ALL);
+    }
+
+    public List<Task> findByMember(int memberId, FieldSet fields) throws SQLException {
+        String sql = "SELECT " + taskColumns(fields) + " FROM tasks t " + memberJoin(fields) +
                     "WHERE t.assigned_member_id = ? ORDER BY t.deadline ASC";
         List<Task> tasks = new ArrayList<>();
         
@@ -155,17 +321,95 @@ public class TaskDAO {
             stmt.setInt(1, memberId);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    Task task = extractTaskFromResultSet(rs);
-                    task.setRequiredSkills(findTaskSkills(task.getId()));
-                    task.setDependencies(findTaskDependencies(task.getId()));
-                    tasks.add(task);
+                    tasks.add(extractTaskFromResultSet(rs, fields));
                 }
             }
         }
+        loadChildren(tasks, fields);
         return tasks;
     }
 
+    /**
+     * Task counts and hours of a project grouped by status, priority and assignment:
+     * one pass over idx_tasks_project_stats instead of loading the task graph.
+     */
+    public List<TaskAggregate> aggregateByProject(int projectId) throws SQLException {
+        String sql = "SELECT status, priority, assigned_member_id IS NOT NULL AS assigned, " +
+                    "COUNT(*) AS task_count, COALESCE(SUM(estimated_hours), 0) AS hours " +
+                    "FROM tasks WHERE project_id = ? " +
+                    "GROUP BY status, priority, assigned_member_id IS NOT NULL";
+        List<TaskAggregate> rows = new ArrayList<>();
+        
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, projectId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(extractAggregateFromResultSet(rs));
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * aggregateByProject for every project in one GROUP BY (used to rebuild StatisticsCounters).
+     */
+    public Map<Integer, List<TaskAggregate>> aggregateAllProjects() throws SQLException {
+        String sql = "SELECT project_id, status, priority, assigned_member_id IS NOT NULL AS assigned, " +
+                    "COUNT(*) AS task_count, COALESCE(SUM(estimated_hours), 0) AS hours " +
+                    "FROM tasks GROUP BY project_id, status, priority, assigned_member_id IS NOT NULL";
+        Map<Integer, List<TaskAggregate>> byProject = new HashMap<>();
+        
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            while (rs.next()) {
+                byProject.computeIfAbsent(rs.getInt("project_id"), id -> new ArrayList<>())
+                        .add(extractAggregateFromResultSet(rs));
+            }
+        }
+        return byProject;
+    }
+
+    /**
+     * Number of tasks per assigned member (members without tasks are absent).
+     */
+    public Map<Integer, Integer> countByMember() throws SQLException {
+        String sql = "SELECT assigned_member_id, COUNT(*) FROM tasks " +
+                    "WHERE assigned_member_id IS NOT NULL GROUP BY assigned_member_id";
+        Map<Integer, Integer> counts = new HashMap<>();
+        
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            while (rs.next()) {
+                counts.put(rs.getInt(1), rs.getInt(2));
+            }
+        }
+        return counts;
+    }
+
+    public int count() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM tasks");
+             ResultSet rs = stmt.executeQuery()) {
+            
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
     public void update(Task task) throws SQLException {
+        EntityVersions.atomic(() -> {
+            doUpdate(task);
+            return null;
+        });
+    }
+
+    private void doUpdate(Task task) throws SQLException {
         String sql = "UPDATE tasks SET title = ?, description = ?, estimated_hours = ?, " +
                     "priority = ?, status = ?, start_date = ?, deadline = ?, assigned_member_id = ? " +
                     "WHERE id = ?";
@@ -187,12 +431,26 @@ public class TaskDAO {
             }
             stmt.setInt(9, task.getId());
             
+            StatisticsCounters.TaskRow before = statsRow(conn, task.getId());
             stmt.executeUpdate();
+            if (before != null) {
+                Integer memberId = task.getAssignedMember() != null ? task.getAssignedMember().getId() : null;
+                StatisticsCounters.getInstance().taskChanged(before, new StatisticsCounters.TaskRow(before.projectId,
+                        task.getStatus(), task.getPriority(), memberId, task.getEstimatedHours()));
+            }
+            bumpTaskVersions(before != null ? before.projectId : null);
             logger.info("Updated task: {}", task.getTitle());
         }
     }
 
     public void assignTask(int taskId, int memberId) throws SQLException {
+        EntityVersions.atomic(() -> {
+            doAssignTask(taskId, memberId);
+            return null;
+        });
+    }
+
+    private void doAssignTask(int taskId, int memberId) throws SQLException {
         String sql = "UPDATE tasks SET assigned_member_id = ? WHERE id = ?";
         
         try (Connection conn = DatabaseUtil.getConnection();
@@ -200,25 +458,101 @@ public class TaskDAO {
             
             stmt.setInt(1, memberId);
             stmt.setInt(2, taskId);
+            StatisticsCounters.TaskRow before = statsRow(conn, taskId);
             stmt.executeUpdate();
+            if (before != null) {
+                StatisticsCounters.getInstance().taskChanged(before, new StatisticsCounters.TaskRow(before.projectId,
+                        before.status, before.priority, memberId, before.hours));
+            }
+            bumpTaskVersions(before != null ? before.projectId : null);
             logger.info("Assigned task {} to member {}", taskId, memberId);
         }
     }
     
+    /**
+     * Assigns many tasks of a project at once (task id -> member id) with one JDBC batch.
+     * Only the task rows are written: workloads and alerts are left to the caller, which
+     * usually runs this inside DatabaseUtil.inTransaction with the matching member updates.
+     */
+    public void assignTasks(int projectId, Map<Integer, Integer> taskToMember) throws SQLException {
+        EntityVersions.atomic(() -> {
+            doAssignTasks(projectId, taskToMember);
+            return null;
+        });
+    }
+
+    private void doAssignTasks(int projectId, Map<Integer, Integer> taskToMember) throws SQLException {
+        if (taskToMember.isEmpty()) return;
+        String sql = "UPDATE tasks SET assigned_member_id = ? WHERE id = ? AND project_id = ?";
+        
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            // Lignes avant écriture, pour les compteurs de statistiques
+            Map<Integer, StatisticsCounters.TaskRow> before = new HashMap<>(taskToMember.size() * 2);
+            List<Integer> ids = new ArrayList<>(taskToMember.keySet());
+            for (int from = 0; from < ids.size(); from += IN_CHUNK) {
+                List<Integer> chunk = ids.subList(from, Math.min(from + IN_CHUNK, ids.size()));
+                String select = "SELECT id, project_id, status, priority, assigned_member_id, estimated_hours " +
+                               "FROM tasks WHERE id IN (" + placeholders(chunk.size()) + ")";
+                try (PreparedStatement stmt = conn.prepareStatement(select)) {
+                    bindIds(stmt, chunk);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            before.put(rs.getInt("id"), extractStatsRowFromResultSet(rs));
+                        }
+                    }
+                }
+            }
+            
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (Map.Entry<Integer, Integer> assignment : taskToMember.entrySet()) {
+                    stmt.setInt(1, assignment.getValue());
+                    stmt.setInt(2, assignment.getKey());
+                    stmt.setInt(3, projectId);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            
+            StatisticsCounters counters = StatisticsCounters.getInstance();
+            for (Map.Entry<Integer, Integer> assignment : taskToMember.entrySet()) {
+                StatisticsCounters.TaskRow row = before.get(assignment.getKey());
+                if (row != null && row.projectId == projectId) {
+                    counters.taskChanged(row, new StatisticsCounters.TaskRow(row.projectId,
+                            row.status, row.priority, assignment.getValue(), row.hours));
+                }
+            }
+            EntityVersions.bumpProjectTasks(projectId);
+            EntityVersions.bump(EntityVersions.Entity.MEMBERS);
+            logger.info("Assigned {} tasks of project {}", taskToMember.size(), projectId);
+        }
+    }
+    
     /**
      * Assign a task to a member manually (with competence check, workload update and alerts)
      */
     public void assignTaskToMember(int taskId, int memberId) throws SQLException {
+        EntityVersions.atomic(() -> {
+            doAssignTaskToMember(taskId, memberId);
+            return null;
+        });
+    }
+
+    private void doAssignTaskToMember(int taskId, int memberId) throws SQLException {
         Connection conn = null;
         try {
             conn = DatabaseUtil.getConnection();
             conn.setAutoCommit(false);
             
             // 1. Get task details and member name
-            String getTaskSql = "SELECT t.estimated_hours, m.name as member_name " +
+            String getTaskSql = "SELECT t.estimated_hours, t.project_id, m.name as member_name " +
                                "FROM tasks t, members m WHERE t.id = ? AND m.id = ?";
             double taskHours = 0;
+            int projectId = 0;
             String memberName = "";
+            // Alerte de surcharge créée dans la transaction : publiée après le commit
+            int alertId = 0;
+            String alertSeverity = null;
+            String alertTitle = null;
             
             try (PreparedStatement stmt = conn.prepareStatement(getTaskSql)) {
                 stmt.setInt(1, taskId);
@@ -226,6 +560,7 @@ public class TaskDAO {
                 try (ResultSet rs = stmt.executeQuery()) {
                     if (rs.next()) {
                         taskHours = rs.getDouble("estimated_hours");
+                        projectId = rs.getInt("project_id");
                         memberName = rs.getString("member_name");
                     } else {
                         throw new SQLException("Task or member not found");
@@ -276,6 +611,7 @@ public class TaskDAO {
             }
             
             // 3. Update task assignment
+            StatisticsCounters.TaskRow before = statsRow(conn, taskId);
             String updateTaskSql = "UPDATE tasks SET assigned_member_id = ?, updated_at = NOW() WHERE id = ?";
             try (PreparedStatement stmt = conn.prepareStatement(updateTaskSql)) {
                 stmt.setInt(1, memberId);
@@ -294,42 +630,51 @@ public class TaskDAO {
                 stmt.executeUpdate();
             }
             
-            // 5. Check if member is overloaded and create alert
-            String checkOverloadSql = "SELECT name, current_workload, weekly_availability FROM members WHERE id = ?";
-            try (PreparedStatement stmt = conn.prepareStatement(checkOverloadSql)) {
-                stmt.setInt(1, memberId);
-                try (ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next()) {
-                        String name = rs.getString("name");
-                        double currentWorkload = rs.getDouble("current_workload");
-                        int weeklyAvailability = rs.getInt("weekly_availability");
-                        
-                        if (currentWorkload > weeklyAvailability) {
-                            double overloadPct = (currentWorkload / weeklyAvailability) * 100;
-                            
-                            // Create overload alert
-                            String alertSql = "INSERT INTO alerts (type, severity, title, message, member_id, is_read) " +
-                                            "VALUES ('OVERLOAD', ?, ?, ?, ?, false)";
-                            try (PreparedStatement alertStmt = conn.prepareStatement(alertSql)) {
-                                String severity = overloadPct > 150 ? "CRITICAL" : "HIGH";
-                                String title = "Member Overloaded: " + name;
-                                String message = String.format("%s is overloaded at %.1f%% capacity (%.1f/%.1f hours)",
-                                    name, overloadPct, currentWorkload, (double)weeklyAvailability);
-                                
-                                alertStmt.setString(1, severity);
-                                alertStmt.setString(2, title);
-                                alertStmt.setString(3, message);
-                                alertStmt.setInt(4, memberId);
-                                alertStmt.executeUpdate();
-                                
-                                logger.info("Created overload alert for member {}", name);
-                            }
-                        }
+            // 5. Check if member is overloaded and create alert (same row read for the statistics)
+            Member updatedMember = new MemberDAO().findWorkload(conn, memberId);
+            if (updatedMember != null && updatedMember.isOverloaded()) {
+                String name = updatedMember.getName();
+                double currentWorkload = updatedMember.getCurrentWorkload();
+                int weeklyAvailability = updatedMember.getWeeklyAvailability();
+                double overloadPct = (currentWorkload / weeklyAvailability) * 100;
+                
+                // Create overload alert
+                String alertSql = "INSERT INTO alerts (type, severity, title, message, member_id, is_read) " +
+                                "VALUES ('OVERLOAD', ?, ?, ?, ?, false)";
+                try (PreparedStatement alertStmt = conn.prepareStatement(alertSql, Statement.RETURN_GENERATED_KEYS)) {
+                    String severity = overloadPct > 150 ? "CRITICAL" : "HIGH";
+                    String title = "Member Overloaded: " + name;
+                    String message = String.format("%s is overloaded at %.1f%% capacity (%.1f/%.1f hours)",
+                        name, overloadPct, currentWorkload, (double)weeklyAvailability);
+                    
+                    alertStmt.setString(1, severity);
+                    alertStmt.setString(2, title);
+                    alertStmt.setString(3, message);
+                    alertStmt.setInt(4, memberId);
+                    alertStmt.executeUpdate();
+                    try (ResultSet keys = alertStmt.getGeneratedKeys()) {
+                        if (keys.next()) alertId = keys.getInt(1);
                     }
+                    alertSeverity = severity;
+                    alertTitle = title;
+                    
+                    logger.info("Created overload alert for member {}", name);
                 }
             }
             
             conn.commit();
+            StatisticsCounters counters = StatisticsCounters.getInstance();
+            if (before != null) {
+                counters.taskChanged(before, new StatisticsCounters.TaskRow(projectId,
+                        before.status, before.priority, memberId, before.hours));
+            }
+            counters.memberChanged(memberId, updatedMember);
+            EntityVersions.bumpProjectTasks(projectId);
+            EntityVersions.bump(EntityVersions.Entity.MEMBERS);
+            if (alertTitle != null) {
+                EntityVersions.bump(EntityVersions.Entity.ALERTS);
+                AlertBus.getInstance().publishCreated(alertId, alertSeverity, alertTitle);
+            }
             logger.info("Manually assigned task {} to member {} with workload update", taskId, memberId);
             
         } catch (SQLException e) {
@@ -357,14 +702,23 @@ public class TaskDAO {
      * Unassign a task from its member (only if status is TODO) with workload update
      */
     public void unassignTask(int taskId) throws SQLException {
+        EntityVersions.atomic(() -> {
+            doUnassignTask(taskId);
+            return null;
+        });
+    }
+
+    private void doUnassignTask(int taskId) throws SQLException {
         Connection conn = null;
         try {
             conn = DatabaseUtil.getConnection();
             conn.setAutoCommit(false);
             
             // 1. Get task details and current assignment
-            String getTaskSql = "SELECT estimated_hours, assigned_member_id FROM tasks WHERE id = ? AND status = 'TODO'";
+            String getTaskSql = "SELECT estimated_hours, assigned_member_id, project_id, priority FROM tasks WHERE id = ? AND status = 'TODO'";
             double taskHours = 0;
+            int projectId = 0;
+            Task.Priority priority = null;
             Integer memberId = null;
             
             try (PreparedStatement stmt = conn.prepareStatement(getTaskSql)) {
@@ -372,6 +726,8 @@ public class TaskDAO {
                 try (ResultSet rs = stmt.executeQuery()) {
                     if (rs.next()) {
                         taskHours = rs.getDouble("estimated_hours");
+                        projectId = rs.getInt("project_id");
+                        priority = Task.Priority.valueOf(rs.getString("priority"));
                         memberId = rs.getInt("assigned_member_id");
                         if (rs.wasNull()) {
                             memberId = null;
@@ -403,8 +759,16 @@ public class TaskDAO {
                 stmt.setInt(2, memberId);
                 stmt.executeUpdate();
             }
+            Member updatedMember = new MemberDAO().findWorkload(conn, memberId);
             
             conn.commit();
+            StatisticsCounters counters = StatisticsCounters.getInstance();
+            counters.taskChanged(
+                    new StatisticsCounters.TaskRow(projectId, Task.TaskStatus.TODO, priority, memberId, taskHours),
+                    new StatisticsCounters.TaskRow(projectId, Task.TaskStatus.TODO, priority, null, taskHours));
+            counters.memberChanged(memberId, updatedMember);
+            EntityVersions.bumpProjectTasks(projectId);
+            EntityVersions.bump(EntityVersions.Entity.MEMBERS);
             logger.info("Unassigned task {} and updated workload for member {}", taskId, memberId);
             
         } catch (SQLException e) {
@@ -429,6 +793,13 @@ public class TaskDAO {
     }
 
     public void updateStatus(int taskId, Task.TaskStatus status) throws SQLException {
+        EntityVersions.atomic(() -> {
+            doUpdateStatus(taskId, status);
+            return null;
+        });
+    }
+
+    private void doUpdateStatus(int taskId, Task.TaskStatus status) throws SQLException {
         String sql = "UPDATE tasks SET status = ? WHERE id = ?";
         
         try (Connection conn = DatabaseUtil.getConnection();
@@ -436,23 +807,48 @@ public class TaskDAO {
             
             stmt.setString(1, status.name());
             stmt.setInt(2, taskId);
+            StatisticsCounters.TaskRow before = statsRow(conn, taskId);
             stmt.executeUpdate();
+            if (before != null) {
+                StatisticsCounters.getInstance().taskChanged(before, new StatisticsCounters.TaskRow(before.projectId,
+                        status, before.priority, before.memberId, before.hours));
+            }
+            bumpTaskVersions(before != null ? before.projectId : null);
         }
     }
 
     public void delete(int id) throws SQLException {
+        EntityVersions.atomic(() -> {
+            doDelete(id);
+            return null;
+        });
+    }
+
+    private void doDelete(int id) throws SQLException {
         String sql = "DELETE FROM tasks WHERE id = ?";
         
         try (Connection conn = DatabaseUtil.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
+            StatisticsCounters.TaskRow before = statsRow(conn, id);
             stmt.setInt(1, id);
             stmt.executeUpdate();
+            StatisticsCounters.getInstance().taskChanged(before, null);
+            // Cascade : alertes et dépendances de la tâche
+            bumpTaskVersions(before != null ? before.projectId : null);
+            EntityVersions.bump(EntityVersions.Entity.ALERTS);
             logger.info("Deleted task with ID: {}", id);
         }
     }
 
     public void addSkillRequirement(int taskId, int skillId, int requiredLevel) throws SQLException {
+        EntityVersions.atomic(() -> {
+            doAddSkillRequirement(taskId, skillId, requiredLevel);
+            return null;
+        });
+    }
+
+    private void doAddSkillRequirement(int taskId, int skillId, int requiredLevel) throws SQLException {
         String sql = "INSERT INTO task_skills (task_id, skill_id, required_level) " +
                     "VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE required_level = ?";
         
@@ -464,10 +860,18 @@ public class TaskDAO {
             stmt.setInt(3, requiredLevel);
             stmt.setInt(4, requiredLevel);
             stmt.executeUpdate();
+            bumpTaskVersions(projectIdOf(conn, taskId));
         }
     }
 
     public void addDependency(int taskId, int dependsOnTaskId) throws SQLException {
+        EntityVersions.atomic(() -> {
+            doAddDependency(taskId, dependsOnTaskId);
+            return null;
+        });
+    }
+
+    private void doAddDependency(int taskId, int dependsOnTaskId) throws SQLException {
         String sql = "INSERT INTO task_dependencies (task_id, depends_on_task_id) VALUES (?, ?)";
         
         try (Connection conn = DatabaseUtil.getConnection();
@@ -476,6 +880,48 @@ public class TaskDAO {
             stmt.setInt(1, taskId);
             stmt.setInt(2, dependsOnTaskId);
             stmt.executeUpdate();
+            bumpTaskVersions(projectIdOf(conn, taskId));
+        }
+    }
+
+    private Integer projectIdOf(Connection conn, int taskId) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT project_id FROM tasks WHERE id = ?")) {
+            stmt.setInt(1, taskId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : null;
+            }
+        }
+    }
+
+    /** The columns StatisticsCounters depends on, read on the write's connection; null if the task is gone. */
+    private StatisticsCounters.TaskRow statsRow(Connection conn, int taskId) throws SQLException {
+        String sql = "SELECT project_id, status, priority, assigned_member_id, estimated_hours FROM tasks WHERE id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, taskId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? extractStatsRowFromResultSet(rs) : null;
+            }
+        }
+    }
+
+    private StatisticsCounters.TaskRow extractStatsRowFromResultSet(ResultSet rs) throws SQLException {
+        Integer memberId = rs.getInt("assigned_member_id");
+        if (rs.wasNull()) {
+            memberId = null;
+        }
+        return new StatisticsCounters.TaskRow(rs.getInt("project_id"),
+                Task.TaskStatus.valueOf(rs.getString("status")),
+                Task.Priority.valueOf(rs.getString("priority")),
+                memberId,
+                rs.getDouble("estimated_hours"));
+    }
+
+    /** Bumps the task versions after a write, for one project when it is known. */
+    private void bumpTaskVersions(Integer projectId) {
+        if (projectId != null) {
+            EntityVersions.bumpProjectTasks(projectId);
+        } else {
+            EntityVersions.bumpAllTasks();
         }
     }
 
@@ -490,21 +936,7 @@ public class TaskDAO {
             stmt.setInt(1, taskId);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    TaskSkill skill = new TaskSkill();
-                    
-                    // Initialiser l'objet Task
-                    Task task = new Task();
-                    task.setId(rs.getInt("task_id"));
-                    skill.setTask(task);
-                    
-                    // Initialiser l'objet Skill
-                    Skill skillObj = new Skill();
-                    skillObj.setId(rs.getInt("skill_id"));
-                    skillObj.setName(rs.getString("skill_name"));
-                    skill.setSkill(skillObj);
-                    
-                    skill.setRequiredLevel(rs.getInt("required_level"));
-                    skills.add(skill);
+                    skills.add(extractTaskSkillFromResultSet(rs));
                 }
             }
         }
@@ -528,27 +960,148 @@ public class TaskDAO {
         return dependencies;
     }
 
+    private TaskAggregate extractAggregateFromResultSet(ResultSet rs) throws SQLException {
+        return new TaskAggregate(
+            Task.TaskStatus.valueOf(rs.getString("status")),
+            Task.Priority.valueOf(rs.getString("priority")),
+            rs.getBoolean("assigned"),
+            rs.getLong("task_count"),
+            rs.getDouble("hours"));
+    }
+
+    private TaskSkill extractTaskSkillFromResultSet(ResultSet rs) throws SQLException {
+        TaskSkill skill = new TaskSkill();
+        
+        // Initialiser l'objet Task
+        Task task = new Task();
+        task.setId(rs.getInt("task_id"));
+        skill.setTask(task);
+        
+        // Initialiser l'objet Skill
+        Skill skillObj = new Skill();
+        skillObj.setId(rs.getInt("skill_id"));
+        skillObj.setName(rs.getString("skill_name"));
+        skill.setSkill(skillObj);
+        
+        skill.setRequiredLevel(rs.getInt("required_level"));
+        return skill;
+    }
+
     private Task extractTaskFromResultSet(ResultSet rs) throws SQLException {
+        return extractTaskFromResultSet(rs, FieldSet.ALL);
+    }
+
+    private Task extractTaskFromResultSet(ResultSet rs, FieldSet fields) throws SQLException {
         Task task = new Task();
         task.setId(rs.getInt("id"));
-        task.setProjectId(rs.getInt("project_id"));
-        task.setTitle(rs.getString("title"));
-        task.setDescription(rs.getString("description"));
-        task.setEstimatedHours(rs.getDouble("estimated_hours"));
-        task.setPriority(Task.Priority.valueOf(rs.getString("priority")));
-        task.setStatus(Task.TaskStatus.valueOf(rs.getString("status")));
-        task.setStartDate(rs.getDate("start_date"));
-        task.setDeadline(rs.getDate("deadline"));
+        if (fields.has("projectId")) task.setProjectId(rs.getInt("project_id"));
+        if (fields.has("title")) task.setTitle(rs.getString("title"));
+        if (fields.has("description")) task.setDescription(rs.getString("description"));
+        if (fields.has("estimatedHours")) task.setEstimatedHours(rs.getDouble("estimated_hours"));
+        if (fields.has("priority")) task.setPriority(Task.Priority.valueOf(rs.getString("priority")));
+        if (fields.has("status")) task.setStatus(Task.TaskStatus.valueOf(rs.getString("status")));
+        if (fields.has("startDate")) task.setStartDate(rs.getDate("start_date"));
+        if (fields.has("deadline")) task.setDeadline(rs.getDate("deadline"));
         
-        int assignedMemberId = rs.getInt("assigned_member_id");
-        if (!rs.wasNull()) {
-            // Initialiser l'objet Member
-            Member assignedMember = new Member();
-            assignedMember.setId(assignedMemberId);
-            assignedMember.setName(rs.getString("member_name"));
-            task.setAssignedMember(assignedMember);
+        if (fields.has("assignedMember")) {
+            int assignedMemberId = rs.getInt("assigned_member_id");
+            if (!rs.wasNull()) {
+                // Initialiser l'objet Member
+                Member assignedMember = new Member();
+                assignedMember.setId(assignedMemberId);
+                assignedMember.setName(rs.getString("member_name"));
+                task.setAssignedMember(assignedMember);
+            }
         }
 
         return task;
     }
+
+    /**
+     * Column list for a projection. "t.*" when everything is requested,
+     * otherwise only the columns behind the requested fields (never the TEXT description unless asked).
+     */
+    private String taskColumns(FieldSet fields) {
+        if (fields.isAll()) return "t.*, m.name as member_name";
+        StringBuilder columns = new StringBuilder("t.id");
+        if (fields.has("projectId")) columns.append(", t.project_id");
+        if (fields.has("title")) columns.append(", t.title");
+        if (fields.has("description")) columns.append(", t.description");
+        if (fields.has("estimatedHours")) columns.append(", t.estimated_hours");
+        if (fields.has("priority")) columns.append(", t.priority");
+        if (fields.has("status")) columns.append(", t.status");
+        if (fields.has("startDate")) columns.append(", t.start_date");
+        if (fields.has("deadline")) columns.append(", t.deadline");
+        if (fields.has("assignedMember")) columns.append(", t.assigned_member_id, m.name as member_name");
+        return columns.toString();
+    }
+
+    private String memberJoin(FieldSet fields) {
+        return fields.has("assignedMember") ? "LEFT JOIN members m ON t.assigned_member_id = m.id " : "";
+    }
+
+    /**
+     * Loads task_skills and task_dependencies for a whole result with IN lists of at most
+     * IN_CHUNK ids over one connection, then stitches them in memory: 2 queries per chunk
+     * instead of 2 per task.
+     */
+    private void loadChildren(List<Task> tasks, FieldSet fields) throws SQLException {
+        boolean skills = fields.has("requiredSkills");
+        boolean dependencies = fields.has("dependencies");
+        if (tasks.isEmpty() || (!skills && !dependencies)) return;
+
+        Map<Integer, Task> byId = new HashMap<>(tasks.size() * 2);
+        for (Task task : tasks) {
+            if (skills) task.setRequiredSkills(new ArrayList<>());
+            if (dependencies) task.setDependencies(new ArrayList<>());
+            byId.put(task.getId(), task);
+        }
+        List<Integer> ids = new ArrayList<>(byId.keySet());
+
+        try (Connection conn = DatabaseUtil.getConnection()) {
+            for (int from = 0; from < ids.size(); from += IN_CHUNK) {
+                List<Integer> chunk = ids.subList(from, Math.min(from + IN_CHUNK, ids.size()));
+                String in = placeholders(chunk.size());
+                if (skills) {
+                    String sql = "SELECT ts.*, s.name as skill_name FROM task_skills ts " +
+                                "JOIN skills s ON ts.skill_id = s.id WHERE ts.task_id IN (" + in + ")";
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        bindIds(stmt, chunk);
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            while (rs.next()) {
+                                TaskSkill skill = extractTaskSkillFromResultSet(rs);
+                                byId.get(skill.getTask().getId()).getRequiredSkills().add(skill);
+                            }
+                        }
+                    }
+                }
+                if (dependencies) {
+                    String sql = "SELECT task_id, depends_on_task_id FROM task_dependencies WHERE task_id IN (" + in + ")";
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        bindIds(stmt, chunk);
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            while (rs.next()) {
+                                byId.get(rs.getInt("task_id")).getDependencies().add(rs.getInt("depends_on_task_id"));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder(count * 2);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(',');
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+
+    private static void bindIds(PreparedStatement stmt, List<Integer> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            stmt.setInt(i + 1, ids.get(i));
+        }
+    }
 }
@@ -0,0 +1,282 @@
+package org.projectmanagement.event;
+
+import org.projectmanagement.util.ServerConfig;
+import org.projectmanagement.util.TransactionScope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * In-process publish/subscribe bus for alert changes.
+ * DAOs publish after their write is committed; a single dispatcher thread numbers the
+ * events, keeps the last ones for Last-Event-ID resume, reads the unread count once per
+ * batch (instead of once per open tab) and fans out to the subscribers.
+ * Each subscriber has a bounded buffer: a client that cannot keep up is dropped and
+ * resumes from the replay buffer when it reconnects.
+ * Only the writes made through this server are published: with several servers the
+ * browser also polls the unread count slowly (core.js) to catch the others' changes.
+ */
+public final class AlertBus {
+    private static final Logger logger = LoggerFactory.getLogger(AlertBus.class);
+
+    private static final AlertBus INSTANCE = new AlertBus(
+        ServerConfig.getInt("server.sse.replaySize", 256),
+        ServerConfig.getInt("server.sse.bufferSize", 64));
+
+    public enum Type { CREATED, READ, ALL_READ, DELETED, RESET }
+
+    private final int replaySize;
+    private final int bufferSize;
+    private final BlockingQueue<Event> pending = new LinkedBlockingQueue<>();
+    private final ArrayDeque<Event> replay = new ArrayDeque<>();
+    private final List<Subscription> subscribers = new CopyOnWriteArrayList<>();
+    private volatile Callable<Integer> unreadCounter;
+    private long lastId;
+    private Thread dispatcher;
+
+    AlertBus(int replaySize, int bufferSize) {
+        this.replaySize = replaySize;
+        this.bufferSize = bufferSize;
+    }
+
+    public static AlertBus getInstance() {
+        return INSTANCE;
+    }
+
+    /** Source of the unread count attached to each event (AlertDAO::getUnreadCount). */
+    public void setUnreadCounter(Callable<Integer> unreadCounter) {
+        this.unreadCounter = unreadCounter;
+    }
+
+    public void publishCreated(int alertId, String severity, String title) {
+        publish(new Event(Type.CREATED, alertId, severity, title));
+    }
+
+    public void publishRead(int alertId) {
+        publish(new Event(Type.READ, alertId, null, null));
+    }
+
+    public void publishAllRead() {
+        publish(new Event(Type.ALL_READ, 0, null, null));
+    }
+
+    public void publishDeleted(int alertId) {
+        publish(new Event(Type.DELETED, alertId, null, null));
+    }
+
+    private void publish(Event event) {
+        // Dans une transaction : publié seulement après le commit
+        TransactionScope.afterCommit(() -> {
+            pending.add(event);
+            startDispatcher();
+        });
+    }
+
+    /**
+     * Registers a subscriber. Events newer than lastEventId are queued first; when they are
+     * no longer in the replay buffer (or the id comes from a previous run) a RESET event
+     * tells the client to reload its state.
+     */
+    public Subscription subscribe(String lastEventId, Runnable onReady) {
+        Subscription subscription = new Subscription(bufferSize, onReady);
+        synchronized (replay) {
+            if (lastEventId != null) {
+                long after = parseId(lastEventId);
+                Event oldest = replay.peekFirst();
+                if (after < 0 || after > lastId || (oldest != null && after < oldest.id - 1)) {
+                    subscription.queue.offer(new Event(Type.RESET, 0, null, null).numbered(lastId, -1));
+                } else {
+                    for (Event event : replay) {
+                        if (event.id > after && !subscription.queue.offer(event)) {
+                            // Trop d'événements manqués : un RESET suffit
+                            subscription.queue.clear();
+                            subscription.queue.offer(new Event(Type.RESET, 0, null, null).numbered(lastId, -1));
+                            break;
+                        }
+                    }
+                }
+            }
+            subscription.lastQueued = lastId;
+            subscribers.add(subscription);
+        }
+        return subscription;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private synchronized void startDispatcher() {
+        if (dispatcher != null) return;
+        dispatcher = new Thread(this::dispatchLoop, "alert-bus");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    private void dispatchLoop() {
+        List<Event> batch = new ArrayList<>();
+        while (true) {
+            try {
+                batch.add(pending.take());
+                pending.drainTo(batch);
+                int unread = countUnread();
+                List<Event> numbered = new ArrayList<>(batch.size());
+                synchronized (replay) {
+                    for (Event event : batch) {
+                        Event e = event.numbered(++lastId, unread);
+                        replay.addLast(e);
+                        if (replay.size() > replaySize) replay.removeFirst();
+                        numbered.add(e);
+                    }
+                }
+                for (Subscription subscription : subscribers) {
+                    for (Event e : numbered) {
+                        if (!subscription.offer(e)) break;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Error dispatching alert events", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private int countUnread() {
+        Callable<Integer> counter = unreadCounter;
+        if (counter == null || subscribers.isEmpty()) return -1;
+        try {
+            return counter.call();
+        } catch (Exception e) {
+            logger.warn("Could not read unread alert count: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    private static long parseId(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * One change. The unread count is -1 when it is unknown.
+     */
+    public static final class Event {
+        private final Type type;
+        private final int alertId;
+        private final String severity;
+        private final String title;
+        private long id;
+        private int unreadCount = -1;
+        private String json;
+
+        Event(Type type, int alertId, String severity, String title) {
+            this.type = type;
+            this.alertId = alertId;
+            this.severity = severity;
+            this.title = title;
+        }
+
+        Event numbered(long id, int unreadCount) {
+            Event e = new Event(type, alertId, severity, title);
+            e.id = id;
+            e.unreadCount = unreadCount;
+            return e;
+        }
+
+        public long getId() { return id; }
+        public Type getType() { return type; }
+        public int getAlertId() { return alertId; }
+        public int getUnreadCount() { return unreadCount; }
+
+        /** JSON payload, built once and shared by every subscriber. */
+        public String toJson() {
+            if (json == null) {
+                StringBuilder sb = new StringBuilder("{\"type\":\"").append(type.name()).append('"');
+                if (alertId > 0) sb.append(",\"alertId\":").append(alertId);
+                if (severity != null) sb.append(",\"severity\":\"").append(severity).append('"');
+                if (title != null) appendString(sb.append(",\"title\":"), title);
+                if (unreadCount >= 0) sb.append(",\"unreadCount\":").append(unreadCount);
+                json = sb.append('}').toString();
+            }
+            return json;
+        }
+
+        private static void appendString(StringBuilder sb, String value) {
+            sb.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') sb.append('\\').append(c);
+                else if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                else sb.append(c);
+            }
+            sb.append('"');
+        }
+    }
+
+    /**
+     * A subscriber's bounded buffer. The transport drains it with poll() when onReady fires.
+     */
+    public final class Subscription {
+        private final BlockingQueue<Event> queue;
+        private final Runnable onReady;
+        private volatile boolean overflowed;
+        private volatile boolean closed;
+        // Dernier id mis en file : évite les doublons entre le replay et la diffusion en cours
+        private volatile long lastQueued;
+
+        Subscription(int capacity, Runnable onReady) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.onReady = onReady;
+        }
+
+        boolean offer(Event event) {
+            if (closed) return false;
+            if (event.id <= lastQueued) return true;
+            lastQueued = event.id;
+            if (!queue.offer(event)) {
+                // Client trop lent : on le déconnecte, il reprendra via Last-Event-ID
+                overflowed = true;
+                close();
+                logger.warn("Alert stream subscriber dropped: buffer full");
+            }
+            onReady.run();
+            return !overflowed;
+        }
+
+        public Event poll() {
+            return queue.poll();
+        }
+
+        public boolean hasPending() {
+            return !queue.isEmpty();
+        }
+
+        public boolean isOverflowed() {
+            return overflowed;
+        }
+
+        public boolean isClosed() {
+            return closed;
+        }
+
+        public void close() {
+            closed = true;
+            subscribers.remove(this);
+        }
+    }
+}
@@ -0,0 +1,528 @@
+package org.projectmanagement.json;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.projectmanagement.dao.FieldSet;
+import org.projectmanagement.model.*;
+
+import java.io.IOException;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hand-written streaming adapters for the model classes.
+ * They replace Gson reflection on the hot list endpoints and write nested
+ * objects (assigned member, alert member/project/task, skill owners) as compact
+ * references: only id and display name.
+ * Field names stay the same as the reflective output so the frontend is unchanged.
+ */
+public final class ModelTypeAdapters {
+    // DateTimeFormatter is immutable and thread-safe, unlike SimpleDateFormat
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE;
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ISO_INSTANT;
+
+    static final SqlDateAdapter DATE = new SqlDateAdapter();
+    static final TimestampAdapter TIMESTAMP = new TimestampAdapter();
+    static final SkillAdapter SKILL = new SkillAdapter();
+    static final MemberSkillAdapter MEMBER_SKILL = new MemberSkillAdapter();
+    static final TaskSkillAdapter TASK_SKILL = new TaskSkillAdapter();
+    static final MemberAdapter MEMBER = new MemberAdapter();
+    static final TaskAdapter TASK = new TaskAdapter();
+    static final ProjectAdapter PROJECT = new ProjectAdapter();
+    static final AlertAdapter ALERT = new AlertAdapter();
+
+    private ModelTypeAdapters() {
+    }
+
+    public static GsonBuilder register(GsonBuilder builder) {
+        return builder
+            .registerTypeAdapter(Date.class, DATE.nullSafe())
+            .registerTypeAdapter(Timestamp.class, TIMESTAMP.nullSafe())
+            .registerTypeAdapter(Skill.class, SKILL.nullSafe())
+            .registerTypeAdapter(MemberSkill.class, MEMBER_SKILL.nullSafe())
+            .registerTypeAdapter(TaskSkill.class, TASK_SKILL.nullSafe())
+            .registerTypeAdapter(Member.class, MEMBER.nullSafe())
+            .registerTypeAdapter(Task.class, TASK.nullSafe())
+            .registerTypeAdapter(Project.class, PROJECT.nullSafe())
+            .registerTypeAdapter(Alert.class, ALERT.nullSafe());
+    }
+
+    // Écriture avec projection (?fields=) pour les listes
+
+    public static void writeTask(JsonWriter out, Task task, FieldSet fields) throws IOException {
+        TaskAdapter.write(out, task, fields);
+    }
+
+    public static void writeMember(JsonWriter out, Member member, FieldSet fields) throws IOException {
+        MemberAdapter.write(out, member, fields);
+    }
+
+    public static void writeAlert(JsonWriter out, Alert alert, FieldSet fields) throws IOException {
+        AlertAdapter.write(out, alert, fields);
+    }
+
+    // ==================== Scalars ====================
+
+    static final class SqlDateAdapter extends TypeAdapter<Date> {
+        @Override
+        public void write(JsonWriter out, Date value) throws IOException {
+            out.value(DATE_FORMAT.format(value.toLocalDate()));
+        }
+
+        @Override
+        public Date read(JsonReader in) throws IOException {
+            String text = in.nextString();
+            if (text.isEmpty()) return null;
+            try {
+                // Accepte aussi "yyyy-MM-ddTHH:mm..." envoyé par certains formulaires
+                return Date.valueOf(LocalDate.parse(text.length() > 10 ? text.substring(0, 10) : text, DATE_FORMAT));
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+    }
+
+    static final class TimestampAdapter extends TypeAdapter<Timestamp> {
+        @Override
+        public void write(JsonWriter out, Timestamp value) throws IOException {
+            out.value(TIMESTAMP_FORMAT.format(value.toInstant()));
+        }
+
+        @Override
+        public Timestamp read(JsonReader in) throws IOException {
+            String text = in.nextString();
+            try {
+                return Timestamp.from(Instant.parse(text));
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+    }
+
+    // ==================== Skills ====================
+
+    static final class SkillAdapter extends TypeAdapter<Skill> {
+        @Override
+        public void write(JsonWriter out, Skill skill) throws IOException {
+            out.beginObject();
+            out.name("id").value(skill.getId());
+            writeString(out, "name", skill.getName());
+            writeString(out, "description", skill.getDescription());
+            if (skill.getCreatedAt() != null) {
+                out.name("createdAt");
+                TIMESTAMP.write(out, skill.getCreatedAt());
+            }
+            out.endObject();
+        }
+
+        @Override
+        public Skill read(JsonReader in) throws IOException {
+            Skill skill = new Skill();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (skipNull(in)) continue;
+                switch (name) {
+                    case "id": skill.setId(in.nextInt()); break;
+                    case "name": skill.setName(in.nextString()); break;
+                    case "description": skill.setDescription(in.nextString()); break;
+                    case "createdAt": skill.setCreatedAt(TIMESTAMP.read(in)); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return skill;
+        }
+    }
+
+    static final class MemberSkillAdapter extends TypeAdapter<MemberSkill> {
+        @Override
+        public void write(JsonWriter out, MemberSkill memberSkill) throws IOException {
+            out.beginObject();
+            if (memberSkill.getMember() != null) {
+                out.name("member");
+                writeReference(out, memberSkill.getMember().getId(), "name", memberSkill.getMember().getName());
+            }
+            if (memberSkill.getSkill() != null) {
+                out.name("skill");
+                writeReference(out, memberSkill.getSkill().getId(), "name", memberSkill.getSkill().getName());
+            }
+            out.name("proficiencyLevel").value(memberSkill.getProficiencyLevel());
+            out.endObject();
+        }
+
+        @Override
+        public MemberSkill read(JsonReader in) throws IOException {
+            MemberSkill memberSkill = new MemberSkill();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (skipNull(in)) continue;
+                switch (name) {
+                    case "member": memberSkill.setMember(MEMBER.read(in)); break;
+                    case "skill": memberSkill.setSkill(SKILL.read(in)); break;
+                    case "skillId": memberSkill.setSkill(skillRef(in.nextInt())); break;
+                    case "proficiencyLevel": memberSkill.setProficiencyLevel(in.nextInt()); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return memberSkill;
+        }
+    }
+
+    static final class TaskSkillAdapter extends TypeAdapter<TaskSkill> {
+        @Override
+        public void write(JsonWriter out, TaskSkill taskSkill) throws IOException {
+            out.beginObject();
+            if (taskSkill.getTask() != null) {
+                out.name("task");
+                writeReference(out, taskSkill.getTask().getId(), "title", taskSkill.getTask().getTitle());
+            }
+            if (taskSkill.getSkill() != null) {
+                out.name("skill");
+                writeReference(out, taskSkill.getSkill().getId(), "name", taskSkill.getSkill().getName());
+            }
+            out.name("requiredLevel").value(taskSkill.getRequiredLevel());
+            out.endObject();
+        }
+
+        @Override
+        public TaskSkill read(JsonReader in) throws IOException {
+            TaskSkill taskSkill = new TaskSkill();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (skipNull(in)) continue;
+                switch (name) {
+                    case "task": taskSkill.setTask(TASK.read(in)); break;
+                    case "skill": taskSkill.setSkill(SKILL.read(in)); break;
+                    // Format envoyé par le formulaire de création de tâche
+                    case "skillId": taskSkill.setSkill(skillRef(in.nextInt())); break;
+                    case "requiredLevel": taskSkill.setRequiredLevel(in.nextInt()); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return taskSkill;
+        }
+    }
+
+    // ==================== Members ====================
+
+    static final class MemberAdapter extends TypeAdapter<Member> {
+        @Override
+        public void write(JsonWriter out, Member member) throws IOException {
+            writeMember(out, member, FieldSet.ALL);
+        }
+
+        static void write(JsonWriter out, Member member, FieldSet fields) throws IOException {
+            out.beginObject();
+            out.name("id").value(member.getId());
+            if (fields.has("name")) writeString(out, "name", member.getName());
+            if (fields.has("email")) writeString(out, "email", member.getEmail());
+            if (fields.has("weeklyAvailability")) out.name("weeklyAvailability").value(member.getWeeklyAvailability());
+            if (fields.has("currentWorkload")) out.name("currentWorkload").value(member.getCurrentWorkload());
+            if (fields.has("skills") && member.getSkills() != null) {
+                out.name("skills").beginArray();
+                for (MemberSkill skill : member.getSkills()) {
+                    // La référence au membre est implicite dans sa propre liste
+                    out.beginObject();
+                    if (skill.getSkill() != null) {
+                        out.name("skill");
+                        writeReference(out, skill.getSkill().getId(), "name", skill.getSkill().getName());
+                    }
+                    out.name("proficiencyLevel").value(skill.getProficiencyLevel());
+                    out.endObject();
+                }
+                out.endArray();
+            }
+            out.endObject();
+        }
+
+        @Override
+        public Member read(JsonReader in) throws IOException {
+            Member member = new Member();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (skipNull(in)) continue;
+                switch (name) {
+                    case "id": member.setId(in.nextInt()); break;
+                    case "name": member.setName(in.nextString()); break;
+                    case "email": member.setEmail(in.nextString()); break;
+                    case "weeklyAvailability": member.setWeeklyAvailability(in.nextInt()); break;
+                    case "currentWorkload": member.setCurrentWorkload(in.nextDouble()); break;
+                    case "skills": member.setSkills(readList(in, MEMBER_SKILL)); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return member;
+        }
+    }
+
+    // ==================== Tasks ====================
+
+    static final class TaskAdapter extends TypeAdapter<Task> {
+        @Override
+        public void write(JsonWriter out, Task task) throws IOException {
+            writeTask(out, task, FieldSet.ALL);
+        }
+
+        static void write(JsonWriter out, Task task, FieldSet fields) throws IOException {
+            out.beginObject();
+            out.name("id").value(task.getId());
+            if (fields.has("projectId")) out.name("projectId").value(task.getProjectId());
+            if (fields.has("title")) writeString(out, "title", task.getTitle());
+            if (fields.has("description")) writeString(out, "description", task.getDescription());
+            if (fields.has("estimatedHours")) out.name("estimatedHours").value(task.getEstimatedHours());
+            if (fields.has("priority") && task.getPriority() != null) out.name("priority").value(task.getPriority().name());
+            if (fields.has("status") && task.getStatus() != null) out.name("status").value(task.getStatus().name());
+            if (fields.has("startDate")) writeDate(out, "startDate", task.getStartDate());
+            if (fields.has("deadline")) writeDate(out, "deadline", task.getDeadline());
+            if (fields.has("assignedMember") && task.getAssignedMember() != null) {
+                out.name("assignedMember");
+                writeReference(out, task.getAssignedMember().getId(), "name", task.getAssignedMember().getName());
+            }
+            if (fields.has("requiredSkills") && task.getRequiredSkills() != null) {
+                out.name("requiredSkills").beginArray();
+                for (TaskSkill skill : task.getRequiredSkills()) {
+                    out.beginObject();
+                    if (skill.getSkill() != null) {
+                        out.name("skill");
+                        writeReference(out, skill.getSkill().getId(), "name", skill.getSkill().getName());
+                    }
+                    out.name("requiredLevel").value(skill.getRequiredLevel());
+                    out.endObject();
+                }
+                out.endArray();
+            }
+            if (fields.has("dependencies") && task.getDependencies() != null) {
+                out.name("dependencies").beginArray();
+                for (Integer dependency : task.getDependencies()) {
+                    out.value(dependency);
+                }
+                out.endArray();
+            }
+            out.endObject();
+        }
+
+        @Override
+        public Task read(JsonReader in) throws IOException {
+            Task task = new Task();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (skipNull(in)) continue;
+                switch (name) {
+                    case "id": task.setId(in.nextInt()); break;
+                    case "projectId": task.setProjectId(in.nextInt()); break;
+                    case "title": task.setTitle(in.nextString()); break;
+                    case "description": task.setDescription(in.nextString()); break;
+                    case "estimatedHours": task.setEstimatedHours(in.nextDouble()); break;
+                    case "priority": task.setPriority(readEnum(in, Task.Priority.class)); break;
+                    case "status": task.setStatus(readEnum(in, Task.TaskStatus.class)); break;
+                    case "startDate": task.setStartDate(DATE.read(in)); break;
+                    case "deadline": task.setDeadline(DATE.read(in)); break;
+                    case "assignedMember": task.setAssignedMember(MEMBER.read(in)); break;
+                    case "assignedMemberId": task.setAssignedMember(memberRef(in.nextInt())); break;
+                    case "requiredSkills": task.setRequiredSkills(readList(in, TASK_SKILL)); break;
+                    case "dependencies": task.setDependencies(readIntList(in)); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return task;
+        }
+    }
+
+    // ==================== Projects ====================
+
+    static final class ProjectAdapter extends TypeAdapter<Project> {
+        @Override
+        public void write(JsonWriter out, Project project) throws IOException {
+            out.beginObject();
+            out.name("id").value(project.getId());
+            writeString(out, "name", project.getName());
+            writeString(out, "description", project.getDescription());
+            writeDate(out, "startDate", project.getStartDate());
+            writeDate(out, "deadline", project.getDeadline());
+            if (project.getStatus() != null) out.name("status").value(project.getStatus().name());
+            if (project.getTasks() != null) {
+                out.name("tasks").beginArray();
+                for (Task task : project.getTasks()) {
+                    TASK.write(out, task);
+                }
+                out.endArray();
+            }
+            out.endObject();
+        }
+
+        @Override
+        public Project read(JsonReader in) throws IOException {
+            Project project = new Project();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (skipNull(in)) continue;
+                switch (name) {
+                    case "id": project.setId(in.nextInt()); break;
+                    case "name": project.setName(in.nextString()); break;
+                    case "description": project.setDescription(in.nextString()); break;
+                    case "startDate": project.setStartDate(DATE.read(in)); break;
+                    case "deadline": project.setDeadline(DATE.read(in)); break;
+                    case "status": project.setStatus(readEnum(in, Project.ProjectStatus.class)); break;
+                    case "tasks": project.setTasks(readList(in, TASK)); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return project;
+        }
+    }
+
+    // ==================== Alerts ====================
+
+    static final class AlertAdapter extends TypeAdapter<Alert> {
+        @Override
+        public void write(JsonWriter out, Alert alert) throws IOException {
+            writeAlert(out, alert, FieldSet.ALL);
+        }
+
+        static void write(JsonWriter out, Alert alert, FieldSet fields) throws IOException {
+            out.beginObject();
+            out.name("id").value(alert.getId());
+            if (fields.has("type") && alert.getType() != null) out.name("type").value(alert.getType().name());
+            if (fields.has("severity") && alert.getSeverity() != null) out.name("severity").value(alert.getSeverity().name());
+            if (fields.has("title")) writeString(out, "title", alert.getTitle());
+            if (fields.has("message")) writeString(out, "message", alert.getMessage());
+            if (fields.has("member") && alert.getMember() != null) {
+                out.name("member");
+                writeReference(out, alert.getMember().getId(), "name", alert.getMember().getName());
+            }
+            if (fields.has("project") && alert.getProject() != null) {
+                out.name("project");
+                writeReference(out, alert.getProject().getId(), "name", alert.getProject().getName());
+            }
+            if (fields.has("task") && alert.getTask() != null) {
+                out.name("task");
+                writeReference(out, alert.getTask().getId(), "title", alert.getTask().getTitle());
+            }
+            if (fields.has("isRead")) out.name("isRead").value(alert.isRead());
+            if (fields.has("createdAt") && alert.getCreatedAt() != null) {
+                out.name("createdAt");
+                TIMESTAMP.write(out, alert.getCreatedAt());
+            }
+            out.endObject();
+        }
+
+        @Override
+        public Alert read(JsonReader in) throws IOException {
+            Alert alert = new Alert();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (skipNull(in)) continue;
+                switch (name) {
+                    case "id": alert.setId(in.nextInt()); break;
+                    case "type": alert.setType(readEnum(in, Alert.AlertType.class)); break;
+                    case "severity": alert.setSeverity(readEnum(in, Alert.Severity.class)); break;
+                    case "title": alert.setTitle(in.nextString()); break;
+                    case "message": alert.setMessage(in.nextString()); break;
+                    case "member": alert.setMember(MEMBER.read(in)); break;
+                    case "project": alert.setProject(PROJECT.read(in)); break;
+                    case "task": alert.setTask(TASK.read(in)); break;
+                    case "isRead": alert.setRead(in.nextBoolean()); break;
+                    case "createdAt": alert.setCreatedAt(TIMESTAMP.read(in)); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return alert;
+        }
+    }
+
+    // ==================== Helpers ====================
+
+    // {"id":..,"name":..} : assez pour afficher et relier, sans charger le graphe complet
+    private static void writeReference(JsonWriter out, int id, String labelField, String label) throws IOException {
+        out.beginObject();
+        out.name("id").value(id);
+        if (label != null) out.name(labelField).value(label);
+        out.endObject();
+    }
+
+    private static void writeString(JsonWriter out, String name, String value) throws IOException {
+        if (value != null) out.name(name).value(value);
+    }
+
+    private static void writeDate(JsonWriter out, String name, Date value) throws IOException {
+        if (value != null) {
+            out.name(name);
+            DATE.write(out, value);
+        }
+    }
+
+    private static boolean skipNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return true;
+        }
+        return false;
+    }
+
+    private static <E extends Enum<E>> E readEnum(JsonReader in, Class<E> type) throws IOException {
+        String value = in.nextString();
+        try {
+            return Enum.valueOf(type, value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static <T> List<T> readList(JsonReader in, TypeAdapter<T> adapter) throws IOException {
+        List<T> list = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            if (!skipNull(in)) {
+                list.add(adapter.read(in));
+            }
+        }
+        in.endArray();
+        return list;
+    }
+
+    private static List<Integer> readIntList(JsonReader in) throws IOException {
+        List<Integer> list = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            if (!skipNull(in)) {
+                list.add(in.nextInt());
+            }
+        }
+        in.endArray();
+        return list;
+    }
+
+    private static Skill skillRef(int id) {
+        Skill skill = new Skill();
+        skill.setId(id);
+        return skill;
+    }
+
+    private static Member memberRef(int id) {
+        Member member = new Member();
+        member.setId(id);
+        return member;
+    }
+}
@@ -0,0 +1,191 @@
+package org.projectmanagement.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.projectmanagement.event.AlertBus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events endpoint for alert changes (GET /api/alerts/stream).
+ * The handler subscribes to the AlertBus and returns at once: the exchange stays open and is
+ * written by a small writer pool, so idle dashboards hold neither a request thread nor a
+ * MySQL connection. A comment line is sent every heartbeat to keep proxies from closing the
+ * connection and to detect clients that went away.
+ */
+public class AlertStreamHandler implements HttpHandler {
+    private static final Logger logger = LoggerFactory.getLogger(AlertStreamHandler.class);
+
+    private static final byte[] PING = ": ping\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final AlertBus bus;
+    private final Router.Filter filter;
+    private final ExecutorService writers;
+    private final ScheduledExecutorService heartbeats;
+    private final int retryMillis;
+    private final Set<Stream> streams = ConcurrentHashMap.newKeySet();
+
+    public AlertStreamHandler(AlertBus bus, Router.Filter filter, int writerThreads, int heartbeatSeconds, int retryMillis) {
+        this.bus = bus;
+        this.filter = filter;
+        this.retryMillis = retryMillis;
+        this.writers = Executors.newFixedThreadPool(writerThreads, daemonThreads("sse-writer"));
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(daemonThreads("sse-heartbeat"));
+        heartbeats.scheduleAtFixedRate(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        filter.apply(exchange);
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Allow", "GET, OPTIONS");
+            exchange.sendResponseHeaders("OPTIONS".equals(exchange.getRequestMethod()) ? 200 : 405, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=UTF-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.getResponseHeaders().set("X-Accel-Buffering", "no");
+        exchange.sendResponseHeaders(200, 0);
+
+        // EventSource renvoie Last-Event-ID à la reconnexion ; le paramètre sert aux autres clients
+        String lastEventId = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+        if (lastEventId == null) {
+            lastEventId = queryParam(exchange.getRequestURI().getRawQuery(), "lastEventId");
+        }
+        Stream stream = new Stream(exchange);
+        streams.add(stream);
+        stream.subscription = bus.subscribe(lastEventId, stream::schedule);
+        stream.schedule();
+    }
+
+    public int getStreamCount() {
+        return streams.size();
+    }
+
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        for (Stream stream : streams) {
+            stream.close();
+        }
+        writers.shutdown();
+    }
+
+    private void heartbeat() {
+        for (Stream stream : streams) {
+            stream.pingDue = true;
+            stream.schedule();
+        }
+    }
+
+    private static String queryParam(String query, String name) {
+        if (query == null) return null;
+        for (String pair : query.split("&")) {
+            if (pair.startsWith(name + "=")) return pair.substring(name.length() + 1);
+        }
+        return null;
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * One open connection. At most one writer task runs per stream at a time.
+     */
+    private final class Stream {
+        private final HttpExchange exchange;
+        private final OutputStream out;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile AlertBus.Subscription subscription;
+        private volatile boolean pingDue;
+        private volatile boolean closed;
+        private boolean started;
+
+        Stream(HttpExchange exchange) {
+            this.exchange = exchange;
+            this.out = exchange.getResponseBody();
+        }
+
+        void schedule() {
+            if (closed || subscription == null) return;
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    writers.execute(this::run);
+                } catch (RuntimeException e) {
+                    scheduled.set(false);
+                    close();
+                }
+            }
+        }
+
+        private void run() {
+            try {
+                drain();
+            } catch (IOException e) {
+                logger.debug("Alert stream closed by client: {}", e.getMessage());
+                close();
+            } finally {
+                scheduled.set(false);
+            }
+            if (!closed && (pingDue || subscription.hasPending() || subscription.isClosed())) {
+                schedule();
+            }
+        }
+
+        private void drain() throws IOException {
+            boolean wrote = false;
+            if (!started) {
+                started = true;
+                out.write(("retry: " + retryMillis + "\n\n").getBytes(StandardCharsets.UTF_8));
+                wrote = true;
+            }
+            AlertBus.Event event;
+            while ((event = subscription.poll()) != null) {
+                StringBuilder sb = new StringBuilder("id: ").append(event.getId()).append('\n');
+                if (event.getType() == AlertBus.Type.RESET) sb.append("event: reset\n");
+                sb.append("data: ").append(event.toJson()).append("\n\n");
+                out.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+                wrote = true;
+            }
+            if (pingDue) {
+                pingDue = false;
+                if (!wrote) {
+                    out.write(PING);
+                    wrote = true;
+                }
+            }
+            if (wrote) out.flush();
+            if (subscription.isClosed()) {
+                // Abonné en retard (buffer plein) : le client se reconnecte avec Last-Event-ID
+                close();
+            }
+        }
+
+        void close() {
+            if (closed) return;
+            closed = true;
+            streams.remove(this);
+            if (subscription != null) subscription.close();
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package org.projectmanagement.server;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.projectmanagement.service.AllocationJob;
+import org.projectmanagement.service.AllocationJobs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events for one allocation job (GET /api/allocate/events/{jobId}).
+ * Progress changes thousands of times per run, so events are not pushed per change: each
+ * open stream samples the job every intervalMillis and writes a "progress" event only when
+ * its version moved, then a final "done" event and closes. Reconnecting simply resumes
+ * from the current snapshot.
+ */
+public class AllocationJobStreamHandler implements HttpHandler {
+    private static final Logger logger = LoggerFactory.getLogger(AllocationJobStreamHandler.class);
+
+    private static final byte[] PING = ": ping\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final AllocationJobs jobs;
+    private final Router.Filter filter;
+    private final Gson gson;
+    private final ScheduledExecutorService samplers;
+    private final int intervalMillis;
+    private final int heartbeatMillis;
+    private final Set<Stream> streams = ConcurrentHashMap.newKeySet();
+
+    public AllocationJobStreamHandler(AllocationJobs jobs, Router.Filter filter, Gson gson, int threads,
+                                      int intervalMillis, int heartbeatSeconds) {
+        this.jobs = jobs;
+        this.filter = filter;
+        this.gson = gson;
+        this.intervalMillis = Math.max(50, intervalMillis);
+        this.heartbeatMillis = heartbeatSeconds * 1000;
+        AtomicInteger count = new AtomicInteger();
+        this.samplers = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "job-stream-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        filter.apply(exchange);
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().set("Allow", "GET, OPTIONS");
+            exchange.sendResponseHeaders("OPTIONS".equals(exchange.getRequestMethod()) ? 200 : 405, -1);
+            exchange.close();
+            return;
+        }
+        AllocationJob job = findJob(exchange.getRequestURI().getPath());
+        if (job == null) {
+            byte[] body = "{\"success\":false,\"error\":\"Unknown allocation job\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(404, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=UTF-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        exchange.getResponseHeaders().set("X-Accel-Buffering", "no");
+        exchange.sendResponseHeaders(200, 0);
+
+        Stream stream = new Stream(exchange, job);
+        streams.add(stream);
+        stream.future = samplers.scheduleWithFixedDelay(stream::sample, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public int getStreamCount() {
+        return streams.size();
+    }
+
+    public void shutdown() {
+        samplers.shutdownNow();
+        for (Stream stream : streams) {
+            stream.close();
+        }
+    }
+
+    private AllocationJob findJob(String path) {
+        String id = path.substring(path.lastIndexOf('/') + 1);
+        try {
+            return jobs.get(Integer.parseInt(id));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * One open connection, sampled by one scheduled task (never two at a time).
+     */
+    private final class Stream {
+        private final HttpExchange exchange;
+        private final OutputStream out;
+        private final AllocationJob job;
+        private volatile ScheduledFuture<?> future;
+        private long lastVersion = -1;
+        private long lastWrite = System.currentTimeMillis();
+        private volatile boolean closed;
+
+        Stream(HttpExchange exchange, AllocationJob job) {
+            this.exchange = exchange;
+            this.out = exchange.getResponseBody();
+            this.job = job;
+        }
+
+        void sample() {
+            if (closed) {
+                // Fermé avant que la tâche planifiée soit connue : l'arrêter maintenant
+                ScheduledFuture<?> f = future;
+                if (f != null) f.cancel(false);
+                return;
+            }
+            try {
+                // Le job terminé produit toujours un dernier événement complet
+                long version = job.getVersion();
+                boolean done = job.isDone();
+                if (version != lastVersion || done) {
+                    lastVersion = version;
+                    write((done ? "event: done\n" : "event: progress\n") + "data: " + gson.toJson(job.snapshot()) + "\n\n");
+                    if (done) {
+                        close();
+                    }
+                } else if (System.currentTimeMillis() - lastWrite >= heartbeatMillis) {
+                    out.write(PING);
+                    out.flush();
+                    lastWrite = System.currentTimeMillis();
+                }
+            } catch (IOException e) {
+                logger.debug("Allocation job stream closed by client: {}", e.getMessage());
+                close();
+            }
+        }
+
+        private void write(String event) throws IOException {
+            out.write(event.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            lastWrite = System.currentTimeMillis();
+        }
+
+        void close() {
+            if (closed) return;
+            closed = true;
+            streams.remove(this);
+            ScheduledFuture<?> f = future;
+            if (f != null) f.cancel(false);
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package org.projectmanagement.server;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpPrincipal;
+import org.projectmanagement.util.DatabaseUtil;
+import org.projectmanagement.util.TransactionScope;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * POST /api/batch: runs an ordered list of API calls in one round trip and one transaction.
+ * <pre>
+ * {"operations": [
+ *   {"id": "t1", "method": "POST", "path": "/api/tasks/", "body": {"projectId": 3, "title": "..."}},
+ *   {"method": "POST", "path": "/api/tasks/${t1.id}/skills", "body": {"skillId": 2, "requiredLevel": 3}}
+ * ]}
+ * </pre>
+ * Each operation goes through the normal route table, so it behaves exactly like the single
+ * call. "${ref.field}" in a path or a body string is replaced by a field of the response of
+ * an earlier operation. The first operation answering 400 or more rolls the whole batch back.
+ * Calls whose effect is not part of the transaction (allocation jobs run on their own thread
+ * and connection, the optimizer switch is in memory) are refused: their routes are marked
+ * with Router.excludeFromBatch(), checked on the matched route rather than on the raw path.
+ */
+public class BatchHandler implements Router.Route {
+
+    private static final Pattern REFERENCE = Pattern.compile("\\$\\{([A-Za-z0-9_-]+)((?:\\.[A-Za-z0-9_]+)+)}");
+
+    private final Router router;
+    private final int maxOperations;
+
+    public BatchHandler(Router router, int maxOperations) {
+        this.router = router;
+        this.maxOperations = maxOperations;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange, Router.PathParams params) throws Exception {
+        JsonArray operations = parseOperations(exchange.getRequestBody());
+        if (operations.size() > maxOperations) {
+            throw new IllegalArgumentException("Too many operations in batch (max " + maxOperations + ")");
+        }
+
+        JsonArray results = new JsonArray();
+        int[] failedIndex = { -1 };
+        int[] failedStatus = { 0 };
+        DatabaseUtil.inTransaction(() -> {
+            Map<String, JsonElement> responses = new HashMap<>();
+            for (int i = 0; i < operations.size(); i++) {
+                JsonObject result = new JsonObject();
+                result.addProperty("index", i);
+                JsonObject operation = operations.get(i).getAsJsonObject();
+                String id = operation.has("id") ? operation.get("id").getAsString() : null;
+                if (id != null) result.addProperty("id", id);
+
+                SubExchange sub;
+                try {
+                    sub = execute(exchange, operation, responses);
+                } catch (IllegalArgumentException e) {
+                    sub = null;
+                    result.addProperty("status", 400);
+                    result.addProperty("error", e.getMessage());
+                } catch (IOException e) {
+                    sub = null;
+                    result.addProperty("status", 500);
+                    result.addProperty("error", e.getMessage());
+                }
+                if (sub != null) {
+                    result.addProperty("status", sub.status);
+                    result.add("body", sub.body());
+                }
+                results.add(result);
+
+                int status = result.get("status").getAsInt();
+                if (status >= 400) {
+                    // Une opération en échec annule tout le lot
+                    failedIndex[0] = i;
+                    failedStatus[0] = status;
+                    TransactionScope.setRollbackOnly();
+                    break;
+                }
+                if (id != null) {
+                    responses.put(id, sub.body());
+                }
+            }
+            return null;
+        });
+
+        JsonObject response = new JsonObject();
+        response.addProperty("success", failedIndex[0] < 0);
+        if (failedIndex[0] >= 0) {
+            JsonObject failed = results.get(failedIndex[0]).getAsJsonObject();
+            response.addProperty("failedIndex", failedIndex[0]);
+            response.addProperty("error", errorMessage(failed));
+        }
+        response.add("results", results);
+        byte[] bytes = response.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(failedIndex[0] < 0 ? 200 : failedStatus[0], bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    SubExchange execute(HttpExchange parent, JsonObject operation, Map<String, JsonElement> responses)
+            throws IOException {
+        if (!operation.has("method") || !operation.has("path")) {
+            throw new IllegalArgumentException("Operation needs a method and a path");
+        }
+        String method = operation.get("method").getAsString().toUpperCase();
+        String path = resolve(operation.get("path").getAsString(), responses).getAsString();
+        if (!path.startsWith("/api/")) {
+            throw new IllegalArgumentException("Operation path not allowed: " + path);
+        }
+        URI uri;
+        try {
+            uri = URI.create(path);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid operation path: " + path);
+        }
+        // Chemins hors transaction : ni annulés avec le lot, ni sûrs de voir ses écritures
+        if (!router.isBatchable(uri.getPath())) {
+            throw new IllegalArgumentException("Operation path not allowed in a batch: " + path);
+        }
+        byte[] body = new byte[0];
+        if (operation.has("body") && !operation.get("body").isJsonNull()) {
+            body = resolveAll(operation.get("body"), responses).toString().getBytes(StandardCharsets.UTF_8);
+        }
+        SubExchange sub = new SubExchange(parent, method, uri, body);
+        router.handle(sub);
+        return sub;
+    }
+
+    private static JsonArray parseOperations(InputStream in) {
+        try {
+            JsonElement root = JsonParser.parseReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            JsonElement operations = root.isJsonObject() ? root.getAsJsonObject().get("operations") : root;
+            if (operations == null || !operations.isJsonArray()) {
+                throw new IllegalArgumentException("Batch body must contain an operations array");
+            }
+            for (JsonElement operation : operations.getAsJsonArray()) {
+                if (!operation.isJsonObject()) {
+                    throw new IllegalArgumentException("Each operation must be an object");
+                }
+            }
+            return operations.getAsJsonArray();
+        } catch (JsonParseException e) {
+            throw new IllegalArgumentException("Invalid batch body: " + e.getMessage());
+        }
+    }
+
+    /** Replaces references in every string of a body, keeping numbers as numbers. */
+    private static JsonElement resolveAll(JsonElement element, Map<String, JsonElement> responses) {
+        if (element.isJsonObject()) {
+            JsonObject copy = new JsonObject();
+            for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+                copy.add(entry.getKey(), resolveAll(entry.getValue(), responses));
+            }
+            return copy;
+        }
+        if (element.isJsonArray()) {
+            JsonArray copy = new JsonArray();
+            for (JsonElement item : element.getAsJsonArray()) {
+                copy.add(resolveAll(item, responses));
+            }
+            return copy;
+        }
+        if (element.isJsonPrimitive() && element.getAsJsonPrimitive().isString()) {
+            return resolve(element.getAsString(), responses);
+        }
+        return element;
+    }
+
+    /**
+     * "${t1.id}" alone gives the referenced value itself; inside a longer string it is
+     * substituted as text.
+     */
+    private static JsonElement resolve(String value, Map<String, JsonElement> responses) {
+        Matcher matcher = REFERENCE.matcher(value);
+        if (matcher.matches()) {
+            return lookup(matcher.group(1), matcher.group(2), responses);
+        }
+        matcher.reset();
+        StringBuffer sb = new StringBuffer();
+        while (matcher.find()) {
+            JsonElement found = lookup(matcher.group(1), matcher.group(2), responses);
+            String text = found.isJsonPrimitive() ? found.getAsString() : found.toString();
+            matcher.appendReplacement(sb, Matcher.quoteReplacement(text));
+        }
+        matcher.appendTail(sb);
+        return new JsonPrimitive(sb.toString());
+    }
+
+    private static JsonElement lookup(String ref, String fieldPath, Map<String, JsonElement> responses) {
+        JsonElement current = responses.get(ref);
+        if (current == null) {
+            throw new IllegalArgumentException("Unknown reference: " + ref);
+        }
+        for (String field : fieldPath.substring(1).split("\\.")) {
+            if (!current.isJsonObject() || !current.getAsJsonObject().has(field)) {
+                throw new IllegalArgumentException("Unknown field in reference: " + ref + fieldPath);
+            }
+            current = current.getAsJsonObject().get(field);
+        }
+        return current;
+    }
+
+    private static String errorMessage(JsonObject failed) {
+        if (failed.has("error")) return failed.get("error").getAsString();
+        JsonElement body = failed.get("body");
+        if (body != null && body.isJsonObject() && body.getAsJsonObject().has("error")) {
+            return body.getAsJsonObject().get("error").getAsString();
+        }
+        return "Operation failed with status " + failed.get("status").getAsInt();
+    }
+
+    /**
+     * In-memory exchange handed to the router for one operation; the response is captured.
+     */
+    private static final class SubExchange extends HttpExchange {
+        private final HttpExchange parent;
+        private final String method;
+        private final URI uri;
+        private final Headers requestHeaders = new Headers();
+        private final Headers responseHeaders = new Headers();
+        private final ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        private InputStream requestBody;
+        private OutputStream responseBody = captured;
+        private final Map<String, Object> attributes = new HashMap<>();
+        // Reste à 500 si la route n'envoie jamais d'en-têtes
+        private int status = 500;
+
+        SubExchange(HttpExchange parent, String method, URI uri, byte[] body) {
+            this.parent = parent;
+            this.method = method;
+            this.uri = uri;
+            this.requestBody = new ByteArrayInputStream(body);
+            requestHeaders.set("Content-Type", "application/json; charset=UTF-8");
+        }
+
+        JsonElement body() {
+            String text = new String(captured.toByteArray(), StandardCharsets.UTF_8).trim();
+            if (text.isEmpty()) return JsonNull.INSTANCE;
+            try {
+                return JsonParser.parseString(text);
+            } catch (JsonParseException e) {
+                return new JsonPrimitive(text);
+            }
+        }
+
+        @Override public Headers getRequestHeaders() { return requestHeaders; }
+        @Override public Headers getResponseHeaders() { return responseHeaders; }
+        @Override public URI getRequestURI() { return uri; }
+        @Override public String getRequestMethod() { return method; }
+        @Override public HttpContext getHttpContext() { return parent.getHttpContext(); }
+        @Override public void close() { }
+        @Override public InputStream getRequestBody() { return requestBody; }
+        @Override public OutputStream getResponseBody() { return responseBody; }
+        @Override public void sendResponseHeaders(int rCode, long responseLength) { status = rCode; }
+        @Override public InetSocketAddress getRemoteAddress() { return parent.getRemoteAddress(); }
+        @Override public int getResponseCode() { return status; }
+        @Override public InetSocketAddress getLocalAddress() { return parent.getLocalAddress(); }
+        @Override public String getProtocol() { return parent.getProtocol(); }
+        @Override public Object getAttribute(String name) { return attributes.get(name); }
+        @Override public void setAttribute(String name, Object value) { attributes.put(name, value); }
+        @Override public HttpPrincipal getPrincipal() { return parent.getPrincipal(); }
+
+        @Override
+        public void setStreams(InputStream i, OutputStream o) {
+            if (i != null) requestBody = i;
+            if (o != null) responseBody = o;
+        }
+    }
+}
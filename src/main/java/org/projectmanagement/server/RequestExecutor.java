@@ -0,0 +1,191 @@
+package org.projectmanagement.server;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor used by the HttpServer to run exchange handlers.
+ * Every mode keeps the same counters (queued, active, completed, caller-runs)
+ * so the pool can be sized from /api/server/stats.
+ */
+public class RequestExecutor implements Executor {
+    private static final Logger logger = LoggerFactory.getLogger(RequestExecutor.class);
+
+    public enum Mode {
+        SINGLE,   // legacy: handlers run on the HttpServer dispatcher thread
+        POOL,     // bounded platform thread pool with a bounded queue
+        VIRTUAL   // one virtual thread per request (JDK 21+)
+    }
+
+    private final Mode mode;
+    private final ExecutorService delegate;
+    private final int maxThreads;
+    private final int queueCapacity;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peakActive = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong callerRuns;
+
+    private RequestExecutor(Mode mode, ExecutorService delegate, int maxThreads, int queueCapacity,
+                            AtomicLong callerRuns) {
+        this.mode = mode;
+        this.delegate = delegate;
+        this.maxThreads = maxThreads;
+        this.queueCapacity = queueCapacity;
+        this.callerRuns = callerRuns;
+    }
+
+    public static RequestExecutor single() {
+        return new RequestExecutor(Mode.SINGLE, null, 1, 0, new AtomicLong());
+    }
+
+    /**
+     * Bounded pool. When the queue is full the dispatcher thread runs the handler itself,
+     * which stops it from accepting new connections until a worker frees up (back-pressure).
+     */
+    public static RequestExecutor pool(int threads, int queueCapacity) {
+        AtomicLong callerRuns = new AtomicLong();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+            threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+            namedThreads("http-worker-"),
+            (task, exec) -> {
+                callerRuns.incrementAndGet();
+                if (!exec.isShutdown()) {
+                    task.run();
+                }
+            });
+        pool.allowCoreThreadTimeOut(true);
+        return new RequestExecutor(Mode.POOL, pool, threads, queueCapacity, callerRuns);
+    }
+
+    /**
+     * One virtual thread per request. Virtual threads need JDK 21; on older runtimes
+     * this falls back to an unbounded cached pool of platform threads.
+     */
+    public static RequestExecutor virtual() {
+        ExecutorService service;
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            service = (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            logger.warn("Virtual threads are not available on Java {}, using a cached thread pool instead",
+                System.getProperty("java.version"));
+            service = Executors.newCachedThreadPool(namedThreads("http-request-"));
+        }
+        return new RequestExecutor(Mode.VIRTUAL, service, Integer.MAX_VALUE, 0, new AtomicLong());
+    }
+
+    public static RequestExecutor create(String mode, int threads, int queueCapacity) {
+        switch (mode == null ? "" : mode.toLowerCase()) {
+            case "single":
+                return single();
+            case "virtual":
+                return virtual();
+            case "pool":
+                return pool(threads, queueCapacity);
+            default:
+                logger.warn("Unknown executor mode '{}', using pool", mode);
+                return pool(threads, queueCapacity);
+        }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (delegate == null) {
+            run(command);
+            return;
+        }
+        queued.incrementAndGet();
+        delegate.execute(() -> {
+            queued.decrementAndGet();
+            run(command);
+        });
+    }
+
+    private void run(Runnable command) {
+        int now = active.incrementAndGet();
+        peakActive.accumulateAndGet(now, Math::max);
+        try {
+            command.run();
+        } finally {
+            active.decrementAndGet();
+            completed.incrementAndGet();
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    public int getPeakActiveCount() {
+        return peakActive.get();
+    }
+
+    public long getCompletedCount() {
+        return completed.get();
+    }
+
+    public long getCallerRunsCount() {
+        return callerRuns.get();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mode", mode.name());
+        stats.put("maxThreads", maxThreads == Integer.MAX_VALUE ? -1 : maxThreads);
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("queueDepth", getQueueDepth());
+        stats.put("activeHandlers", getActiveCount());
+        stats.put("peakActiveHandlers", getPeakActiveCount());
+        stats.put("completedRequests", getCompletedCount());
+        stats.put("callerRuns", getCallerRunsCount());
+        return stats;
+    }
+
+    public void shutdown() {
+        if (delegate != null) {
+            delegate.shutdown();
+            try {
+                if (!delegate.awaitTermination(5, TimeUnit.SECONDS)) {
+                    delegate.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                delegate.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
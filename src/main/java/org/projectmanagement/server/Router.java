@@ -0,0 +1,287 @@
+package org.projectmanagement.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Path-template router for the REST API.
+ * Templates such as "/api/members/{id:int}/skills/{skillId:int}" are compiled once into a
+ * segment trie. Matching walks the raw path string by index: no regex, no split().
+ * Literal segments win over parameters; an unknown path gives 404, a known path with
+ * the wrong method gives 405 with an Allow header. Paths whose effect escapes the caller's
+ * transaction are marked with excludeFromBatch() and refused by /api/batch (isBatchable()).
+ */
+public class Router implements HttpHandler {
+
+    @FunctionalInterface
+    public interface Route {
+        void handle(HttpExchange exchange, PathParams params) throws Exception;
+    }
+
+    /** Called for every request before routing (CORS headers...). */
+    @FunctionalInterface
+    public interface Filter {
+        void apply(HttpExchange exchange) throws IOException;
+    }
+
+    /** Called when a route throws. */
+    @FunctionalInterface
+    public interface ErrorHandler {
+        void handle(HttpExchange exchange, Exception e) throws IOException;
+    }
+
+    private enum ParamType { INT, STRING }
+
+    private static final int MAX_PARAMS = 4;
+
+    private final Node root = new Node();
+    private final Filter filter;
+    private final ErrorHandler errorHandler;
+
+    public Router(Filter filter, ErrorHandler errorHandler) {
+        this.filter = filter;
+        this.errorHandler = errorHandler;
+    }
+
+    public Router get(String template, Route route) {
+        return add("GET", template, route);
+    }
+
+    public Router post(String template, Route route) {
+        return add("POST", template, route);
+    }
+
+    public Router put(String template, Route route) {
+        return add("PUT", template, route);
+    }
+
+    public Router delete(String template, Route route) {
+        return add("DELETE", template, route);
+    }
+
+    public synchronized Router add(String method, String template, Route route) {
+        List<String> names = new ArrayList<>();
+        Node node = node(template, names);
+        if (names.size() > MAX_PARAMS) {
+            throw new IllegalArgumentException("Too many path parameters in " + template);
+        }
+        if (node.routes.containsKey(method)) {
+            throw new IllegalArgumentException("Duplicate route " + method + " " + template);
+        }
+        node.routes.put(method, new Endpoint(route, names.toArray(new String[0])));
+        node.allow = String.join(", ", node.routes.keySet()) + ", OPTIONS";
+        return this;
+    }
+
+    /** Every method of this path is refused inside /api/batch. */
+    public synchronized Router excludeFromBatch(String template) {
+        node(template, new ArrayList<>()).batchable = false;
+        return this;
+    }
+
+    /**
+     * False when the path matches a route excluded from batches. Matched like handle() does
+     * (repeated '/' skipped...), so the check cannot be bypassed by spelling the path differently.
+     */
+    public boolean isBatchable(String path) {
+        Node node = match(root, path, 0, new PathParams());
+        return node == null || node.batchable;
+    }
+
+    /** Node of a template, created as needed; the parameter names are added to names. */
+    private Node node(String template, List<String> names) {
+        Node node = root;
+        int pos = 0;
+        int length = template.length();
+        while (pos < length) {
+            if (template.charAt(pos) == '/') {
+                pos++;
+                continue;
+            }
+            int end = template.indexOf('/', pos);
+            if (end < 0) end = length;
+            String segment = template.substring(pos, end);
+            if (segment.startsWith("{") && segment.endsWith("}")) {
+                String spec = segment.substring(1, segment.length() - 1);
+                int colon = spec.indexOf(':');
+                String name = colon >= 0 ? spec.substring(0, colon) : spec;
+                ParamType type = colon >= 0 && "int".equals(spec.substring(colon + 1)) ? ParamType.INT : ParamType.STRING;
+                node = node.paramChild(name, type, template);
+                names.add(name);
+            } else {
+                node = node.literalChild(segment);
+            }
+            pos = end;
+        }
+        return node;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            filter.apply(exchange);
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+
+            PathParams params = new PathParams();
+            Node node = match(root, path, 0, params);
+            if (node == null || node.routes.isEmpty()) {
+                sendStatus(exchange, 404, "{\"success\":false,\"error\":\"Not found\"}");
+                return;
+            }
+            if ("OPTIONS".equals(method)) {
+                exchange.getResponseHeaders().set("Allow", node.allow);
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+                return;
+            }
+            Endpoint endpoint = node.routes.get(method);
+            if (endpoint == null) {
+                exchange.getResponseHeaders().set("Allow", node.allow);
+                sendStatus(exchange, 405, "{\"success\":false,\"error\":\"Method not allowed\"}");
+                return;
+            }
+            params.names = endpoint.names;
+            try {
+                endpoint.route.handle(exchange, params);
+            } catch (Exception e) {
+                errorHandler.handle(exchange, e);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Node match(Node node, String path, int pos, PathParams params) {
+        int length = path.length();
+        while (pos < length && path.charAt(pos) == '/') pos++;
+        if (pos >= length) {
+            return node;
+        }
+        int end = path.indexOf('/', pos);
+        if (end < 0) end = length;
+
+        for (Node child : node.literals) {
+            if (child.literal.length() == end - pos && path.regionMatches(pos, child.literal, 0, end - pos)) {
+                Node found = match(child, path, end, params);
+                if (found != null) return found;
+            }
+        }
+
+        Node param = node.param;
+        if (param != null && params.count < MAX_PARAMS) {
+            int index = params.count;
+            if (param.paramType == ParamType.INT) {
+                if (!parseInt(path, pos, end, params, index)) return null;
+            } else {
+                params.strings[index] = path.substring(pos, end);
+            }
+            params.count++;
+            Node found = match(param, path, end, params);
+            if (found != null) return found;
+            params.count--;
+        }
+        return null;
+    }
+
+    private static boolean parseInt(String path, int start, int end, PathParams params, int index) {
+        if (end - start > 9) return false;
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = path.charAt(i);
+            if (c < '0' || c > '9') return false;
+            value = value * 10 + (c - '0');
+        }
+        params.ints[index] = value;
+        params.strings[index] = null;
+        return true;
+    }
+
+    private static void sendStatus(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes("UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static final class Endpoint {
+        final Route route;
+        final String[] names;
+
+        Endpoint(Route route, String[] names) {
+            this.route = route;
+            this.names = names;
+        }
+    }
+
+    private static final class Node {
+        String literal;
+        String paramName;
+        ParamType paramType;
+        Node[] literals = new Node[0];
+        Node param;
+        final Map<String, Endpoint> routes = new LinkedHashMap<>();
+        String allow = "OPTIONS";
+        boolean batchable = true;
+
+        Node literalChild(String segment) {
+            for (Node child : literals) {
+                if (child.literal.equals(segment)) return child;
+            }
+            Node child = new Node();
+            child.literal = segment;
+            literals = Arrays.copyOf(literals, literals.length + 1);
+            literals[literals.length - 1] = child;
+            return child;
+        }
+
+        Node paramChild(String name, ParamType type, String template) {
+            if (param != null) {
+                if (param.paramType != type) {
+                    throw new IllegalArgumentException("Conflicting parameter types in " + template);
+                }
+                return param;
+            }
+            param = new Node();
+            param.paramName = name;
+            param.paramType = type;
+            return param;
+        }
+    }
+
+    /**
+     * Values captured from the path, in template order.
+     */
+    public static final class PathParams {
+        private final int[] ints = new int[MAX_PARAMS];
+        private final String[] strings = new String[MAX_PARAMS];
+        private String[] names;
+        private int count;
+
+        private int indexOf(String name) {
+            for (int i = 0; i < count; i++) {
+                if (names[i].equals(name)) return i;
+            }
+            throw new IllegalArgumentException("Unknown path parameter: " + name);
+        }
+
+        public int getInt(String name) {
+            int i = indexOf(name);
+            if (strings[i] != null) {
+                return Integer.parseInt(strings[i]);
+            }
+            return ints[i];
+        }
+
+        public String get(String name) {
+            int i = indexOf(name);
+            return strings[i] != null ? strings[i] : String.valueOf(ints[i]);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package org.projectmanagement.server;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves the webapp/ folder from memory.
+ * Files are loaded once (from disk when the source tree is present, otherwise from the classpath),
+ * gzip-compressed up front and answered with a strong ETag so browsers can revalidate with a 304.
+ */
+public class StaticAssets implements HttpHandler {
+    private static final Logger logger = LoggerFactory.getLogger(StaticAssets.class);
+
+    private final Path diskRoot;
+    private final String classpathRoot;
+    private final int maxAgeSeconds;
+    private volatile Map<String, Asset> assets = Collections.emptyMap();
+
+    public StaticAssets(String diskRoot, String classpathRoot, int maxAgeSeconds) {
+        Path dir = Paths.get(diskRoot);
+        this.diskRoot = Files.isDirectory(dir) ? dir : null;
+        this.classpathRoot = classpathRoot;
+        this.maxAgeSeconds = maxAgeSeconds;
+    }
+
+    /**
+     * (Re)loads every file of the webapp folder. The new map is swapped in atomically,
+     * so requests in flight keep serving the previous version.
+     */
+    public synchronized void load() throws IOException {
+        Map<String, Asset> loaded = new HashMap<>();
+        if (diskRoot != null) {
+            loadTree(diskRoot, loaded);
+            logger.info("Loaded {} static assets from {}", loaded.size(), diskRoot.toAbsolutePath());
+        } else {
+            URL url = StaticAssets.class.getClassLoader().getResource(classpathRoot);
+            if (url == null) {
+                throw new IOException("Static assets not found on disk or classpath: " + classpathRoot);
+            }
+            try {
+                URI uri = url.toURI();
+                if ("jar".equals(uri.getScheme())) {
+                    try (FileSystem fs = FileSystems.newFileSystem(uri, Collections.emptyMap())) {
+                        loadTree(fs.getPath(classpathRoot), loaded);
+                    }
+                } else {
+                    loadTree(Paths.get(uri), loaded);
+                }
+            } catch (java.net.URISyntaxException e) {
+                throw new IOException("Invalid classpath location for static assets: " + url, e);
+            }
+            logger.info("Loaded {} static assets from classpath:{}", loaded.size(), classpathRoot);
+        }
+        assets = loaded;
+    }
+
+    private void loadTree(Path root, Map<String, Asset> target) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                String path = "/" + root.relativize(file).toString().replace('\\', '/');
+                target.put(path, new Asset(path, Files.readAllBytes(file), maxAgeSeconds));
+            }
+        }
+    }
+
+    /**
+     * Dev mode: reloads all assets when something under the disk root changes.
+     * Does nothing when the assets come from the classpath.
+     */
+    public void watch() {
+        if (diskRoot == null) {
+            logger.warn("Static asset watch requested but assets are not loaded from disk");
+            return;
+        }
+        Thread watcher = new Thread(() -> {
+            try (WatchService ws = diskRoot.getFileSystem().newWatchService()) {
+                registerAll(diskRoot, ws);
+                while (!Thread.currentThread().isInterrupted()) {
+                    WatchKey key = ws.take();
+                    key.pollEvents();
+                    key.reset();
+                    // Les éditeurs écrivent souvent en plusieurs étapes : attendre un peu
+                    Thread.sleep(100);
+                    try {
+                        load();
+                        registerAll(diskRoot, ws);
+                    } catch (IOException e) {
+                        logger.warn("Static asset reload failed, keeping previous version", e);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                logger.error("Static asset watcher stopped", e);
+            }
+        }, "static-assets-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        logger.info("Watching {} for changes", diskRoot.toAbsolutePath());
+    }
+
+    private void registerAll(Path root, WatchService ws) throws IOException {
+        try (Stream<Path> dirs = Files.walk(root)) {
+            for (Path dir : (Iterable<Path>) dirs.filter(Files::isDirectory)::iterator) {
+                dir.register(ws, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        }
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                exchange.getResponseHeaders().add("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals("/")) path = "/index.html";
+
+            Asset asset = assets.get(path);
+            if (asset == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            // Chaque encodage a son propre ETag (une représentation = un ETag fort)
+            boolean gzip = asset.gzip != null && acceptsGzip(exchange.getRequestHeaders());
+            String etag = gzip ? asset.gzipEtag : asset.etag;
+
+            Headers headers = exchange.getResponseHeaders();
+            headers.add("Content-Type", asset.contentType);
+            headers.add("ETag", etag);
+            headers.add("Cache-Control", asset.cacheControl);
+            headers.add("Vary", "Accept-Encoding");
+
+            if (matches(exchange.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+
+            byte[] body = asset.raw;
+            if (gzip) {
+                body = asset.gzip;
+                headers.add("Content-Encoding", "gzip");
+            }
+
+            if ("HEAD".equals(method)) {
+                headers.add("Content-Length", String.valueOf(body.length));
+                exchange.sendResponseHeaders(200, -1);
+            } else {
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals(etag) || tag.equals("*")) return true;
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(Headers requestHeaders) {
+        String accept = requestHeaders.getFirst("Accept-Encoding");
+        return accept != null && accept.contains("gzip");
+    }
+
+    private static final class Asset {
+        final byte[] raw;
+        final byte[] gzip;
+        final String etag;
+        final String gzipEtag;
+        final String contentType;
+        final String cacheControl;
+
+        Asset(String path, byte[] raw, int maxAgeSeconds) throws IOException {
+            this.raw = raw;
+            this.contentType = contentType(path);
+            String hash = sha256(raw);
+            this.etag = "\"" + hash + "\"";
+            this.gzipEtag = "\"" + hash + "-gz\"";
+            // index.html n'est pas versionné : toujours revalider
+            this.cacheControl = path.endsWith(".html") ? "no-cache" : "public, max-age=" + maxAgeSeconds;
+            byte[] compressed = gzip(raw);
+            this.gzip = compressed.length < raw.length ? compressed : null;
+        }
+
+        private static String contentType(String path) {
+            if (path.endsWith(".html")) return "text/html; charset=UTF-8";
+            if (path.endsWith(".css")) return "text/css; charset=UTF-8";
+            if (path.endsWith(".js")) return "application/javascript; charset=UTF-8";
+            if (path.endsWith(".json")) return "application/json; charset=UTF-8";
+            if (path.endsWith(".svg")) return "image/svg+xml";
+            if (path.endsWith(".png")) return "image/png";
+            if (path.endsWith(".ico")) return "image/x-icon";
+            return "text/plain";
+        }
+
+        private static byte[] gzip(byte[] data) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 64);
+            try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+                gz.write(data);
+            }
+            return out.toByteArray();
+        }
+
+        private static String sha256(byte[] data) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+                StringBuilder sb = new StringBuilder(32);
+                for (int i = 0; i < 16; i++) {
+                    sb.append(String.format("%02x", digest[i]));
+                }
+                return sb.toString();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.projectmanagement.service;
+
+import org.projectmanagement.util.ServerConfig;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes allocation runs per project inside this JVM: two runs of the same project would
+ * both read the same unassigned tasks and assign them twice. Locks are striped by project
+ * id (allocation.lockStripes), so runs of different projects proceed in parallel unless two
+ * ids share a stripe. The lock covers the whole run, from the first read to the commit of
+ * the plan, so the next run of the project sees every assignment of the previous one.
+ */
+final class AllocationCoordinator {
+    private static final ReentrantLock[] STRIPES = createStripes(ServerConfig.getInt("allocation.lockStripes", 64));
+
+    private AllocationCoordinator() {
+    }
+
+    /** The lock guarding allocation runs of this project (fair: runs go in arrival order). */
+    static ReentrantLock lockFor(int projectId) {
+        return STRIPES[Math.floorMod(Integer.hashCode(projectId) * 0x9E3779B9, STRIPES.length)];
+    }
+
+    private static ReentrantLock[] createStripes(int count) {
+        ReentrantLock[] stripes = new ReentrantLock[Math.max(1, count)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock(true);
+        }
+        return stripes;
+    }
+}
@@ -0,0 +1,221 @@
+package org.projectmanagement.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One allocation run submitted to AllocationJobs. The worker thread updates the counters
+ * through the AllocationProgress callbacks; HTTP threads read them with snapshot().
+ * Every change bumps a version, so a stream only writes when something moved.
+ */
+public final class AllocationJob implements AllocationProgress {
+    private static final Logger logger = LoggerFactory.getLogger(AllocationJob.class);
+
+    public enum State { QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED }
+
+    private final int id;
+    private final int projectId;
+    private final TaskAllocationService.Engine engine;
+    private final long createdAt = System.currentTimeMillis();
+
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicInteger evaluated = new AtomicInteger();
+    private final AtomicInteger assigned = new AtomicInteger();
+    private final AtomicInteger rebalanced = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    // Demandes identiques rattachées à ce job pendant son attente
+    private final AtomicInteger coalescedRequests = new AtomicInteger();
+    private volatile State state = State.QUEUED;
+    private volatile Phase phase;
+    private volatile int total;
+    private volatile boolean cancelRequested;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile TaskAllocationService.AllocationResult result;
+    private volatile String error;
+    private volatile Future<?> future;
+
+    AllocationJob(int id, int projectId, TaskAllocationService.Engine engine) {
+        this.id = id;
+        this.projectId = projectId;
+        this.engine = engine;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public int getProjectId() {
+        return projectId;
+    }
+
+    public TaskAllocationService.Engine getEngine() {
+        return engine;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isDone() {
+        State s = state;
+        return s == State.SUCCEEDED || s == State.FAILED || s == State.CANCELLED;
+    }
+
+    /** Increases with every change of state or progress. */
+    public long getVersion() {
+        return version.get();
+    }
+
+    long getFinishedAt() {
+        return finishedAt;
+    }
+
+    /** Null until the job has succeeded. */
+    public TaskAllocationService.AllocationResult getResult() {
+        return result;
+    }
+
+    /**
+     * Asks the job to stop. A queued job is dropped at once; a running one stops at its
+     * next task, before anything is written. Returns false when the job had already ended.
+     */
+    public boolean cancel() {
+        synchronized (this) {
+            if (isDone()) return false;
+            cancelRequested = true;
+            if (state == State.QUEUED) {
+                Future<?> f = future;
+                if (f != null) f.cancel(false);
+                finish(State.CANCELLED, null, "Allocation cancelled");
+            }
+        }
+        version.incrementAndGet();
+        return true;
+    }
+
+    void coalesced() {
+        coalescedRequests.incrementAndGet();
+        version.incrementAndGet();
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    /** Runs the allocation on the calling (worker) thread. */
+    void run(TaskAllocationService service) {
+        synchronized (this) {
+            if (state != State.QUEUED) return;
+            state = State.RUNNING;
+            startedAt = System.currentTimeMillis();
+        }
+        version.incrementAndGet();
+        try {
+            TaskAllocationService.AllocationResult r = service.allocateTasks(projectId, engine, this);
+            finish(State.SUCCEEDED, r, null);
+        } catch (CancellationException e) {
+            logger.info("Allocation job {} (project {}) cancelled", id, projectId);
+            finish(State.CANCELLED, null, "Allocation cancelled");
+        } catch (Exception e) {
+            logger.error("Allocation job {} (project {}) failed", id, projectId, e);
+            finish(State.FAILED, null, e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+    }
+
+    private synchronized void finish(State finalState, TaskAllocationService.AllocationResult r, String message) {
+        result = r;
+        error = message;
+        finishedAt = System.currentTimeMillis();
+        state = finalState;
+        version.incrementAndGet();
+    }
+
+    // ==================== AllocationProgress ====================
+
+    @Override
+    public void phase(Phase phase, int total) {
+        this.phase = phase;
+        this.total = total;
+        evaluated.set(0);
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void evaluated() {
+        evaluated.incrementAndGet();
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void assigned() {
+        assigned.incrementAndGet();
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void rebalanced() {
+        rebalanced.incrementAndGet();
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void failed() {
+        failed.incrementAndGet();
+        version.incrementAndGet();
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelRequested;
+    }
+
+    /** Current state as a JSON-ready map; the result is included once the job succeeded. */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("jobId", id);
+        map.put("projectId", projectId);
+        map.put("engine", engine);
+        map.put("state", state);
+        map.put("phase", phase);
+        map.put("total", total);
+        map.put("evaluated", evaluated.get());
+        map.put("assigned", assigned.get());
+        map.put("rebalanced", rebalanced.get());
+        map.put("failed", failed.get());
+        map.put("cancelRequested", cancelRequested);
+        map.put("coalescedRequests", coalescedRequests.get());
+        map.put("createdAt", createdAt);
+        if (startedAt > 0) map.put("startedAt", startedAt);
+        if (finishedAt > 0) map.put("finishedAt", finishedAt);
+        if (error != null) map.put("error", error);
+        TaskAllocationService.AllocationResult r = result;
+        if (r != null) {
+            map.put("result", resultMap(r));
+        }
+        return map;
+    }
+
+    /** Body of the former synchronous /api/allocate response. */
+    public static Map<String, Object> resultMap(TaskAllocationService.AllocationResult result) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("success", result.getAssignedCount() > 0);
+        map.put("assignedCount", result.getAssignedCount());
+        map.put("failedCount", result.getFailedCount());
+        map.put("message", result.getMessage());
+        map.put("engine", result.getEngine());
+        map.put("objective", result.getObjective());
+        map.put("planningMillis", result.getPlanningMillis());
+        map.put("fallbackCount", result.getFallbackCount());
+        map.put("staleCount", result.getStaleCount());
+        map.put("rebalance", result.getRebalance().toMap());
+        return map;
+    }
+}
@@ -0,0 +1,148 @@
+package org.projectmanagement.service;
+
+import org.projectmanagement.util.ServerConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs allocations as background jobs so that an HTTP request only submits the work and
+ * returns a job id. Jobs run on a small dedicated pool with a bounded queue: when it is
+ * full, submit() is refused instead of piling up runs. A request for a project that
+ * already has a job waiting with the same engine joins that job: the run has not read
+ * anything yet, so it covers both requests. Finished jobs are kept for
+ * allocation.jobs.retainSeconds so clients can still read their result.
+ */
+public final class AllocationJobs {
+    private static final Logger logger = LoggerFactory.getLogger(AllocationJobs.class);
+
+    private static final AllocationJobs INSTANCE = new AllocationJobs(
+        ServerConfig.getInt("allocation.jobs.threads", 2),
+        ServerConfig.getInt("allocation.jobs.queueCapacity", 16),
+        ServerConfig.getInt("allocation.jobs.retainSeconds", 600));
+
+    private final ThreadPoolExecutor executor;
+    private final long retainMillis;
+    private final Map<Integer, AllocationJob> jobs = new ConcurrentHashMap<>();
+    // Job en attente par "projet:moteur", retiré quand il démarre
+    private final Map<String, AllocationJob> waiting = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    AllocationJobs(int threads, int queueCapacity, int retainSeconds) {
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+            runnable -> {
+                Thread thread = new Thread(runnable, "allocation-job-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.retainMillis = retainSeconds * 1000L;
+    }
+
+    public static AllocationJobs getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Queues an allocation of the project, or returns the job already waiting for it.
+     * Throws RejectedExecutionException when the queue is full (the caller answers 503).
+     */
+    public AllocationJob submit(int projectId, TaskAllocationService.Engine engine) {
+        purgeFinished();
+        String key = projectId + ":" + engine;
+        synchronized (waiting) {
+            AllocationJob pending = waiting.get(key);
+            if (pending != null && pending.getState() == AllocationJob.State.QUEUED && !pending.isCancelled()) {
+                pending.coalesced();
+                logger.info("Allocation request for project {} joined waiting job {}", projectId, pending.getId());
+                return pending;
+            }
+            AllocationJob job = new AllocationJob(nextId.incrementAndGet(), projectId, engine);
+            jobs.put(job.getId(), job);
+            waiting.put(key, job);
+            try {
+                job.setFuture(executor.submit(() -> {
+                    // Démarré : les demandes suivantes créent un nouveau job (sous le verrou,
+                    // une demande rattachée l'est toujours avant la première lecture)
+                    synchronized (waiting) {
+                        waiting.remove(key, job);
+                    }
+                    job.run(new TaskAllocationService());
+                }));
+            } catch (RejectedExecutionException e) {
+                jobs.remove(job.getId());
+                waiting.remove(key, job);
+                logger.warn("Allocation queue full, refusing job for project {}", projectId);
+                throw e;
+            }
+            logger.info("Queued allocation job {} for project {} (engine: {})", job.getId(), projectId, engine);
+            return job;
+        }
+    }
+
+    /** The job, or null when it is unknown or was purged. */
+    public AllocationJob get(int jobId) {
+        return jobs.get(jobId);
+    }
+
+    /**
+     * Cancels a job (see AllocationJob.cancel) and frees its queue slot when it had not
+     * started. Returns false when the job is unknown or already finished.
+     */
+    public boolean cancel(int jobId) {
+        AllocationJob job = jobs.get(jobId);
+        if (job == null || !job.cancel()) return false;
+        executor.purge();
+        return true;
+    }
+
+    /** Known jobs, most recent first. */
+    public List<AllocationJob> list() {
+        List<AllocationJob> list = new ArrayList<>(jobs.values());
+        list.sort(Comparator.comparingInt(AllocationJob::getId).reversed());
+        return list;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /** Cancels the queued and running jobs, stops the pool and frees the allocation leases. */
+    public void shutdown() {
+        for (AllocationJob job : jobs.values()) {
+            job.cancel();
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        AllocationLeases.getInstance().shutdown();
+    }
+
+    private void purgeFinished() {
+        long cutoff = System.currentTimeMillis() - retainMillis;
+        jobs.values().removeIf(job -> job.isDone() && job.getFinishedAt() < cutoff);
+    }
+}
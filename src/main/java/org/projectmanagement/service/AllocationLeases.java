@@ -0,0 +1,168 @@
+package org.projectmanagement.service;
+
+import org.projectmanagement.dao.LeaseDAO;
+import org.projectmanagement.util.ServerConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.InetAddress;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cross-node guard of allocation runs: before allocating a project, a node takes the
+ * project's lease in MySQL (LeaseDAO) and a background thread renews it every third of
+ * the TTL while the run lasts. If the node dies the lease simply expires and another node
+ * takes it over with a higher token; the plan of the dead or stalled node is then refused
+ * by the fence check made in its write transaction. allocation.lease.enabled=false turns
+ * the whole mechanism off for single-node setups.
+ */
+final class AllocationLeases {
+    private static final Logger logger = LoggerFactory.getLogger(AllocationLeases.class);
+
+    private static final AllocationLeases INSTANCE = new AllocationLeases(
+        ServerConfig.getBoolean("allocation.lease.enabled", true),
+        ServerConfig.getString("server.nodeId", defaultNodeId()),
+        ServerConfig.getLong("allocation.lease.ttlMillis", 30000),
+        ServerConfig.getLong("allocation.lease.waitMillis", 120000),
+        ServerConfig.getLong("allocation.lease.retryMillis", 250));
+
+    private final boolean enabled;
+    private final String nodeId;
+    private final long ttlMillis;
+    private final long waitMillis;
+    private final long retryMillis;
+    private final LeaseDAO leaseDAO = new LeaseDAO();
+    private final Map<Integer, LeaseDAO.Lease> held = new ConcurrentHashMap<>();
+    private ScheduledExecutorService renewer;
+
+    AllocationLeases(boolean enabled, String nodeId, long ttlMillis, long waitMillis, long retryMillis) {
+        this.enabled = enabled;
+        this.nodeId = nodeId;
+        this.ttlMillis = ttlMillis;
+        this.waitMillis = waitMillis;
+        this.retryMillis = retryMillis;
+    }
+
+    static AllocationLeases getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Waits (up to allocation.lease.waitMillis) until this node holds the project's lease.
+     * Returns null when leases are disabled.
+     */
+    LeaseDAO.Lease acquire(int projectId, AllocationProgress progress) throws SQLException {
+        if (!enabled) return null;
+        long deadline = System.currentTimeMillis() + waitMillis;
+        while (true) {
+            LeaseDAO.Lease lease = tryAcquire(projectId);
+            if (lease != null) {
+                return lease;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                throw new IllegalStateException("Project " + projectId + " is being allocated by another server, retry later");
+            }
+            if (progress.isCancelled()) {
+                throw new CancellationException("Allocation cancelled");
+            }
+            try {
+                Thread.sleep(retryMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for the allocation lease");
+            }
+        }
+    }
+
+    /**
+     * Single attempt, for callers that would rather skip a busy project than wait: null when
+     * another node holds the lease. Only meaningful when isEnabled().
+     */
+    LeaseDAO.Lease tryAcquire(int projectId) throws SQLException {
+        LeaseDAO.Lease lease = leaseDAO.tryAcquire(projectId, nodeId, ttlMillis);
+        if (lease != null) {
+            held.put(projectId, lease);
+            startRenewer();
+            logger.info("Node {} holds the allocation lease of project {} (token {})",
+                nodeId, projectId, lease.getToken());
+        }
+        return lease;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Stops renewing and frees the lease for the other nodes (best effort). */
+    void release(LeaseDAO.Lease lease) {
+        if (lease == null) return;
+        held.remove(lease.getProjectId(), lease);
+        try {
+            leaseDAO.release(lease);
+        } catch (SQLException e) {
+            // Le bail expirera de lui-même au bout du TTL
+            logger.warn("Could not release allocation lease of project {}: {}", lease.getProjectId(), e.getMessage());
+        }
+    }
+
+    /** Fails the current transaction when the lease was taken over (no-op when disabled). */
+    void checkFence(LeaseDAO.Lease lease) throws SQLException {
+        if (lease != null) {
+            leaseDAO.checkFence(lease);
+        }
+    }
+
+    private synchronized void startRenewer() {
+        if (renewer != null) return;
+        renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "allocation-lease-renewer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(100, ttlMillis / 3);
+        renewer.scheduleWithFixedDelay(this::renewAll, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private void renewAll() {
+        for (LeaseDAO.Lease lease : held.values()) {
+            try {
+                if (!leaseDAO.renew(lease, ttlMillis)) {
+                    // Repris par un autre nœud : l'écriture du plan sera refusée par le fence
+                    held.remove(lease.getProjectId(), lease);
+                    logger.warn("Allocation lease of project {} (token {}) was lost", lease.getProjectId(), lease.getToken());
+                }
+            } catch (SQLException e) {
+                logger.warn("Could not renew allocation lease of project {}: {}", lease.getProjectId(), e.getMessage());
+            }
+        }
+    }
+
+    /** Releases the leases still held (server shutdown). */
+    synchronized void shutdown() {
+        if (renewer != null) {
+            renewer.shutdownNow();
+            renewer = null;
+        }
+        for (LeaseDAO.Lease lease : held.values()) {
+            release(lease);
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        // Suffixe aléatoire : deux démarrages successifs ne partagent jamais un bail
+        return host + "-" + ProcessHandle.current().pid() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
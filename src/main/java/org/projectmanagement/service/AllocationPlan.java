@@ -0,0 +1,126 @@
+package org.projectmanagement.service;
+
+import org.projectmanagement.dao.AlertDAO;
+import org.projectmanagement.dao.LeaseDAO;
+import org.projectmanagement.dao.MemberDAO;
+import org.projectmanagement.dao.TaskDAO;
+import org.projectmanagement.model.Alert;
+import org.projectmanagement.model.Member;
+import org.projectmanagement.model.Task;
+import org.projectmanagement.util.DatabaseUtil;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Decisions of one allocation run, taken on the in-memory snapshot and written at the end
+ * in a single transaction: one batch of task updates, one batch of relative workload
+ * updates and one batch of alerts. A failure rolls the whole run back instead of leaving
+ * part of it applied. Tasks changed since the snapshot (assigned, unassigned or moved by
+ * hand, status changed, deleted) are left as they are and counted as stale.
+ */
+final class AllocationPlan {
+    /** A planned move: snapshot owner (null: unassigned) and status, last chosen member. */
+    private static final class Move {
+        final Integer fromId;
+        final Task.TaskStatus status;
+        final int toId;
+
+        Move(Integer fromId, Task.TaskStatus status, int toId) {
+            this.fromId = fromId;
+            this.status = status;
+            this.toId = toId;
+        }
+    }
+
+    // id de la tâche -> déplacement (dernière décision si une tâche est déplacée deux fois)
+    private final Map<Integer, Move> moves = new LinkedHashMap<>();
+    private final List<Alert> alerts = new ArrayList<>();
+
+    /**
+     * Gives the task to member "to", taking it from "from" when not null. The snapshot
+     * members and the task are updated at once, so later scores see the new workloads.
+     */
+    void assign(Task task, Member from, Member to) {
+        double hours = task.getEstimatedHours();
+        if (from != null) {
+            from.setCurrentWorkload(Math.max(0, from.getCurrentWorkload() - hours));
+        }
+        to.setCurrentWorkload(to.getCurrentWorkload() + hours);
+        // L'état attendu en base reste celui de l'instantané, même après plusieurs décisions
+        Move previous = moves.get(task.getId());
+        Integer fromId = previous != null ? previous.fromId : (from != null ? from.getId() : null);
+        Task.TaskStatus status = previous != null ? previous.status : task.getStatus();
+        moves.put(task.getId(), new Move(fromId, status, to.getId()));
+
+        if (task.getAssignedMember() == null) {
+            task.setAssignedMember(new Member());
+        }
+        task.getAssignedMember().setId(to.getId());
+        task.getAssignedMember().setName(to.getName());
+    }
+
+    void addAlert(Alert alert) {
+        alerts.add(alert);
+    }
+
+    int getAssignmentCount() {
+        return moves.size();
+    }
+
+    int getAlertCount() {
+        return alerts.size();
+    }
+
+    boolean isEmpty() {
+        return moves.isEmpty() && alerts.isEmpty();
+    }
+
+    /**
+     * Writes the plan in one transaction; nothing is written if any statement fails or if
+     * the allocation lease (null when leases are disabled) was taken over by another server.
+     * The planned tasks are locked first and only those still in their snapshot state
+     * (project, status, member) are moved; workloads follow the moves actually written.
+     * Returns the number of stale tasks skipped.
+     */
+    int apply(int projectId, LeaseDAO.Lease lease, TaskDAO taskDAO, MemberDAO memberDAO, AlertDAO alertDAO)
+            throws SQLException {
+        if (isEmpty()) return 0;
+        return DatabaseUtil.inTransaction(() -> {
+            AllocationLeases.getInstance().checkFence(lease);
+            Map<Integer, Task> current = taskDAO.lockForUpdate(moves.keySet());
+            Map<Integer, Integer> assignments = new LinkedHashMap<>();
+            Map<Integer, Double> workloadDeltas = new LinkedHashMap<>();
+            int stale = 0;
+            for (Map.Entry<Integer, Move> entry : moves.entrySet()) {
+                Move move = entry.getValue();
+                Task row = current.get(entry.getKey());
+                if (!unchanged(row, projectId, move)) {
+                    stale++;
+                    continue;
+                }
+                assignments.put(entry.getKey(), move.toId);
+                if (move.fromId != null) {
+                    workloadDeltas.merge(move.fromId, -row.getEstimatedHours(), Double::sum);
+                }
+                workloadDeltas.merge(move.toId, row.getEstimatedHours(), Double::sum);
+            }
+            taskDAO.assignTasks(projectId, assignments);
+            memberDAO.addWorkloads(workloadDeltas);
+            alertDAO.createAll(alerts);
+            return stale;
+        });
+    }
+
+    private static boolean unchanged(Task row, int projectId, Move move) {
+        if (row == null || row.getProjectId() != projectId || row.getStatus() != move.status) {
+            return false;
+        }
+        Integer memberId = row.getAssignedMember() != null ? row.getAssignedMember().getId() : null;
+        return Objects.equals(memberId, move.fromId);
+    }
+}
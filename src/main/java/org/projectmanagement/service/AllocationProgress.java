@@ -0,0 +1,35 @@
+package org.projectmanagement.service;
+
+/**
+ * Receives the progress of an allocation run and lets the caller stop it.
+ * Called from the allocating thread; cancellation is only honoured before the plan is
+ * written, so a cancelled run leaves the database untouched.
+ */
+public interface AllocationProgress {
+
+    enum Phase { LOADING, REBALANCING, PLANNING, ASSIGNING, APPLYING }
+
+    /** Used when nobody follows the run. */
+    AllocationProgress NONE = new AllocationProgress() { };
+
+    /** A new phase starts; total is the number of tasks it will evaluate (0 when unknown). */
+    default void phase(Phase phase, int total) {
+    }
+
+    /** One task was evaluated by the current phase. */
+    default void evaluated() {
+    }
+
+    default void assigned() {
+    }
+
+    default void rebalanced() {
+    }
+
+    default void failed() {
+    }
+
+    default boolean isCancelled() {
+        return false;
+    }
+}
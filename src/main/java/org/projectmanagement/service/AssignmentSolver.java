@@ -0,0 +1,285 @@
+package org.projectmanagement.service;
+
+import java.util.Arrays;
+
+/**
+ * Capacitated assignment solved as a min-cost flow: task -> member -> sink. A task can go to
+ * a member through an option with a fixed gain; a member accepts one task per slot, slot k
+ * carrying the gain of being its k-th new task (non-increasing, so slots fill in order).
+ * Every task also has an "unassigned" arc of gain 0. Tasks are added one at a time, in the
+ * given order, each with the shortest augmenting path from that task (Dijkstra with
+ * potentials, like the Hungarian method): the path may move earlier tasks to other members
+ * or drop them when that raises the total gain. After each task the plan is optimal for the
+ * tasks added so far, so a run cut short by the deadline still gives a usable prefix.
+ */
+final class AssignmentSolver {
+    // Gains en double convertis en coûts entiers (1e-6 près)
+    private static final double SCALE = 1_000_000;
+    private static final long INF = Long.MAX_VALUE / 4;
+
+    private final int taskCount;
+    private final int sink;
+
+    // Graphe résiduel en listes chaînées d'arcs (arc e et son inverse e ^ 1)
+    private int[] head;
+    private int[] next = new int[64];
+    private int[] to = new int[64];
+    private int[] capacity = new int[64];
+    private long[] cost = new long[64];
+    private int edgeCount;
+
+    // Arcs ajoutés avant solve() : options tâche -> membre et créneaux membre -> puits
+    private long[] optionGains = new long[16];
+    private int[] optionTasks = new int[16];
+    private int[] optionMembers = new int[16];
+    private int optionCount;
+    private long[] slotGains = new long[16];
+    private int[] slotMembers = new int[16];
+    private int slotCount;
+
+    private boolean complete;
+    private int placed;
+    private double objective;
+
+    AssignmentSolver(int taskCount, int memberCount) {
+        this.taskCount = taskCount;
+        this.sink = taskCount + memberCount;
+        this.head = new int[sink + 1];
+        Arrays.fill(head, -1);
+    }
+
+    /** Task may be given to member for this gain. */
+    void addOption(int task, int member, double gain) {
+        if (optionCount == optionTasks.length) {
+            optionTasks = Arrays.copyOf(optionTasks, optionCount * 2);
+            optionMembers = Arrays.copyOf(optionMembers, optionCount * 2);
+            optionGains = Arrays.copyOf(optionGains, optionCount * 2);
+        }
+        optionTasks[optionCount] = task;
+        optionMembers[optionCount] = member;
+        optionGains[optionCount++] = Math.round(gain * SCALE);
+    }
+
+    /** Next slot of a member; successive slots of a member must not have increasing gains. */
+    void addSlot(int member, double gain) {
+        if (slotCount == slotMembers.length) {
+            slotMembers = Arrays.copyOf(slotMembers, slotCount * 2);
+            slotGains = Arrays.copyOf(slotGains, slotCount * 2);
+        }
+        slotMembers[slotCount] = member;
+        slotGains[slotCount++] = Math.round(gain * SCALE);
+    }
+
+    /**
+     * Adds the tasks in index order until all are placed or deadlineNanos (System.nanoTime())
+     * passes. Returns the member of each task, -1 when unassigned or not reached.
+     */
+    int[] solve(long deadlineNanos) {
+        // Coûts rendus positifs : une tâche routée passe soit par une option et un créneau,
+        // soit par l'arc "non assignée" qui coûte la somme des deux constantes (gain 0)
+        long maxOption = 0;
+        for (int i = 0; i < optionCount; i++) maxOption = Math.max(maxOption, optionGains[i]);
+        long maxSlot = 0;
+        for (int i = 0; i < slotCount; i++) maxSlot = Math.max(maxSlot, slotGains[i]);
+
+        int[] optionEdges = new int[optionCount];
+        for (int i = 0; i < optionCount; i++) {
+            optionEdges[i] = addEdge(taskNode(optionTasks[i]), memberNode(optionMembers[i]), maxOption - optionGains[i]);
+        }
+        for (int i = 0; i < slotCount; i++) {
+            addEdge(memberNode(slotMembers[i]), sink, maxSlot - slotGains[i]);
+        }
+        for (int task = 0; task < taskCount; task++) {
+            addEdge(taskNode(task), sink, maxOption + maxSlot);
+        }
+
+        int nodes = sink + 1;
+        long[] dual = new long[nodes];
+        long[] dist = new long[nodes];
+        Arrays.fill(dist, INF);
+        int[] prevEdge = new int[nodes];
+        boolean[] visited = new boolean[nodes];
+        int[] touched = new int[nodes];
+        LongHeap heap = new LongHeap(nodes);
+
+        complete = true;
+        for (int task = 0; task < taskCount; task++) {
+            if (System.nanoTime() > deadlineNanos) {
+                complete = false;
+                break;
+            }
+            int start = taskNode(task);
+            shortestPath(start, dual, dist, prevEdge, visited, touched, heap);
+            for (int v = sink; v != start; v = to[prevEdge[v] ^ 1]) {
+                capacity[prevEdge[v]]--;
+                capacity[prevEdge[v] ^ 1]++;
+            }
+        }
+
+        int[] assignment = new int[taskCount];
+        Arrays.fill(assignment, -1);
+        placed = 0;
+        objective = 0;
+        for (int i = 0; i < optionCount; i++) {
+            if (capacity[optionEdges[i]] == 0) {
+                assignment[optionTasks[i]] = optionMembers[i];
+                placed++;
+                objective += optionGains[i] / SCALE;
+            }
+        }
+        for (int e = 0; e < edgeCount; e += 2) {
+            if (to[e] == sink && to[e ^ 1] >= taskCount && capacity[e] == 0) {
+                objective += (maxSlot - cost[e]) / SCALE;
+            }
+        }
+        return assignment;
+    }
+
+    /** False when the deadline stopped the search before it converged. */
+    boolean isComplete() {
+        return complete;
+    }
+
+    int getPlaced() {
+        return placed;
+    }
+
+    /** Total planned gain (options + slots) of the returned assignment. */
+    double getObjective() {
+        return objective;
+    }
+
+    /**
+     * Dijkstra from start on reduced costs, stopped when the sink is reached (always: the
+     * "unassigned" arc of start is free until start is routed). Potentials of the settled
+     * nodes are updated so every residual arc keeps a non-negative reduced cost.
+     */
+    private void shortestPath(int start, long[] dual, long[] dist, int[] prevEdge, boolean[] visited,
+                              int[] touched, LongHeap heap) {
+        int touchedCount = 0;
+        heap.clear();
+        dist[start] = 0;
+        touched[touchedCount++] = start;
+        heap.push(0, start);
+        while (!heap.isEmpty()) {
+            int v = heap.peekNode();
+            long d = heap.peekKey();
+            heap.pop();
+            if (visited[v] || d > dist[v]) continue;
+            visited[v] = true;
+            if (v == sink) break;
+            for (int e = head[v]; e >= 0; e = next[e]) {
+                if (capacity[e] == 0) continue;
+                int w = to[e];
+                long reduced = cost[e] - dual[w] + dual[v];
+                if (dist[w] - dist[v] > reduced) {
+                    if (dist[w] == INF) touched[touchedCount++] = w;
+                    dist[w] = dist[v] + reduced;
+                    prevEdge[w] = e;
+                    heap.push(dist[w], w);
+                }
+            }
+        }
+        // Seuls les nœuds atteints sont remis à zéro : la recherche reste locale
+        long reached = dist[sink];
+        for (int i = 0; i < touchedCount; i++) {
+            int v = touched[i];
+            if (visited[v]) dual[v] -= reached - dist[v];
+            dist[v] = INF;
+            visited[v] = false;
+        }
+    }
+
+    private int taskNode(int task) {
+        return task;
+    }
+
+    private int memberNode(int member) {
+        return taskCount + member;
+    }
+
+    private int addEdge(int from, int target, long edgeCost) {
+        if (edgeCount + 2 > to.length) {
+            int size = to.length * 2;
+            next = Arrays.copyOf(next, size);
+            to = Arrays.copyOf(to, size);
+            capacity = Arrays.copyOf(capacity, size);
+            cost = Arrays.copyOf(cost, size);
+        }
+        int e = edgeCount;
+        to[e] = target;
+        capacity[e] = 1;
+        cost[e] = edgeCost;
+        next[e] = head[from];
+        head[from] = e;
+        to[e + 1] = from;
+        capacity[e + 1] = 0;
+        cost[e + 1] = -edgeCost;
+        next[e + 1] = head[target];
+        head[target] = e + 1;
+        edgeCount += 2;
+        return e;
+    }
+
+    /** Binary min-heap of (key, node) pairs in primitive arrays. */
+    private static final class LongHeap {
+        private long[] keys;
+        private int[] nodes;
+        private int size;
+
+        LongHeap(int capacity) {
+            keys = new long[Math.max(16, capacity)];
+            nodes = new int[keys.length];
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        long peekKey() {
+            return keys[0];
+        }
+
+        int peekNode() {
+            return nodes[0];
+        }
+
+        void push(long key, int node) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                nodes = Arrays.copyOf(nodes, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) break;
+                keys[i] = keys[parent];
+                nodes[i] = nodes[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            nodes[i] = node;
+        }
+
+        void pop() {
+            long key = keys[--size];
+            int node = nodes[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+                if (keys[child] >= key) break;
+                keys[i] = keys[child];
+                nodes[i] = nodes[child];
+                i = child;
+            }
+            keys[i] = key;
+            nodes[i] = node;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package org.projectmanagement.service;
+
+import org.projectmanagement.model.Member;
+import org.projectmanagement.model.Task;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Week-by-week list scheduling of the open tasks of every project. Each member has
+ * weeklyAvailability hours per week (Monday to Friday); a task is placed on its member's
+ * weeks from the earliest time allowed by its startDate and by the planned finish of the
+ * tasks it depends on, and may spread over several weeks. Tasks whose dependencies are all
+ * placed wait in a priority queue (priority, then deadline, then id, like the task lists),
+ * so dependencies are handled in topological order and a dependency cycle is reported
+ * instead of looping. Unassigned tasks are planned at unassignedWeeklyHours per week without
+ * competing for anyone's capacity. Times are in weeks from the origin Monday (3.4 = Tuesday
+ * of the fourth week); everything is in arrays, nothing is read from MySQL here.
+ */
+final class CapacityScheduler {
+    private static final int WORK_DAYS = 5;
+    private static final double EPSILON = 1e-9;
+    private static final double NEVER = Double.POSITIVE_INFINITY;
+
+    private final LocalDate origin;
+    private final int horizonWeeks;
+    private final double unassignedWeeklyHours;
+
+    CapacityScheduler(LocalDate from, int horizonWeeks, double unassignedWeeklyHours) {
+        this.origin = from.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        this.horizonWeeks = Math.max(1, horizonWeeks);
+        this.unassignedWeeklyHours = unassignedWeeklyHours;
+    }
+
+    Schedule schedule(List<Member> members, List<Task> tasks) {
+        long start = System.nanoTime();
+        int n = tasks.size();
+
+        // Membres : ligne, capacité hebdomadaire, heures déjà planifiées par semaine
+        Map<Integer, Integer> rows = new HashMap<>(members.size() * 2);
+        double[] capacity = new double[members.size()];
+        for (int row = 0; row < members.size(); row++) {
+            rows.put(members.get(row).getId(), row);
+            capacity[row] = members.get(row).getWeeklyAvailability();
+        }
+        double[][] used = new double[members.size()][];
+        int[] firstFree = new int[members.size()];
+
+        Map<Integer, Integer> index = new HashMap<>(n * 2);
+        boolean[] open = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            index.put(tasks.get(i).getId(), i);
+            open[i] = tasks.get(i).getStatus() != Task.TaskStatus.COMPLETED;
+        }
+
+        // Successeurs en tableaux compacts (une tâche terminée ne retient personne)
+        int[] indegree = new int[n];
+        int[] successorStart = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            if (!open[i]) continue;
+            for (int j : predecessors(tasks.get(i), index, open, i)) {
+                successorStart[j + 1]++;
+                indegree[i]++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            successorStart[i + 1] += successorStart[i];
+        }
+        int[] successors = new int[successorStart[n]];
+        int[] fill = successorStart.clone();
+        for (int i = 0; i < n; i++) {
+            if (!open[i]) continue;
+            for (int j : predecessors(tasks.get(i), index, open, i)) {
+                successors[fill[j]++] = i;
+            }
+        }
+
+        double[] release = new double[n];
+        int[] priority = new int[n];
+        long[] deadline = new long[n];
+        String[] reason = new String[n];
+        for (int i = 0; i < n; i++) {
+            Task task = tasks.get(i);
+            release[i] = task.getStartDate() != null ? timeOf(task.getStartDate().toLocalDate()) : 0;
+            priority[i] = task.getPriority() != null ? task.getPriority().ordinal() : 0;
+            deadline[i] = task.getDeadline() != null ? task.getDeadline().toLocalDate().toEpochDay() : Long.MAX_VALUE;
+        }
+
+        PriorityQueue<Integer> ready = new PriorityQueue<>(Math.max(1, n), Comparator
+            .<Integer>comparingInt(i -> -priority[i])
+            .thenComparingLong(i -> deadline[i])
+            .thenComparingInt(i -> tasks.get(i).getId()));
+        for (int i = 0; i < n; i++) {
+            if (open[i] && indegree[i] == 0) ready.add(i);
+        }
+
+        List<Schedule.Entry> entries = new ArrayList<>(n);
+        boolean[] placed = new boolean[n];
+        while (!ready.isEmpty()) {
+            int i = ready.poll();
+            placed[i] = true;
+            Task task = tasks.get(i);
+            double startTime = NEVER;
+            double finishTime = NEVER;
+            Integer memberId = task.getAssignedMember() != null ? task.getAssignedMember().getId() : null;
+            Integer row = memberId != null ? rows.get(memberId) : null;
+            double hours = Math.max(0, task.getEstimatedHours());
+
+            // release NEVER : un prédécesseur n'a pas pu être planifié (reason déjà renseignée)
+            if (release[i] != NEVER) {
+                if (hours == 0) {
+                    startTime = release[i];
+                    finishTime = release[i];
+                } else if (row == null) {
+                    if (unassignedWeeklyHours > 0) {
+                        startTime = release[i];
+                        finishTime = release[i] + hours / unassignedWeeklyHours;
+                    } else {
+                        reason[i] = "unassigned";
+                    }
+                } else if (capacity[row] <= 0) {
+                    reason[i] = "member has no weekly availability";
+                } else {
+                    if (used[row] == null) used[row] = new double[horizonWeeks];
+                    double[] times = place(used[row], firstFree, row, capacity[row], release[i], hours);
+                    startTime = times[0];
+                    finishTime = times[1];
+                }
+            }
+            if (finishTime != NEVER && finishTime > horizonWeeks) {
+                startTime = NEVER;
+                finishTime = NEVER;
+            }
+            if (finishTime == NEVER && reason[i] == null) {
+                reason[i] = "beyond the " + horizonWeeks + "-week horizon";
+            }
+
+            LocalDate deadlineDate = task.getDeadline() != null ? task.getDeadline().toLocalDate() : null;
+            if (finishTime == NEVER) {
+                entries.add(new Schedule.Entry(task.getId(), task.getProjectId(), memberId, null, null,
+                    deadlineDate, reason[i]));
+            } else {
+                entries.add(new Schedule.Entry(task.getId(), task.getProjectId(), memberId,
+                    startDate(startTime), finishDate(startTime, finishTime), deadlineDate, null));
+            }
+
+            for (int k = successorStart[i]; k < successorStart[i + 1]; k++) {
+                int next = successors[k];
+                if (finishTime == NEVER && release[next] != NEVER) {
+                    reason[next] = "waits for unscheduled task " + task.getId();
+                }
+                release[next] = Math.max(release[next], finishTime);
+                if (--indegree[next] == 0) ready.add(next);
+            }
+        }
+
+        // Restent les tâches d'un cycle de dépendances (ou qui en dépendent)
+        for (int i = 0; i < n; i++) {
+            if (open[i] && !placed[i]) {
+                Task task = tasks.get(i);
+                entries.add(new Schedule.Entry(task.getId(), task.getProjectId(),
+                    task.getAssignedMember() != null ? task.getAssignedMember().getId() : null, null, null,
+                    task.getDeadline() != null ? task.getDeadline().toLocalDate() : null, "dependency cycle"));
+            }
+        }
+        return new Schedule(origin, entries, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Fills the member's weeks from the release time on and returns {start, finish}, both
+     * NEVER when the hours do not fit before the horizon: the free hours are counted first,
+     * so a task that does not fit leaves the member's weeks untouched for the next ones.
+     * Time lost before the release inside a week is not given back to later tasks (no
+     * backfilling).
+     */
+    private double[] place(double[] weeks, int[] firstFree, int row, double cap, double release, double hours) {
+        int firstWeek = (int) Math.floor(release);
+        double firstPosition = release - firstWeek;
+        if (firstWeek < firstFree[row]) {
+            firstWeek = firstFree[row];
+            firstPosition = 0;
+        }
+
+        // 1. Assez de place avant l'horizon ?
+        double available = 0;
+        double position = firstPosition;
+        for (int week = firstWeek; week < horizonWeeks && available < hours - EPSILON; week++) {
+            available += Math.max(0, cap - Math.max(weeks[week], position * cap));
+            position = 0;
+        }
+        if (available < hours - EPSILON) {
+            return new double[] {NEVER, NEVER};
+        }
+
+        // 2. Placement effectif
+        double startTime = NEVER;
+        double finishTime = NEVER;
+        double remaining = hours;
+        position = firstPosition;
+        for (int week = firstWeek; remaining > EPSILON && week < horizonWeeks; week++) {
+            double begin = Math.max(weeks[week], position * cap);
+            double free = cap - begin;
+            if (free > EPSILON) {
+                if (startTime == NEVER) startTime = week + begin / cap;
+                double take = Math.min(free, remaining);
+                weeks[week] = begin + take;
+                remaining -= take;
+                finishTime = week + weeks[week] / cap;
+            }
+            position = 0;
+        }
+        // Semaines pleines sautées directement par les tâches suivantes
+        while (firstFree[row] < horizonWeeks && weeks[firstFree[row]] >= cap - EPSILON) {
+            firstFree[row]++;
+        }
+        return new double[] {startTime, finishTime};
+    }
+
+    /** Open tasks task i depends on (unknown ids, completed tasks and self-references ignored). */
+    private static List<Integer> predecessors(Task task, Map<Integer, Integer> index, boolean[] open, int self) {
+        List<Integer> result = new ArrayList<>();
+        if (task.getDependencies() == null) return result;
+        for (Integer dependency : task.getDependencies()) {
+            Integer j = dependency != null ? index.get(dependency) : null;
+            if (j != null && j != self && open[j]) result.add(j);
+        }
+        return result;
+    }
+
+    /** Time of the start of a day; a weekend day counts as the next Monday. */
+    private double timeOf(LocalDate date) {
+        long days = ChronoUnit.DAYS.between(origin, date);
+        if (days <= 0) return 0;
+        long week = days / 7;
+        long day = days % 7;
+        return day >= WORK_DAYS ? week + 1 : week + (double) day / WORK_DAYS;
+    }
+
+    private LocalDate dateOf(long workDay) {
+        return origin.plusWeeks(workDay / WORK_DAYS).plusDays(workDay % WORK_DAYS);
+    }
+
+    private LocalDate startDate(double time) {
+        return dateOf(startDay(time));
+    }
+
+    /** Last working day touched by [start, finish]; the start day for a zero-length task. */
+    private LocalDate finishDate(double start, double finish) {
+        long day = (long) Math.ceil(finish * WORK_DAYS - EPSILON) - 1;
+        return dateOf(Math.max(day, startDay(start)));
+    }
+
+    private static long startDay(double time) {
+        return (long) Math.floor(time * WORK_DAYS + EPSILON);
+    }
+}
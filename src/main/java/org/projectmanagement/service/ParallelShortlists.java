@@ -0,0 +1,178 @@
+package org.projectmanagement.service;
+
+import org.projectmanagement.model.Member;
+import org.projectmanagement.model.Task;
+import org.projectmanagement.util.ServerConfig;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Greedy phase 2 with the scoring done in parallel. Tasks are taken in waves: every task
+ * of a wave is scored against the current workloads on a ForkJoinPool, keeping its best
+ * SHORTLIST candidates. The caller then commits the wave task by task, in priority order,
+ * and asks choose() for each one. Members assigned earlier in the wave are rescored with
+ * their new workload; the others still have their wave score, since workloads only grow
+ * during phase 2. The choice is therefore exactly the one of the sequential scan (same
+ * score, ties to the lowest row), whatever the number of threads.
+ */
+final class ParallelShortlists {
+    private static final int SHORTLIST = 8;
+
+    private static ForkJoinPool pool;
+
+    /** calculateMemberScore of the allocation service. */
+    interface Scorer {
+        double score(Task task, Member member, double skillScore);
+    }
+
+    private final List<Task> tasks;
+    private final SkillMatrix matrix;
+    private final Scorer scorer;
+    private final double threshold;
+    private final int waveSize;
+
+    private final SkillMatrix.Requirement[] requirements;
+    private final int[][] rows;
+    private final double[][] scores;
+    private final int[] sizes;
+    // Candidats qualifiés au-delà de la liste courte
+    private final boolean[] truncated;
+
+    // Membres assignés depuis le début de la vague (leur score a baissé)
+    private final boolean[] dirty;
+    private final int[] dirtyRows;
+    private int dirtyCount;
+    private int waveEnd;
+
+    ParallelShortlists(List<Task> tasks, SkillMatrix matrix, Scorer scorer, double threshold, int waveSize) {
+        this.tasks = tasks;
+        this.matrix = matrix;
+        this.scorer = scorer;
+        this.threshold = threshold;
+        this.waveSize = Math.max(1, waveSize);
+        this.requirements = new SkillMatrix.Requirement[tasks.size()];
+        this.rows = new int[tasks.size()][];
+        this.scores = new double[tasks.size()][];
+        this.sizes = new int[tasks.size()];
+        this.truncated = new boolean[tasks.size()];
+        this.dirty = new boolean[matrix.size()];
+        this.dirtyRows = new int[matrix.size()];
+    }
+
+    /** Pool shared by all allocations, sized by allocation.parallelism (0 = one thread per core). */
+    static synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            int parallelism = ServerConfig.getInt("allocation.parallelism", 0);
+            pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        }
+        return pool;
+    }
+
+    /**
+     * Best member for task index (tasks must be asked in order), or null when no one reaches
+     * the threshold.
+     */
+    TaskAllocationService.CandidateEvaluation choose(int index) {
+        if (index >= waveEnd) {
+            startWave(index);
+        }
+        Task task = tasks.get(index);
+        int bestRow = -1;
+        double bestScore = -1;
+        // Premier candidat non modifié de la liste courte : son score est toujours exact
+        for (int k = 0; k < sizes[index]; k++) {
+            int row = rows[index][k];
+            if (!dirty[row]) {
+                bestRow = row;
+                bestScore = scores[index][k];
+                break;
+            }
+        }
+        if (bestRow < 0 && truncated[index]) {
+            // Toute la liste courte a été prise par des tâches précédentes : scan complet
+            return scanAll(index);
+        }
+        // Membres déjà servis dans la vague : nouveau score avec leur charge actuelle
+        SkillMatrix.Requirement requirement = requirements[index];
+        for (int i = 0; i < dirtyCount; i++) {
+            int row = dirtyRows[i];
+            if (!requirement.candidates.get(row)) continue;
+            double score = scorer.score(task, matrix.member(row), matrix.skillScore(requirement, row));
+            if (score >= threshold && (score > bestScore || (score == bestScore && row < bestRow))) {
+                bestRow = row;
+                bestScore = score;
+            }
+        }
+        return bestRow < 0 ? null : new TaskAllocationService.CandidateEvaluation(matrix.member(bestRow), bestScore, 0);
+    }
+
+    /** To call once a member's workload has been raised by the chosen task. */
+    void assigned(Member member) {
+        int row = matrix.rowOf(member.getId());
+        if (row >= 0 && !dirty[row]) {
+            dirty[row] = true;
+            dirtyRows[dirtyCount++] = row;
+        }
+    }
+
+    private void startWave(int from) {
+        for (int i = 0; i < dirtyCount; i++) {
+            dirty[dirtyRows[i]] = false;
+        }
+        dirtyCount = 0;
+        int to = Math.min(tasks.size(), from + waveSize);
+        waveEnd = to;
+        pool().submit(() -> IntStream.range(from, to).parallel().forEach(this::rank)).join();
+    }
+
+    /** Top SHORTLIST candidates of one task, by score then row (read-only on shared state). */
+    private void rank(int index) {
+        Task task = tasks.get(index);
+        SkillMatrix.Requirement requirement = matrix.requirement(task);
+        int[] top = new int[SHORTLIST];
+        double[] topScores = new double[SHORTLIST];
+        int size = 0;
+        boolean overflow = false;
+        for (int row = requirement.candidates.nextSetBit(0); row >= 0; row = requirement.candidates.nextSetBit(row + 1)) {
+            double score = scorer.score(task, matrix.member(row), matrix.skillScore(requirement, row));
+            if (score < threshold) continue;
+            if (size == SHORTLIST) {
+                overflow = true;
+                // Lignes croissantes : à score égal, le dernier de la liste reste prioritaire
+                if (score <= topScores[SHORTLIST - 1]) continue;
+                size--;
+            }
+            int k = size++;
+            while (k > 0 && topScores[k - 1] < score) {
+                top[k] = top[k - 1];
+                topScores[k] = topScores[k - 1];
+                k--;
+            }
+            top[k] = row;
+            topScores[k] = score;
+        }
+        requirements[index] = requirement;
+        rows[index] = Arrays.copyOf(top, size);
+        scores[index] = Arrays.copyOf(topScores, size);
+        sizes[index] = size;
+        truncated[index] = overflow;
+    }
+
+    private TaskAllocationService.CandidateEvaluation scanAll(int index) {
+        Task task = tasks.get(index);
+        SkillMatrix.Requirement requirement = requirements[index];
+        int bestRow = -1;
+        double bestScore = -1;
+        for (int row = requirement.candidates.nextSetBit(0); row >= 0; row = requirement.candidates.nextSetBit(row + 1)) {
+            double score = scorer.score(task, matrix.member(row), matrix.skillScore(requirement, row));
+            if (score >= threshold && score > bestScore) {
+                bestRow = row;
+                bestScore = score;
+            }
+        }
+        return bestRow < 0 ? null : new TaskAllocationService.CandidateEvaluation(matrix.member(bestRow), bestScore, 0);
+    }
+}
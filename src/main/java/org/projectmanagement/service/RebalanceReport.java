@@ -0,0 +1,104 @@
+package org.projectmanagement.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * What the rebalancing phase achieved: overload hours (sum over members of the hours above
+ * their weekly availability) and total skill fit (SkillMatrix.levelFit) of the movable
+ * tasks, before and after, plus the moves it took and whether the time budget cut the
+ * search short.
+ */
+public final class RebalanceReport {
+    private final int tasksConsidered;
+    private final int moves;
+    private final int swaps;
+    private final int tasksMoved;
+    private final double overloadHoursBefore;
+    private final double overloadHoursAfter;
+    private final double fitBefore;
+    private final double fitAfter;
+    private final long elapsedMillis;
+    private final boolean budgetExhausted;
+
+    RebalanceReport(int tasksConsidered, int moves, int swaps, int tasksMoved,
+                    double overloadHoursBefore, double overloadHoursAfter,
+                    double fitBefore, double fitAfter, long elapsedMillis, boolean budgetExhausted) {
+        this.tasksConsidered = tasksConsidered;
+        this.moves = moves;
+        this.swaps = swaps;
+        this.tasksMoved = tasksMoved;
+        this.overloadHoursBefore = overloadHoursBefore;
+        this.overloadHoursAfter = overloadHoursAfter;
+        this.fitBefore = fitBefore;
+        this.fitAfter = fitAfter;
+        this.elapsedMillis = elapsedMillis;
+        this.budgetExhausted = budgetExhausted;
+    }
+
+    static RebalanceReport empty() {
+        return new RebalanceReport(0, 0, 0, 0, 0, 0, 0, 0, 0, false);
+    }
+
+    public int getTasksConsidered() {
+        return tasksConsidered;
+    }
+
+    /** Accepted single-task moves. */
+    public int getMoves() {
+        return moves;
+    }
+
+    /** Accepted pairwise swaps. */
+    public int getSwaps() {
+        return swaps;
+    }
+
+    /** Tasks whose member differs at the end (a task moved twice counts once). */
+    public int getTasksMoved() {
+        return tasksMoved;
+    }
+
+    public double getOverloadHoursBefore() {
+        return overloadHoursBefore;
+    }
+
+    public double getOverloadHoursAfter() {
+        return overloadHoursAfter;
+    }
+
+    public double getFitBefore() {
+        return fitBefore;
+    }
+
+    public double getFitAfter() {
+        return fitAfter;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public boolean isBudgetExhausted() {
+        return budgetExhausted;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("tasksConsidered", tasksConsidered);
+        map.put("moves", moves);
+        map.put("swaps", swaps);
+        map.put("tasksMoved", tasksMoved);
+        map.put("overloadHoursBefore", round(overloadHoursBefore));
+        map.put("overloadHoursAfter", round(overloadHoursAfter));
+        map.put("fitBefore", round(fitBefore));
+        map.put("fitAfter", round(fitAfter));
+        map.put("elapsedMillis", elapsedMillis);
+        map.put("budgetExhausted", budgetExhausted);
+        return map;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,237 @@
+package org.projectmanagement.service;
+
+import org.projectmanagement.model.Task;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Rebalancing phase as a local search on the member snapshot. The cost to minimize is
+ * overload hours - fitWeight x skill fit, where overload hours is the sum of the hours above
+ * each member's weekly availability and skill fit the sum of SkillMatrix.levelFit of the
+ * movable tasks on their member (closeness of the member's levels to the required ones).
+ * Only tasks of overloaded members are taken off; each one gets the best improving move (to
+ * any member holding its skills) or swap (with a task of such a member who can take the
+ * other task back). Passes repeat until no move improves the cost or the wall-clock budget
+ * is spent; every accepted step strictly lowers the cost, so the search always terminates.
+ * Works on arrays only: nothing is read from or written to MySQL, the caller turns the final
+ * owners into plan moves.
+ */
+final class Rebalancer {
+    // Amélioration minimale acceptée (évite de boucler sur des écarts d'arrondi)
+    private static final double EPSILON = 1e-6;
+    // Contrôle du budget tous les CHECK_EVERY candidats évalués
+    private static final int CHECK_EVERY = 256;
+
+    private final SkillMatrix matrix;
+    private final List<Task> tasks;
+    private final double fitWeight;
+
+    private final double[] load;
+    private final double[] capacity;
+    private final double[] hours;
+    private final SkillMatrix.Requirement[] requirements;
+    private final int[] initialOwner;
+    private final int[] owner;
+    // Tâches déplaçables de chaque membre (listes d'indices, position de chaque tâche)
+    private final int[][] owned;
+    private final int[] ownedCount;
+    private final int[] position;
+
+    private int evaluations;
+    private long deadline;
+    private boolean budgetExhausted;
+
+    /**
+     * tasks and owners are parallel: owners.get(i) is the matrix row currently holding task i.
+     */
+    Rebalancer(SkillMatrix matrix, List<Task> tasks, int[] owners, double fitWeight) {
+        this.matrix = matrix;
+        this.tasks = tasks;
+        this.fitWeight = fitWeight;
+        int members = matrix.size();
+        this.load = new double[members];
+        this.capacity = new double[members];
+        for (int row = 0; row < members; row++) {
+            load[row] = matrix.member(row).getCurrentWorkload();
+            capacity[row] = matrix.member(row).getWeeklyAvailability();
+        }
+        int n = tasks.size();
+        this.hours = new double[n];
+        this.requirements = new SkillMatrix.Requirement[n];
+        this.initialOwner = owners.clone();
+        this.owner = owners.clone();
+        this.position = new int[n];
+        this.owned = new int[members][];
+        this.ownedCount = new int[members];
+        for (int i = 0; i < n; i++) {
+            hours[i] = tasks.get(i).getEstimatedHours();
+            requirements[i] = matrix.requirement(tasks.get(i));
+            attach(i, owner[i]);
+        }
+    }
+
+    /**
+     * Runs the search until no improving step remains or budgetMillis passes. The final
+     * member row of each task is then given by ownerOf(). Can be called again to resume a
+     * search cut by the budget (counts and before/after values are then those of the call).
+     */
+    RebalanceReport run(long budgetMillis, AllocationProgress progress) {
+        long start = System.nanoTime();
+        deadline = start + budgetMillis * 1_000_000;
+        budgetExhausted = false;
+        double overloadBefore = overloadHours();
+        double fitBefore = totalFit();
+        int moves = 0;
+        int swaps = 0;
+
+        boolean improved = true;
+        boolean firstPass = true;
+        while (improved && !budgetExhausted) {
+            improved = false;
+            for (int i = 0; i < tasks.size() && !budgetExhausted; i++) {
+                if (firstPass) progress.evaluated();
+                if (progress.isCancelled()) {
+                    throw new CancellationException("Allocation cancelled");
+                }
+                int from = owner[i];
+                if (load[from] <= capacity[from]) continue;
+                int step = improve(i);
+                if (step == 1) moves++;
+                if (step == 2) swaps++;
+                improved |= step > 0;
+            }
+            firstPass = false;
+        }
+
+        int tasksMoved = 0;
+        for (int i = 0; i < owner.length; i++) {
+            if (owner[i] != initialOwner[i]) tasksMoved++;
+        }
+        return new RebalanceReport(tasks.size(), moves, swaps, tasksMoved, overloadBefore, overloadHours(),
+            fitBefore, totalFit(), (System.nanoTime() - start) / 1_000_000, budgetExhausted);
+    }
+
+    /** Member row holding task i after run(). */
+    int ownerOf(int i) {
+        return owner[i];
+    }
+
+    /** Row holding task i before run(). */
+    int initialOwnerOf(int i) {
+        return initialOwner[i];
+    }
+
+    /**
+     * Applies the best improving step for task a: 0 = none, 1 = move, 2 = swap.
+     */
+    private int improve(int a) {
+        int from = owner[a];
+        double fitA = fit(a, from);
+        double bestDelta = -EPSILON;
+        int bestTarget = -1;
+        int bestPartner = -1;
+
+        SkillMatrix.Requirement requirement = requirements[a];
+        for (int to = requirement.candidates.nextSetBit(0); to >= 0; to = requirement.candidates.nextSetBit(to + 1)) {
+            if (to == from) continue;
+            if (budgetSpent()) break;
+            double fitTo = fit(a, to);
+            if (fitTo == 0) continue;
+
+            // Déplacement simple de a vers "to"
+            double delta = overloadChange(from, -hours[a]) + overloadChange(to, hours[a])
+                - fitWeight * (fitTo - fitA);
+            if (delta < bestDelta) {
+                bestDelta = delta;
+                bestTarget = to;
+                bestPartner = -1;
+            }
+
+            // Échange avec une tâche b de "to" que "from" sait faire, seulement quand "to" a
+            // de la marge sans pouvoir absorber a : sinon le déplacement simple suffit, et un
+            // membre déjà surchargé ne ferait que recevoir la surcharge de "from"
+            if (load[to] + hours[a] <= capacity[to] || load[to] >= capacity[to]) continue;
+            for (int k = 0; k < ownedCount[to]; k++) {
+                int b = owned[to][k];
+                if (!requirements[b].candidates.get(from)) continue;
+                double fitBack = fit(b, from);
+                if (fitBack == 0) continue;
+                double net = hours[a] - hours[b];
+                double swapDelta = overloadChange(from, -net) + overloadChange(to, net)
+                    - fitWeight * (fitTo + fitBack - fitA - fit(b, to));
+                if (swapDelta < bestDelta) {
+                    bestDelta = swapDelta;
+                    bestTarget = to;
+                    bestPartner = b;
+                }
+            }
+        }
+
+        if (bestTarget < 0) return 0;
+        move(a, bestTarget);
+        if (bestPartner >= 0) {
+            move(bestPartner, from);
+            return 2;
+        }
+        return 1;
+    }
+
+    private boolean budgetSpent() {
+        if (++evaluations % CHECK_EVERY == 0 && System.nanoTime() > deadline) {
+            budgetExhausted = true;
+        }
+        return budgetExhausted;
+    }
+
+    /** Change of a member's overload hours when hours are added (negative: removed). */
+    private double overloadChange(int row, double added) {
+        return Math.max(0, load[row] + added - capacity[row]) - Math.max(0, load[row] - capacity[row]);
+    }
+
+    private double fit(int task, int row) {
+        return matrix.levelFit(requirements[task], row);
+    }
+
+    private void move(int task, int to) {
+        int from = owner[task];
+        load[from] -= hours[task];
+        load[to] += hours[task];
+        detach(task, from);
+        attach(task, to);
+        owner[task] = to;
+    }
+
+    private void attach(int task, int row) {
+        if (owned[row] == null) {
+            owned[row] = new int[4];
+        } else if (ownedCount[row] == owned[row].length) {
+            owned[row] = Arrays.copyOf(owned[row], ownedCount[row] * 2);
+        }
+        position[task] = ownedCount[row];
+        owned[row][ownedCount[row]++] = task;
+    }
+
+    private void detach(int task, int row) {
+        int last = owned[row][--ownedCount[row]];
+        owned[row][position[task]] = last;
+        position[last] = position[task];
+    }
+
+    private double overloadHours() {
+        double total = 0;
+        for (int row = 0; row < load.length; row++) {
+            total += Math.max(0, load[row] - capacity[row]);
+        }
+        return total;
+    }
+
+    private double totalFit() {
+        double total = 0;
+        for (int i = 0; i < owner.length; i++) {
+            total += fit(i, owner[i]);
+        }
+        return total;
+    }
+}
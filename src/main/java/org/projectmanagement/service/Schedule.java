@@ -0,0 +1,134 @@
+package org.projectmanagement.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Planned start and finish dates of the open tasks of every project, as computed by
+ * CapacityScheduler. Completed tasks are not part of it.
+ */
+public final class Schedule {
+
+    /** Plan of one task. Dates are null when the task could not be placed (see getReason). */
+    public static final class Entry {
+        private final int taskId;
+        private final int projectId;
+        private final Integer memberId;
+        private final LocalDate plannedStart;
+        private final LocalDate plannedFinish;
+        private final LocalDate deadline;
+        private final String reason;
+
+        Entry(int taskId, int projectId, Integer memberId, LocalDate plannedStart, LocalDate plannedFinish,
+              LocalDate deadline, String reason) {
+            this.taskId = taskId;
+            this.projectId = projectId;
+            this.memberId = memberId;
+            this.plannedStart = plannedStart;
+            this.plannedFinish = plannedFinish;
+            this.deadline = deadline;
+            this.reason = reason;
+        }
+
+        public int getTaskId() {
+            return taskId;
+        }
+
+        public int getProjectId() {
+            return projectId;
+        }
+
+        /** Null for an unassigned task (planned without capacity contention). */
+        public Integer getMemberId() {
+            return memberId;
+        }
+
+        public LocalDate getPlannedStart() {
+            return plannedStart;
+        }
+
+        public LocalDate getPlannedFinish() {
+            return plannedFinish;
+        }
+
+        public boolean isScheduled() {
+            return plannedFinish != null;
+        }
+
+        /** Planned to finish after its deadline. */
+        public boolean isLate() {
+            return plannedFinish != null && deadline != null && plannedFinish.isAfter(deadline);
+        }
+
+        /** Why the task has no dates (no capacity, dependency cycle, beyond the horizon...). */
+        public String getReason() {
+            return reason;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("taskId", taskId);
+            map.put("memberId", memberId);
+            map.put("plannedStart", plannedStart != null ? plannedStart.toString() : null);
+            map.put("plannedFinish", plannedFinish != null ? plannedFinish.toString() : null);
+            map.put("late", isLate());
+            if (reason != null) map.put("reason", reason);
+            return map;
+        }
+    }
+
+    private final LocalDate origin;
+    private final List<Entry> entries;
+    private final long elapsedMillis;
+
+    Schedule(LocalDate origin, List<Entry> entries, long elapsedMillis) {
+        this.origin = origin;
+        this.entries = Collections.unmodifiableList(entries);
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /** Monday of the first planned week. */
+    public LocalDate getOrigin() {
+        return origin;
+    }
+
+    /** In scheduling order. */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /** Plan of one project (null: every project) with its late and unscheduled counts. */
+    public Map<String, Object> toMap(Integer projectId) {
+        List<Map<String, Object>> tasks = new ArrayList<>();
+        int late = 0;
+        int unscheduled = 0;
+        LocalDate finish = null;
+        for (Entry entry : entries) {
+            if (projectId != null && entry.projectId != projectId) continue;
+            tasks.add(entry.toMap());
+            if (entry.isLate()) late++;
+            if (!entry.isScheduled()) {
+                unscheduled++;
+            } else if (finish == null || entry.plannedFinish.isAfter(finish)) {
+                finish = entry.plannedFinish;
+            }
+        }
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("origin", origin.toString());
+        map.put("plannedFinish", finish != null ? finish.toString() : null);
+        map.put("taskCount", tasks.size());
+        map.put("lateCount", late);
+        map.put("unscheduledCount", unscheduled);
+        map.put("elapsedMillis", elapsedMillis);
+        map.put("tasks", tasks);
+        return map;
+    }
+}
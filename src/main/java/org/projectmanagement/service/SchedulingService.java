@@ -0,0 +1,61 @@
+package org.projectmanagement.service;
+
+import org.projectmanagement.dao.FieldSet;
+import org.projectmanagement.dao.MemberDAO;
+import org.projectmanagement.dao.TaskDAO;
+import org.projectmanagement.model.Member;
+import org.projectmanagement.model.Task;
+import org.projectmanagement.util.DatabaseUtil;
+import org.projectmanagement.util.ServerConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service de planification : place les tâches ouvertes de tous les projets dans les semaines
+ * de leurs membres (CapacityScheduler) à partir des affectations faites par l'allocation.
+ * Tout le portefeuille est planifié ensemble, car un membre partage sa capacité entre projets
+ */
+public class SchedulingService {
+    private static final Logger logger = LoggerFactory.getLogger(SchedulingService.class);
+
+    // Colonnes utiles au planning (pas de description ni de compétences)
+    private static final FieldSet SCHEDULE_FIELDS = FieldSet.parse(
+        "projectId,estimatedHours,priority,status,startDate,deadline,assignedMember,dependencies", TaskDAO.FIELDS);
+    private static final FieldSet MEMBER_FIELDS = FieldSet.parse("name,weeklyAvailability", MemberDAO.FIELDS);
+
+    private final TaskDAO taskDAO;
+    private final MemberDAO memberDAO;
+
+    public SchedulingService() {
+        this.taskDAO = new TaskDAO();
+        this.memberDAO = new MemberDAO();
+    }
+
+    /**
+     * Planning de toutes les tâches non terminées à partir de la semaine de "from"
+     * (schedule.horizonWeeks semaines au plus)
+     */
+    public Schedule schedule(LocalDate from) throws SQLException {
+        // Membres et tâches lus dans la même transaction : un seul instantané cohérent
+        List<Member> members = new ArrayList<>();
+        List<Task> tasks = new ArrayList<>();
+        DatabaseUtil.inTransaction(() -> {
+            members.addAll(memberDAO.findAll(MEMBER_FIELDS));
+            tasks.addAll(taskDAO.findAll(SCHEDULE_FIELDS));
+            return null;
+        });
+
+        CapacityScheduler scheduler = new CapacityScheduler(from,
+            ServerConfig.getInt("schedule.horizonWeeks", 104),
+            ServerConfig.getDouble("schedule.unassignedWeeklyHours", 40));
+        Schedule schedule = scheduler.schedule(members, tasks);
+        logger.info("Scheduled {} open tasks of {} members from {} in {}ms",
+            schedule.getEntries().size(), members.size(), schedule.getOrigin(), schedule.getElapsedMillis());
+        return schedule;
+    }
+}
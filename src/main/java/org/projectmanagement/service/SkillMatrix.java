@@ -0,0 +1,171 @@
+package org.projectmanagement.service;
+
+import org.projectmanagement.model.Member;
+import org.projectmanagement.model.MemberSkill;
+import org.projectmanagement.model.Task;
+import org.projectmanagement.model.TaskSkill;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Proficiency of every member in every skill, built once per allocation run.
+ * Skill ids are mapped to dense columns and the levels stored in an int[members][skills]
+ * (0 = skill not held), so checking a required skill is an array read instead of a
+ * scan of member.getSkills(). For each (skill, level) a bitset of the members holding the
+ * skill at that level or above gives, by intersection, the only members who can score
+ * above 0 for a task.
+ */
+final class SkillMatrix {
+    private final List<Member> members;
+    // id du membre -> ligne, id de la compétence -> colonne
+    private final Map<Integer, Integer> rows;
+    private final Map<Integer, Integer> columns = new HashMap<>();
+    private final int[][] levels;
+    // atLeast[colonne][niveau] : membres ayant la compétence à ce niveau ou plus
+    private final BitSet[][] atLeast;
+
+    SkillMatrix(List<Member> members) {
+        this.members = members;
+        this.rows = new HashMap<>(members.size() * 2);
+        for (Member member : members) {
+            if (member.getSkills() == null) continue;
+            for (MemberSkill skill : member.getSkills()) {
+                columns.putIfAbsent(skill.getSkill().getId(), columns.size());
+            }
+        }
+        this.levels = new int[members.size()][columns.size()];
+        for (int row = 0; row < members.size(); row++) {
+            Member member = members.get(row);
+            rows.put(member.getId(), row);
+            if (member.getSkills() == null) continue;
+            for (MemberSkill skill : member.getSkills()) {
+                levels[row][columns.get(skill.getSkill().getId())] = skill.getProficiencyLevel();
+            }
+        }
+        this.atLeast = new BitSet[columns.size()][];
+        for (int column = 0; column < atLeast.length; column++) {
+            int maxLevel = 0;
+            for (int[] memberLevels : levels) {
+                maxLevel = Math.max(maxLevel, memberLevels[column]);
+            }
+            BitSet[] byLevel = new BitSet[maxLevel + 1];
+            for (int level = 1; level <= maxLevel; level++) {
+                byLevel[level] = new BitSet(members.size());
+            }
+            for (int row = 0; row < levels.length; row++) {
+                for (int level = 1; level <= levels[row][column]; level++) {
+                    byLevel[level].set(row);
+                }
+            }
+            atLeast[column] = byLevel;
+        }
+    }
+
+    int size() {
+        return members.size();
+    }
+
+    Member member(int row) {
+        return members.get(row);
+    }
+
+    /** Row of a member, or -1 when the member is not part of this run. */
+    int rowOf(int memberId) {
+        Integer row = rows.get(memberId);
+        return row != null ? row : -1;
+    }
+
+    /** The required skills of a task translated to columns, computed once per task. */
+    Requirement requirement(Task task) {
+        List<TaskSkill> required = task.getRequiredSkills();
+        int count = required != null ? required.size() : 0;
+        int[] skillColumns = new int[count];
+        int[] requiredLevels = new int[count];
+        int maxLevel = 0;
+        for (int i = 0; i < count; i++) {
+            TaskSkill skill = required.get(i);
+            // -1 : personne n'a cette compétence
+            skillColumns[i] = columns.getOrDefault(skill.getSkill().getId(), -1);
+            requiredLevels[i] = skill.getRequiredLevel();
+            maxLevel += skill.getRequiredLevel();
+        }
+        return new Requirement(skillColumns, requiredLevels, maxLevel, candidates(skillColumns, requiredLevels));
+    }
+
+    /** Rows of the members holding every required skill at the required level. */
+    private BitSet candidates(int[] skillColumns, int[] requiredLevels) {
+        BitSet candidates = new BitSet(members.size());
+        candidates.set(0, members.size());
+        for (int i = 0; i < skillColumns.length && !candidates.isEmpty(); i++) {
+            int column = skillColumns[i];
+            // Compétence détenue par personne, ou niveau jamais atteint
+            if (column < 0 || requiredLevels[i] >= atLeast[column].length) {
+                candidates.clear();
+                break;
+            }
+            candidates.and(atLeast[column][Math.max(1, requiredLevels[i])]);
+        }
+        return candidates;
+    }
+
+    /**
+     * Same result as the former per-member scan: 0.5 without required skills, 0 when a
+     * skill is missing or below the required level, otherwise the level ratio capped at 1.
+     */
+    double skillScore(Requirement requirement, int row) {
+        if (requirement.columns.length == 0) {
+            return 0.5;
+        }
+        int[] memberLevels = levels[row];
+        int totalSkillLevel = 0;
+        for (int i = 0; i < requirement.columns.length; i++) {
+            int column = requirement.columns[i];
+            if (column < 0) return 0;
+            int level = memberLevels[column];
+            if (level == 0 || level < requirement.levels[i]) return 0;
+            totalSkillLevel += level;
+        }
+        return Math.min(1.0, (double) totalSkillLevel / requirement.maxLevel);
+    }
+
+    /**
+     * Graded fit used by the rebalancing: 0 when the member does not qualify, 0.5 without
+     * required skills (same for everyone), otherwise the mean of requiredLevel / memberLevel
+     * over the required skills. 1 means the member is exactly at the required levels; an
+     * expert far above them scores lower, so rebalancing keeps experts for the tasks that
+     * need them. skillScore cannot tell qualified members apart (always 1).
+     */
+    double levelFit(Requirement requirement, int row) {
+        if (requirement.columns.length == 0) {
+            return 0.5;
+        }
+        int[] memberLevels = levels[row];
+        double total = 0;
+        for (int i = 0; i < requirement.columns.length; i++) {
+            int column = requirement.columns[i];
+            if (column < 0) return 0;
+            int level = memberLevels[column];
+            if (level == 0 || level < requirement.levels[i]) return 0;
+            total += (double) Math.max(1, requirement.levels[i]) / level;
+        }
+        return total / requirement.columns.length;
+    }
+
+    static final class Requirement {
+        final int[] columns;
+        final int[] levels;
+        final int maxLevel;
+        // Seuls membres dont skillScore peut être > 0 ; les autres n'ont pas à être évalués
+        final BitSet candidates;
+
+        Requirement(int[] columns, int[] levels, int maxLevel, BitSet candidates) {
+            this.columns = columns;
+            this.levels = levels;
+            this.maxLevel = maxLevel;
+            this.candidates = candidates;
+        }
+    }
+}
@@ -1,13 +1,12 @@
 package org.projectmanagement.service;
 
-import org.projectmanagement.dao.MemberDAO;
-import org.projectmanagement.dao.ProjectDAO;
-import org.projectmanagement.dao.TaskDAO;
+import org.projectmanagement.dao.StatisticsCounters;
+import org.projectmanagement.dao.TaskAggregate;
 import org.projectmanagement.model.Member;
-import org.projectmanagement.model.Project;
 import org.projectmanagement.model.Task;
 
 import java.sql.SQLException;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -16,18 +15,15 @@ import java.util.stream.Collectors;
 /**
  * Service de génération de statistiques pour les projets et les membres
  * Fournit des métriques détaillées sur la progression et la charge de travail
+ * Les compteurs sont maintenus en mémoire par les DAOs (StatisticsCounters) : aucune requête SQL ici
  */
 public class StatisticsService {
-    // DAOs pour accéder aux données
-    private final MemberDAO memberDAO;
-    private final ProjectDAO projectDAO;
-    private final TaskDAO taskDAO;
+    // Compteurs partagés, mis à jour à chaque écriture
+    private final StatisticsCounters counters;
 
-    // Constructeur : initialise les DAOs
+    // Constructeur : récupère les compteurs
     public StatisticsService() {
-        this.memberDAO = new MemberDAO();
-        this.projectDAO = new ProjectDAO();
-        this.taskDAO = new TaskDAO(); 
+        this.counters = StatisticsCounters.getInstance();
     }
 
     /**
@@ -38,21 +34,32 @@ public class StatisticsService {
     public Map<String, Object> getProjectStatistics(int projectId) throws SQLException {
         Map<String, Object> stats = new HashMap<>();
         
-        // Récupérer le projet
-        Project project = projectDAO.findById(projectId);
-        if (project == null) {
+        // Agrégats du projet (par statut, priorité, assignation), null si le projet n'existe pas
+        List<TaskAggregate> rows = counters.getProjectAggregates(projectId);
+        if (rows == null) {
             return stats;  // Retourner map vide si projet inexistant
         }
         
-        // Récupérer toutes les tâches du projet
-        List<Task> tasks = taskDAO.findByProject(projectId);
+        long totalTasks = 0;
+        long assignedTasks = 0;
+        double totalEstimatedHours = 0;
+        double completedHours = 0;
+        Map<Task.TaskStatus, Long> statusCounts = new EnumMap<>(Task.TaskStatus.class);
+        Map<String, Long> priorityDistribution = new HashMap<>();
+        for (TaskAggregate row : rows) {
+            totalTasks += row.getCount();
+            totalEstimatedHours += row.getEstimatedHours();
+            if (row.isAssigned()) assignedTasks += row.getCount();
+            if (row.getStatus() == Task.TaskStatus.COMPLETED) completedHours += row.getEstimatedHours();
+            statusCounts.merge(row.getStatus(), row.getCount(), Long::sum);
+            priorityDistribution.merge(row.getPriority().name(), row.getCount(), Long::sum);
+        }
         
         // === COMPTER LES TÂCHES PAR STATUT ===
-        long totalTasks = tasks.size();
-        long completedTasks = tasks.stream().filter(t -> t.getStatus() == Task.TaskStatus.COMPLETED).count();
-        long inProgressTasks = tasks.stream().filter(t -> t.getStatus() == Task.TaskStatus.IN_PROGRESS).count();
-        long todoTasks = tasks.stream().filter(t -> t.getStatus() == Task.TaskStatus.TODO).count();
-        long blockedTasks = tasks.stream().filter(t -> t.getStatus() == Task.TaskStatus.BLOCKED).count();
+        long completedTasks = statusCounts.getOrDefault(Task.TaskStatus.COMPLETED, 0L);
+        long inProgressTasks = statusCounts.getOrDefault(Task.TaskStatus.IN_PROGRESS, 0L);
+        long todoTasks = statusCounts.getOrDefault(Task.TaskStatus.TODO, 0L);
+        long blockedTasks = statusCounts.getOrDefault(Task.TaskStatus.BLOCKED, 0L);
         
         // Ajouter les compteurs au résultat
         stats.put("totalTasks", totalTasks);
@@ -63,26 +70,14 @@ public class StatisticsService {
         stats.put("completionPercentage", totalTasks > 0 ? (completedTasks * 100.0 / totalTasks) : 0);
         
         // === CALCUL DES HEURES ===
-        // Somme de toutes les heures estimées
-        double totalEstimatedHours = tasks.stream().mapToDouble(Task::getEstimatedHours).sum();
-        // Somme des heures des tâches complétées
-        double completedHours = tasks.stream()
-            .filter(t -> t.getStatus() == Task.TaskStatus.COMPLETED)
-            .mapToDouble(Task::getEstimatedHours)
-            .sum();
-        
         stats.put("totalEstimatedHours", totalEstimatedHours);
         stats.put("completedHours", completedHours);
         stats.put("remainingHours", totalEstimatedHours - completedHours);
         
         // === DISTRIBUTION PAR PRIORITÉ ===
-        // Grouper les tâches par niveau de priorité
-        Map<String, Long> priorityDistribution = tasks.stream()
-            .collect(Collectors.groupingBy(t -> t.getPriority().name(), Collectors.counting()));
         stats.put("priorityDistribution", priorityDistribution);
         
         // === TÂCHES ASSIGNÉES VS NON ASSIGNÉES ===
-        long assignedTasks = tasks.stream().filter(Task::isAssigned).count();
         long unassignedTasks = totalTasks - assignedTasks;
         
         stats.put("assignedTasks", assignedTasks);
@@ -98,8 +93,10 @@ public class StatisticsService {
     public Map<String, Object> getMemberWorkloadStatistics() throws SQLException {
         Map<String, Object> stats = new HashMap<>();
         
-        // Récupérer tous les membres
-        List<Member> members = memberDAO.findAll();
+        // Récupérer tous les membres (nom, disponibilité, charge), triés par nom
+        List<Member> members = counters.getMembers();
+        // Nombre de tâches par membre
+        Map<Integer, Integer> taskCounts = counters.getTaskCountsByMember();
         
         // === CALCULS GLOBAUX ===
         // Somme des disponibilités hebdomadaires de tous les membres
@@ -145,14 +142,8 @@ public class StatisticsService {
                 memberData.put("workloadPercentage", member.getWorkloadPercentage());
                 memberData.put("isOverloaded", member.isOverloaded());
                 
-                // Récupérer le nombre de tâches assignées à ce membre
-                // Récupérer le nombre de tâches assignées à ce membre
-                try {
-                    List<Task> memberTasks = taskDAO.findByMember(member.getId());
-                    memberData.put("taskCount", memberTasks.size());
-                } catch (SQLException e) {
-                    memberData.put("taskCount", 0);  // En cas d'erreur, mettre 0
-                }
+                // Nombre de tâches assignées à ce membre
+                memberData.put("taskCount", taskCounts.getOrDefault(member.getId(), 0));
                 
                 return memberData;
             })
@@ -171,21 +162,16 @@ public class StatisticsService {
     public Map<String, Object> getOverallStatistics() throws SQLException {
         Map<String, Object> stats = new HashMap<>();
         
-        // Récupérer tous les projets et membres
-        List<Project> projects = projectDAO.findAll();
-        List<Member> members = memberDAO.findAll();
+        // Compteurs de base, lus en mémoire
+        stats.put("totalProjects", counters.getTotalProjects());
+        stats.put("totalMembers", counters.getTotalMembers());
+        stats.put("totalTasks", counters.getTotalTasks());
+        stats.put("overloadedMembers", counters.getOverloadedMembers());
         
-        // Ajouter les compteurs de base
-        stats.put("totalProjects", projects.size());
-        stats.put("totalMembers", members.size());
-        
-        // Compter toutes les tâches de tous les projets
-        int totalTasks = 0;
-        for (Project project : projects) {
-            List<Task> tasks = taskDAO.findByProject(project.getId());
-            totalTasks += tasks.size();
-        }
-        stats.put("totalTasks", totalTasks);
+        // Répartition des tâches par statut
+        Map<String, Long> tasksByStatus = new HashMap<>();
+        counters.getTasksByStatus().forEach((status, count) -> tasksByStatus.put(status.name(), count));
+        stats.put("tasksByStatus", tasksByStatus);
         
         return stats;
     }
@@ -1,14 +1,19 @@
 package org.projectmanagement.service;
 
 import org.projectmanagement.dao.AlertDAO;
+import org.projectmanagement.dao.LeaseDAO;
 import org.projectmanagement.dao.MemberDAO;
 import org.projectmanagement.dao.TaskDAO;
 import org.projectmanagement.model.*;
+import org.projectmanagement.util.ServerConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 /**
@@ -22,8 +27,14 @@ public class TaskAllocationService {
     // Seuil minimum de 60% pour qu'un membre soit considéré compétent pour une tâche
     private static final double MINIMUM_COMPETENCE_THRESHOLD = 0.6;
     
-    // Seuil utilisé lors du rééquilibrage des tâches (même valeur que l'allocation normale)
-    private static final double REBALANCING_COMPETENCE_THRESHOLD = 0.6;
+    // Rééquilibrage : heures de surcharge échangées contre une unité de compétence (0 à 1)
+    private static final double REBALANCING_FIT_WEIGHT = 1.0;
+    
+    /**
+     * Moteur de la phase 2 : GREEDY donne chaque tâche (par priorité) au meilleur membre du
+     * moment, OPTIMAL résout toutes les tâches ensemble (flot de coût minimum, AssignmentSolver)
+     */
+    public enum Engine { GREEDY, OPTIMAL }
     
     // DAOs pour accéder aux données
     private final TaskDAO taskDAO;
@@ -44,7 +55,63 @@ public class TaskAllocationService {
      * return Résultat contenant le nombre de tâches assignées et échouées
      */
     public AllocationResult allocateTasks(int projectId) throws SQLException {
-        logger.info("Starting task allocation for project: {}", projectId);
+        return allocateTasks(projectId, defaultEngine());
+    }
+    
+    /** Moteur configuré par allocation.engine (greedy par défaut) */
+    public static Engine defaultEngine() {
+        return parseEngine(ServerConfig.getString("allocation.engine", "greedy"));
+    }
+    
+    public static Engine parseEngine(String name) {
+        try {
+            return Engine.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown allocation engine: " + name);
+        }
+    }
+    
+    public AllocationResult allocateTasks(int projectId, Engine engine) throws SQLException {
+        return allocateTasks(projectId, engine, AllocationProgress.NONE);
+    }
+    
+    /**
+     * Allocation suivie par progress (tâches évaluées, phase en cours) ; lève
+     * CancellationException si progress.isCancelled() devient vrai avant l'écriture du plan
+     */
+    public AllocationResult allocateTasks(int projectId, Engine engine, AllocationProgress progress) throws SQLException {
+        // Une seule allocation à la fois par projet : la suivante lit les affectations validées
+        ReentrantLock lock = AllocationCoordinator.lockFor(projectId);
+        long waitStart = System.nanoTime();
+        try {
+            while (!lock.tryLock(100, TimeUnit.MILLISECONDS)) {
+                checkCancelled(progress);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for the allocation lock");
+        }
+        try {
+            long waitedMillis = (System.nanoTime() - waitStart) / 1_000_000;
+            if (waitedMillis > 0) {
+                logger.info("Waited {}ms for the allocation lock of project {}", waitedMillis, projectId);
+            }
+            // Puis le bail MySQL : un seul serveur alloue le projet, vérifié à l'écriture du plan
+            LeaseDAO.Lease lease = AllocationLeases.getInstance().acquire(projectId, progress);
+            try {
+                return runAllocation(projectId, engine, progress, lease);
+            } finally {
+                AllocationLeases.getInstance().release(lease);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private AllocationResult runAllocation(int projectId, Engine engine, AllocationProgress progress,
+                                           LeaseDAO.Lease lease) throws SQLException {
+        logger.info("Starting task allocation for project: {} (engine: {})", projectId, engine);
+        progress.phase(AllocationProgress.Phase.LOADING, 0);
         
         // Récupérer toutes les tâches non assignées du projet
         List<Task> unassignedTasks = taskDAO.findUnassignedByProject(projectId);
@@ -58,66 +125,35 @@ public class TaskAllocationService {
         // Si aucun membre disponible, on arrête
         if (availableMembers.isEmpty()) {
             logger.warn("No available members found");
-            return new AllocationResult(0, unassignedTasks.size(), "No available members");
+            return new AllocationResult(0, unassignedTasks.size(), "No available members", engine, 0, 0, 0);
         }
         
+        // Index des compétences (membres x compétences) construit une fois pour toute l'allocation
+        SkillMatrix matrix = new SkillMatrix(availableMembers);
+        
+        // Toutes les décisions sont prises sur l'instantané en mémoire, puis écrites en une transaction
+        AllocationPlan allocationPlan = new AllocationPlan();
+        
         // Vérifier les surcharges existantes et créer des alertes
         logger.info("Checking for existing overloaded members before allocation");
-        checkExistingOverloads(projectId);
+        checkExistingOverloads(projectId, availableMembers, todoTasksFromOverloadedMembers, allocationPlan);
         
         // Compteurs de résultats
         int assignedCount = 0;      // Nouvelles tâches assignées
         int failedCount = 0;        // Tâches qu'on n'a pas pu assigner
         int rebalancedCount = 0;    // Tâches réassignées pour équilibrer
+        int fallbackCount = 0;      // Tâches placées par le glouton faute de plan optimal
+        double objective = 0;       // Somme des scores des tâches assignées en phase 2
+        long planningMillis = 0;
         
         // === PHASE 1 : RÉÉQUILIBRAGE ===
         // On regarde les tâches TODO des membres surchargés pour les réassigner
-        logger.info("Phase 1: Rebalancing TODO tasks from overloaded members");
+        logger.info("Phase 1: Rebalancing TODO tasks of overloaded members");
         logger.info("Found {} TODO tasks to evaluate for rebalancing", todoTasksFromOverloadedMembers.size());
         
-        // Pour chaque tâche TODO
-        for (Task task : todoTasksFromOverloadedMembers) {
-            // Ignorer les tâches sans membre assigné
-            if (task.getAssignedMember() == null) continue;
-            
-            try {
-                // Récupérer les infos complètes du membre actuel
-                Member currentMember = memberDAO.findById(task.getAssignedMember().getId());
-                logger.info("Evaluating task '{}' assigned to '{}' ({}%)", 
-                    task.getTitle(), currentMember.getName(), 
-                    String.format("%.1f", currentMember.getWorkloadPercentage()));
-                
-                // Si le membre est surchargé (>100%), chercher quelqu'un de mieux
-                if (currentMember.getWorkloadPercentage() > 100) {
-                    logger.info("Member is overloaded, searching for better member...");
-                    // Chercher un membre mieux adapté
-                    Member betterMember = findBetterMember(task, availableMembers, currentMember);
-                    
-                    // Si on a trouvé quelqu'un de mieux
-                    if (betterMember != null && betterMember.getId() != currentMember.getId()) {
-                        logger.info("Rebalancing task '{}' from '{}' ({}%) to '{}' ({}%)", 
-                            task.getTitle(), 
-                            currentMember.getName(), 
-                            String.format("%.1f", currentMember.getWorkloadPercentage()),
-                            betterMember.getName(),
-                            String.format("%.1f", betterMember.getWorkloadPercentage()));
-                        
-                        // Retirer la tâche du membre actuel
-                        currentMember.setCurrentWorkload(currentMember.getCurrentWorkload() - task.getEstimatedHours());
-                        memberDAO.updateWorkload(currentMember.getId(), currentMember.getCurrentWorkload());
-                        
-                        // Assigner au nouveau membre
-                        assignTaskToMember(task, betterMember);
-                        betterMember.setCurrentWorkload(betterMember.getCurrentWorkload() + task.getEstimatedHours());
-                        memberDAO.updateWorkload(betterMember.getId(), betterMember.getCurrentWorkload());
-                        
-                        rebalancedCount++;
-                    }
-                }
-            } catch (Exception e) {
-                logger.error("Error rebalancing task: {}", task.getTitle(), e);
-            }
-        }
+        // Recherche locale (déplacements et échanges) sur l'instantané, bornée dans le temps
+        RebalanceReport rebalance = rebalance(todoTasksFromOverloadedMembers, matrix, allocationPlan, progress);
+        rebalancedCount = rebalance.getTasksMoved();
         
         // === PHASE 2 : ALLOCATION DES TÂCHES NON ASSIGNÉES ===
         logger.info("Phase 2: Assigning unassigned tasks");
@@ -125,130 +161,199 @@ public class TaskAllocationService {
             // Trier les tâches par priorité et deadline
             List<Task> sortedTasks = prioritizeTasks(unassignedTasks);
             
+            // Mode optimal : plan global calculé d'avance (membre par tâche, -1 si non placée)
+            int[] plan = null;
+            if (engine == Engine.OPTIMAL) {
+                progress.phase(AllocationProgress.Phase.PLANNING, sortedTasks.size());
+                long start = System.nanoTime();
+                plan = planOptimal(sortedTasks, matrix);
+                planningMillis = (System.nanoTime() - start) / 1_000_000;
+            }
+            
+            // Mode glouton sur beaucoup de tâches : scores calculés en parallèle par vagues,
+            // choix identiques au parcours séquentiel
+            ParallelShortlists shortlists = null;
+            if (engine == Engine.GREEDY && ParallelShortlists.pool().getParallelism() > 1
+                    && sortedTasks.size() >= ServerConfig.getInt("allocation.parallel.minTasks", 64)) {
+                shortlists = new ParallelShortlists(sortedTasks, matrix, this::calculateMemberScore,
+                    MINIMUM_COMPETENCE_THRESHOLD, ServerConfig.getInt("allocation.parallel.waveSize", 256));
+            }
+            
             // Pour chaque tâche non assignée
-            for (Task task : sortedTasks) {
-                try {
+            progress.phase(AllocationProgress.Phase.ASSIGNING, sortedTasks.size());
+            for (int i = 0; i < sortedTasks.size(); i++) {
+                checkCancelled(progress);
+                progress.evaluated();
+                Task task = sortedTasks.get(i);
+                CandidateEvaluation best = null;
+                if (plan != null && plan[i] >= 0) {
+                    // Score recalculé avec les heures réelles : le plan doit encore passer le seuil
+                    Member planned = matrix.member(plan[i]);
+                    double score = calculateMemberScore(task, planned,
+                        matrix.skillScore(matrix.requirement(task), plan[i]));
+                    if (score >= MINIMUM_COMPETENCE_THRESHOLD) {
+                        best = new CandidateEvaluation(planned, score, 0);
+                    }
+                }
+                if (best == null && shortlists != null) {
+                    best = shortlists.choose(i);
+                } else if (best == null) {
                     // Trouver le meilleur membre pour cette tâche
-                    Member bestMember = findBestMember(task, availableMembers);
+                    best = findBestMember(task, matrix);
+                    if (best != null && plan != null) fallbackCount++;
+                }
+                Member bestMember = best != null ? best.member : null;
+                
+                // Si on a trouvé quelqu'un de compétent
+                if (bestMember != null) {
+                    objective += best.score;
+                    // Assigner la tâche et mettre à jour sa charge de travail
+                    allocationPlan.assign(task, null, bestMember);
+                    if (shortlists != null) shortlists.assigned(bestMember);
+                    
+                    assignedCount++;
+                    progress.assigned();
+                    logger.info("Assigned task '{}' to member '{}'", task.getTitle(), bestMember.getName());
                     
-                    // Si on a trouvé quelqu'un de compétent
-                    if (bestMember != null) {
-                        // Assigner la tâche
-                        assignTaskToMember(task, bestMember);
-                        
-                        // Mettre à jour sa charge de travail
-                        bestMember.setCurrentWorkload(
-                            bestMember.getCurrentWorkload() + task.getEstimatedHours()
-                        );
-                        memberDAO.updateWorkload(bestMember.getId(), bestMember.getCurrentWorkload());
-                        
-                        assignedCount++;
-                        logger.info("Assigned task '{}' to member '{}'", task.getTitle(), bestMember.getName());
-                        
-                        // Créer une alerte si le membre devient surchargé
-                        if (bestMember.isOverloaded()) {
-                            createOverloadAlert(bestMember, task);
-                        }
-                    } else {
-                        // Aucun membre qualifié trouvé
-                        failedCount++;
-                        logger.warn("Could not find suitable member for task: {}", task.getTitle());
-                        createNoSuitableMemberAlert(task, projectId);
+                    // Créer une alerte si le membre devient surchargé
+                    if (bestMember.isOverloaded()) {
+                        allocationPlan.addAlert(overloadAlert(bestMember, task));
                     }
-                } catch (Exception e) {
+                } else {
+                    // Aucun membre qualifié trouvé
                     failedCount++;
-                    logger.error("Error assigning task: {}", task.getTitle(), e);
+                    progress.failed();
+                    logger.warn("Could not find suitable member for task: {}", task.getTitle());
+                    allocationPlan.addAlert(noSuitableMemberAlert(task, projectId));
                 }
             }
         }
         
+        // Écriture groupée : affectations, charges et alertes dans une seule transaction
+        // (dernier point d'annulation : ensuite le plan est écrit en entier)
+        checkCancelled(progress);
+        progress.phase(AllocationProgress.Phase.APPLYING, allocationPlan.getAssignmentCount());
+        long applyStart = System.nanoTime();
+        int staleCount = allocationPlan.apply(projectId, lease, taskDAO, memberDAO, alertDAO);
+        logger.info("Applied allocation plan: {} assignments ({} stale, skipped), {} alerts in {}ms",
+            allocationPlan.getAssignmentCount() - staleCount, staleCount, allocationPlan.getAlertCount(),
+            (System.nanoTime() - applyStart) / 1_000_000);
+        
         String message = String.format("Assigned %d new tasks, rebalanced %d tasks, failed %d", 
             assignedCount, rebalancedCount, failedCount);
-        logger.info("Allocation complete: {}", message);
+        if (staleCount > 0) {
+            // Tâches modifiées entre la lecture et l'écriture : laissées telles quelles
+            message += String.format(", skipped %d changed meanwhile", staleCount);
+        }
+        logger.info("Allocation complete: {} (engine={}, objective={}, planning={}ms, fallback={})", message,
+            engine, String.format("%.3f", objective), planningMillis, fallbackCount);
         
-        return new AllocationResult(assignedCount + rebalancedCount, failedCount, message);
+        return new AllocationResult(assignedCount + rebalancedCount - staleCount, failedCount, message,
+            engine, objective, planningMillis, fallbackCount, rebalance, staleCount);
     }
     
-    private Member findBetterMember(Task task, List<Member> members, Member currentMember) {
-        double currentFinalWorkload = (currentMember.getCurrentWorkload() / currentMember.getWeeklyAvailability()) * 100;
-        
-        logger.info("Searching for better member than '{}' (current: {}%)", 
-            currentMember.getName(), 
-            String.format("%.1f", currentMember.getWorkloadPercentage()));
-        
-        List<CandidateEvaluation> candidates = new ArrayList<>();
-        
-        for (Member member : members) {
-            if (member.getId() == currentMember.getId()) {
-                continue;
-            }
-            
-            double score = calculateMemberScore(task, member);
-            
-            if (score < REBALANCING_COMPETENCE_THRESHOLD) {
-                logger.debug("Skipping '{}' - insufficient score ({:.3f} < {:.2f})", 
-                    member.getName(), score, REBALANCING_COMPETENCE_THRESHOLD);
-                continue;
-            }
-            
-            double newWorkload = member.getCurrentWorkload() + task.getEstimatedHours();
-            double finalWorkloadPct = (newWorkload / member.getWeeklyAvailability()) * 100;
-            
-            candidates.add(new CandidateEvaluation(member, score, finalWorkloadPct));
-            
-            logger.info("  Candidate '{}': score={:.3f}, current={}%, would be={}%", 
-                member.getName(), score,
-                String.format("%.1f", member.getWorkloadPercentage()),
-                String.format("%.1f", finalWorkloadPct));
+    /**
+     * Phase 1 : les tâches TODO assignées sont redistribuées par Rebalancer pour réduire les
+     * heures de surcharge (puis améliorer l'adéquation des compétences) ; seules les tâches
+     * dont le membre change au final sont inscrites au plan.
+     */
+    private RebalanceReport rebalance(List<Task> todoTasks, SkillMatrix matrix, AllocationPlan allocationPlan,
+                                      AllocationProgress progress) {
+        List<Task> movable = new ArrayList<>();
+        int[] owners = new int[todoTasks.size()];
+        for (Task task : todoTasks) {
+            if (task.getAssignedMember() == null) continue;
+            int row = matrix.rowOf(task.getAssignedMember().getId());
+            if (row < 0) continue;
+            owners[movable.size()] = row;
+            movable.add(task);
         }
-        
-        if (candidates.isEmpty()) {
-            logger.info("No qualified candidates found");
-            return null;
+        progress.phase(AllocationProgress.Phase.REBALANCING, movable.size());
+        if (movable.isEmpty()) {
+            return RebalanceReport.empty();
         }
         
-        Member bestWithoutOverload = candidates.stream()
-            .filter(c -> c.finalWorkloadPct < 100.0)
-            .sorted((c1, c2) -> Double.compare(c2.score, c1.score))
-            .map(c -> c.member)
-            .findFirst()
-            .orElse(null);
-        
-        if (bestWithoutOverload != null) {
-            CandidateEvaluation selected = candidates.stream()
-                .filter(c -> c.member.getId() == bestWithoutOverload.getId())
-                .findFirst()
-                .get();
-            
-            logger.info("PHASE 1 SUCCESS: Selected '{}' (score={:.3f}, final={}%) - NO overload!", 
-                selected.member.getName(), selected.score, String.format("%.1f", selected.finalWorkloadPct));
-            
-            if (selected.finalWorkloadPct < currentFinalWorkload) {
-                return bestWithoutOverload;
+        Rebalancer rebalancer = new Rebalancer(matrix, movable, Arrays.copyOf(owners, movable.size()),
+            ServerConfig.getDouble("allocation.rebalance.fitWeight", REBALANCING_FIT_WEIGHT));
+        RebalanceReport report = rebalancer.run(ServerConfig.getLong("allocation.rebalance.budgetMillis", 200), progress);
+        
+        for (int i = 0; i < movable.size(); i++) {
+            int from = rebalancer.initialOwnerOf(i);
+            int to = rebalancer.ownerOf(i);
+            if (from == to) continue;
+            Task task = movable.get(i);
+            logger.info("Rebalancing task '{}' from '{}' to '{}'",
+                task.getTitle(), matrix.member(from).getName(), matrix.member(to).getName());
+            allocationPlan.assign(task, matrix.member(from), matrix.member(to));
+            progress.rebalanced();
+        }
+        logger.info("Rebalancing: {} tasks moved ({} moves, {} swaps), overload {}h -> {}h, fit {} -> {} in {}ms{}",
+            report.getTasksMoved(), report.getMoves(), report.getSwaps(),
+            String.format("%.1f", report.getOverloadHoursBefore()), String.format("%.1f", report.getOverloadHoursAfter()),
+            String.format("%.2f", report.getFitBefore()), String.format("%.2f", report.getFitAfter()),
+            report.getElapsedMillis(), report.isBudgetExhausted() ? " (budget exhausted)" : "");
+        return report;
+    }
+    
+    private static void checkCancelled(AllocationProgress progress) {
+        if (progress.isCancelled()) {
+            throw new CancellationException("Allocation cancelled");
+        }
+    }
+    
+    /**
+     * Plan optimal de la phase 2 : chaque tâche peut aller à un membre candidat pour
+     * 0.5 x compétence + bonus de priorité ; chaque membre offre des créneaux successifs dont
+     * le gain est 0.4 x score de charge après k tâches de durée moyenne. La somme maximisée
+     * est donc celle des scores calculateMemberScore. Arrêt à allocation.optimal.budgetMillis :
+     * les tâches non planifiées passent par le glouton.
+     */
+    private int[] planOptimal(List<Task> tasks, SkillMatrix matrix) {
+        long budgetMillis = ServerConfig.getLong("allocation.optimal.budgetMillis", 2000);
+        long deadline = System.nanoTime() + budgetMillis * 1_000_000;
+        
+        double meanHours = tasks.stream().mapToDouble(Task::getEstimatedHours).average().orElse(1);
+        if (meanHours <= 0) meanHours = 1;
+        
+        AssignmentSolver solver = new AssignmentSolver(tasks.size(), matrix.size());
+        int[] optionsPerMember = new int[matrix.size()];
+        double maxOptionGain = 0;
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            SkillMatrix.Requirement requirement = matrix.requirement(task);
+            double priorityBonus = task.getPriorityScore() * 0.025;
+            for (int row = requirement.candidates.nextSetBit(0); row >= 0; row = requirement.candidates.nextSetBit(row + 1)) {
+                double skillScore = matrix.skillScore(requirement, row);
+                if (skillScore == 0) continue;
+                double gain = skillScore * 0.5 + priorityBonus;
+                solver.addOption(i, row, gain);
+                optionsPerMember[row]++;
+                maxOptionGain = Math.max(maxOptionGain, gain);
             }
         }
-        
-        // PHASE 2 : Tous seront surchargés, choisir celui avec la SURCHARGE MINIMALE
-        logger.info("PHASE 2: All candidates will be overloaded, selecting minimum overload");
-        
-        CandidateEvaluation bestMinimalOverload = candidates.stream()
-            .min((c1, c2) -> Double.compare(c1.finalWorkloadPct, c2.finalWorkloadPct))
-            .orElse(null);
-        
-        if (bestMinimalOverload != null && bestMinimalOverload.finalWorkloadPct < currentFinalWorkload) {
-            logger.info("PHASE 2 SUCCESS: Selected '{}' (score={:.3f}, final={}%) - minimal overload", 
-                bestMinimalOverload.member.getName(), 
-                bestMinimalOverload.score, 
-                String.format("%.1f", bestMinimalOverload.finalWorkloadPct));
-            return bestMinimalOverload.member;
+        for (int row = 0; row < matrix.size(); row++) {
+            Member member = matrix.member(row);
+            // Pas plus de créneaux que de tâches possibles ; arrêt dès qu'aucune tâche n'atteindrait le seuil
+            for (int k = 1; k <= optionsPerMember[row]; k++) {
+                double newWorkload = member.getCurrentWorkload() + k * meanHours;
+                double gain = workloadScore((newWorkload / member.getWeeklyAvailability()) * 100) * 0.4;
+                if (maxOptionGain + gain < MINIMUM_COMPETENCE_THRESHOLD) break;
+                solver.addSlot(row, gain);
+            }
         }
         
-        logger.info("No better member found (current {}% is already optimal)", 
-            String.format("%.1f", currentFinalWorkload));
-        return null;
+        int[] plan = solver.solve(deadline);
+        if (solver.isComplete()) {
+            logger.info("Optimal plan: {} of {} tasks placed, planned objective {}",
+                solver.getPlaced(), tasks.size(), String.format("%.3f", solver.getObjective()));
+        } else {
+            logger.warn("Optimal plan stopped after {}ms budget with {} of {} tasks placed; the rest falls back to greedy",
+                budgetMillis, solver.getPlaced(), tasks.size());
+        }
+        return plan;
     }
     
-    private static class CandidateEvaluation {
+    static class CandidateEvaluation {
         Member member;
         double score;
         double finalWorkloadPct;
@@ -260,12 +365,15 @@ public class TaskAllocationService {
         }
     }
 
-    private Member findBestMember(Task task, List<Member> members) {
+    private CandidateEvaluation findBestMember(Task task, SkillMatrix matrix) {
         Member bestMember = null;
         double bestScore = -1;
+        SkillMatrix.Requirement requirement = matrix.requirement(task);
         
-        for (Member member : members) {
-            double score = calculateMemberScore(task, member);
+        // Seuls les membres ayant toutes les compétences requises peuvent dépasser le seuil
+        for (int row = requirement.candidates.nextSetBit(0); row >= 0; row = requirement.candidates.nextSetBit(row + 1)) {
+            Member member = matrix.member(row);
+            double score = calculateMemberScore(task, member, matrix.skillScore(requirement, row));
             
             if (score >= MINIMUM_COMPETENCE_THRESHOLD && score > bestScore) {
                 bestScore = score;
@@ -279,13 +387,16 @@ public class TaskAllocationService {
         } else {
             logger.warn("No member found with sufficient competence (threshold: {:.2f})", 
                 MINIMUM_COMPETENCE_THRESHOLD);
+            return null;
         }
         
-        return bestMember;
+        return new CandidateEvaluation(bestMember, bestScore, 0);
     }
 
-    private double calculateMemberScore(Task task, Member member) {
-        double skillScore = calculateSkillScore(task, member);
+    /**
+     * Score d'un membre pour une tâche ; skillScore vient de SkillMatrix.skillScore
+     */
+    private double calculateMemberScore(Task task, Member member, double skillScore) {
         double priorityBonus = task.getPriorityScore() * 0.025;
         
         if (skillScore == 0) {
@@ -294,61 +405,30 @@ public class TaskAllocationService {
         
         double newWorkload = member.getCurrentWorkload() + task.getEstimatedHours();
         double newWorkloadPercentage = (newWorkload / member.getWeeklyAvailability()) * 100;
-        
-        double workloadScore;
-        if (newWorkloadPercentage <= 100) {
-            workloadScore = 1.0 - (newWorkloadPercentage / 100.0 * 0.2);
-        } else {
-            double overload = newWorkloadPercentage - 100;
-            workloadScore = Math.max(0, 0.8 - (overload / 100.0 * 0.8));
-        }
+        double workloadScore = workloadScore(newWorkloadPercentage);
         
         double totalScore = (skillScore * 0.5) + 
                            (workloadScore * 0.4) + 
                            priorityBonus;
         
-        logger.debug("Member {} score for task {}: {:.3f} (skill={:.2f}, newWorkload={:.1f}%, workloadScore={:.2f})",
-                    member.getName(), task.getTitle(), totalScore, skillScore, newWorkloadPercentage, workloadScore);
+        // Appelé membres x tâches fois : éviter le boxing des arguments si le debug est coupé
+        if (logger.isDebugEnabled()) {
+            logger.debug("Member {} score for task {}: {:.3f} (skill={:.2f}, newWorkload={:.1f}%, workloadScore={:.2f})",
+                        member.getName(), task.getTitle(), totalScore, skillScore, newWorkloadPercentage, workloadScore);
+        }
         
         return totalScore;
     }
 
-    private double calculateSkillScore(Task task, Member member) {
-        List<TaskSkill> requiredSkills = task.getRequiredSkills();
-        
-        if (requiredSkills.isEmpty()) {
-            return 0.5;
-        }
-        
-        int matchedSkills = 0;
-        int totalSkillLevel = 0;
-        int maxSkillLevel = 0;
-        
-        for (TaskSkill taskSkill : requiredSkills) {
-            maxSkillLevel += taskSkill.getRequiredLevel();
-            
-            Optional<MemberSkill> memberSkill = member.getSkills().stream()
-                .filter(ms -> ms.getSkill().equals(taskSkill.getSkill()))
-                .findFirst();
-            
-            if (memberSkill.isPresent()) {
-                int proficiency = memberSkill.get().getProficiencyLevel();
-                if (proficiency >= taskSkill.getRequiredLevel()) {
-                    matchedSkills++;
-                    totalSkillLevel += proficiency;
-                } else {
-                    return 0;
-                }
-            } else {
-                return 0;
-            }
-        }
-        
-        if (requiredSkills.size() == matchedSkills) {
-            return Math.min(1.0, (double) totalSkillLevel / maxSkillLevel);
+    /**
+     * Score de charge : 1 à 0.8 jusqu'à 100%, puis décroît jusqu'à 0 à 200%
+     */
+    private static double workloadScore(double newWorkloadPercentage) {
+        if (newWorkloadPercentage <= 100) {
+            return 1.0 - (newWorkloadPercentage / 100.0 * 0.2);
         }
-        
-        return 0;
+        double overload = newWorkloadPercentage - 100;
+        return Math.max(0, 0.8 - (overload / 100.0 * 0.8));
     }
 
     private double calculateAvailabilityScore(Task task, Member member) {
@@ -395,26 +475,16 @@ public class TaskAllocationService {
             .collect(Collectors.toList());
     }
 
-    private void assignTaskToMember(Task task, Member member) throws SQLException {
-        taskDAO.assignTask(task.getId(), member.getId());
-        
-        if (task.getAssignedMember() == null) {
-            task.setAssignedMember(new Member());
-        }
-        task.getAssignedMember().setId(member.getId());
-        task.getAssignedMember().setName(member.getName());
-    }
-    
     public void checkAndCreateOverloadAlert(int memberId, int taskId) throws SQLException {
         Member member = memberDAO.findById(memberId);
         Task task = taskDAO.findById(taskId);
         
         if (member != null && task != null && member.isOverloaded()) {
-            createOverloadAlert(member, task);
+            alertDAO.create(overloadAlert(member, task));
         }
     }
 
-    private void createOverloadAlert(Member member, Task task) throws SQLException {
+    private Alert overloadAlert(Member member, Task task) {
         Alert alert = new Alert();
         alert.setType(Alert.AlertType.OVERLOAD);
         alert.setSeverity(Alert.Severity.HIGH);
@@ -435,10 +505,10 @@ public class TaskAllocationService {
         alertTask.setTitle(task.getTitle());
         alert.setTask(alertTask);
         
-        alertDAO.create(alert);
+        return alert;
     }
 
-    private void createNoSuitableMemberAlert(Task task, int projectId) throws SQLException {
+    private Alert noSuitableMemberAlert(Task task, int projectId) {
         Alert alert = new Alert();
         alert.setType(Alert.AlertType.CONFLICT);
         alert.setSeverity(Alert.Severity.CRITICAL);
@@ -458,18 +528,47 @@ public class TaskAllocationService {
         alertTask.setTitle(task.getTitle());
         alert.setTask(alertTask);
         
-        alertDAO.create(alert);
+        return alert;
     }
 
     public static class AllocationResult {
         private final int assignedCount;
         private final int failedCount;
         private final String message;
+        private final Engine engine;
+        private final double objective;
+        private final long planningMillis;
+        private final int fallbackCount;
+        private final RebalanceReport rebalance;
+        private final int staleCount;
 
         public AllocationResult(int assignedCount, int failedCount, String message) {
+            this(assignedCount, failedCount, message, Engine.GREEDY, 0, 0, 0);
+        }
+
+        public AllocationResult(int assignedCount, int failedCount, String message, Engine engine,
+                                double objective, long planningMillis, int fallbackCount) {
+            this(assignedCount, failedCount, message, engine, objective, planningMillis, fallbackCount,
+                RebalanceReport.empty());
+        }
+
+        public AllocationResult(int assignedCount, int failedCount, String message, Engine engine,
+                                double objective, long planningMillis, int fallbackCount, RebalanceReport rebalance) {
+            this(assignedCount, failedCount, message, engine, objective, planningMillis, fallbackCount, rebalance, 0);
+        }
+
+        public AllocationResult(int assignedCount, int failedCount, String message, Engine engine,
+                                double objective, long planningMillis, int fallbackCount, RebalanceReport rebalance,
+                                int staleCount) {
             this.assignedCount = assignedCount;
             this.failedCount = failedCount;
             this.message = message;
+            this.engine = engine;
+            this.objective = objective;
+            this.planningMillis = planningMillis;
+            this.fallbackCount = fallbackCount;
+            this.rebalance = rebalance;
+            this.staleCount = staleCount;
         }
 
         public int getAssignedCount() {
@@ -487,12 +586,44 @@ public class TaskAllocationService {
         public boolean isSuccess() {
             return failedCount == 0;
         }
+
+        public Engine getEngine() {
+            return engine;
+        }
+
+        /** Somme des scores (calculateMemberScore) des nouvelles affectations : comparable entre moteurs */
+        public double getObjective() {
+            return objective;
+        }
+
+        /** Temps passé à calculer le plan optimal (0 en glouton) */
+        public long getPlanningMillis() {
+            return planningMillis;
+        }
+
+        /** Tâches que le plan optimal n'a pas placées et que le glouton a assignées */
+        public int getFallbackCount() {
+            return fallbackCount;
+        }
+
+        /** Bilan de la phase de rééquilibrage (surcharge et compétences avant/après) */
+        public RebalanceReport getRebalance() {
+            return rebalance;
+        }
+
+        /** Décisions non écrites car la tâche avait changé depuis la lecture (affectation, statut) */
+        public int getStaleCount() {
+            return staleCount;
+        }
     }
     
-    private void checkExistingOverloads(int projectId) throws SQLException {
-        List<Member> allMembers = memberDAO.findAll();
-        List<Task> projectTasks = taskDAO.findByProjectAndStatus(projectId, Task.TaskStatus.TODO);
-        
+    /**
+     * Alertes pour les membres déjà surchargés, à partir des membres et des tâches TODO déjà
+     * chargés par l'allocation (seules les tâches IN_PROGRESS sont relues)
+     */
+    private void checkExistingOverloads(int projectId, List<Member> allMembers, List<Task> todoTasks,
+                                        AllocationPlan allocationPlan) throws SQLException {
+        List<Task> projectTasks = new ArrayList<>(todoTasks);
         projectTasks.addAll(taskDAO.findByProjectAndStatus(projectId, Task.TaskStatus.IN_PROGRESS));
         
         for (Member member : allMembers) {
@@ -507,7 +638,7 @@ public class TaskAllocationService {
                 if (lastTask != null) {
                     logger.info("Creating overload alert for existing overloaded member: {} ({}%)", 
                         member.getName(), String.format("%.1f", member.getWorkloadPercentage()));
-                    createOverloadAlert(member, lastTask);
+                    allocationPlan.addAlert(overloadAlert(member, lastTask));
                 }
             }
         }
@@ -0,0 +1,363 @@
+package org.projectmanagement.service;
+
+import org.projectmanagement.dao.FieldSet;
+import org.projectmanagement.dao.LeaseDAO;
+import org.projectmanagement.dao.MemberDAO;
+import org.projectmanagement.dao.TaskDAO;
+import org.projectmanagement.model.Member;
+import org.projectmanagement.model.Task;
+import org.projectmanagement.util.DatabaseUtil;
+import org.projectmanagement.util.ServerConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Background rebalancing of every project at once. Each cycle reads all members and all
+ * assigned TODO tasks in one read transaction (one consistent snapshot), runs the Rebalancer
+ * over the whole portfolio in short slices, then writes the accepted moves project by
+ * project in small transactions. A task changed since the snapshot (moved, started) is
+ * skipped, and a project being allocated right now (local lock or lease held) is left for
+ * the next cycle. Search and writes are throttled to optimizer.cpuShare of one core, and
+ * setEnabled(false) (PUT /api/optimizer) stops the current cycle at the next slice or batch.
+ */
+public final class WorkloadOptimizer {
+    private static final Logger logger = LoggerFactory.getLogger(WorkloadOptimizer.class);
+
+    // Colonnes lues pour l'instantané (pas de description ni de dépendances)
+    private static final FieldSet SNAPSHOT_FIELDS =
+        FieldSet.parse("projectId,title,estimatedHours,assignedMember,requiredSkills", TaskDAO.FIELDS);
+
+    private static final WorkloadOptimizer INSTANCE = new WorkloadOptimizer(
+        ServerConfig.getBoolean("optimizer.enabled", true),
+        ServerConfig.getInt("optimizer.intervalSeconds", 300),
+        ServerConfig.getDouble("optimizer.cpuShare", 0.2),
+        ServerConfig.getLong("optimizer.sliceMillis", 50),
+        ServerConfig.getLong("optimizer.maxSearchMillis", 5000),
+        ServerConfig.getInt("optimizer.batchSize", 50),
+        ServerConfig.getInt("optimizer.historySize", 24),
+        ServerConfig.getDouble("allocation.rebalance.fitWeight", 1.0));
+
+    private final int intervalSeconds;
+    private final double cpuShare;
+    private final long sliceMillis;
+    private final long maxSearchMillis;
+    private final int batchSize;
+    private final int historySize;
+    private final double fitWeight;
+    private final TaskDAO taskDAO = new TaskDAO();
+    private final MemberDAO memberDAO = new MemberDAO();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    private volatile boolean enabled;
+    private volatile boolean stopping;
+    private ScheduledExecutorService scheduler;
+
+    // Métriques : derniers cycles et cumuls depuis le démarrage
+    private final Deque<Map<String, Object>> history = new ArrayDeque<>();
+    private long cycles;
+    private long movesApplied;
+    private double overloadHoursRemoved;
+
+    WorkloadOptimizer(boolean enabled, int intervalSeconds, double cpuShare, long sliceMillis,
+                      long maxSearchMillis, int batchSize, int historySize, double fitWeight) {
+        this.enabled = enabled;
+        this.intervalSeconds = intervalSeconds;
+        this.cpuShare = Math.min(1, Math.max(0.01, cpuShare));
+        this.sliceMillis = Math.max(1, sliceMillis);
+        this.maxSearchMillis = maxSearchMillis;
+        this.batchSize = Math.max(1, batchSize);
+        this.historySize = Math.max(1, historySize);
+        this.fitWeight = fitWeight;
+    }
+
+    public static WorkloadOptimizer getInstance() {
+        return INSTANCE;
+    }
+
+    /** Schedules a cycle every optimizer.intervalSeconds (0 or less: never). */
+    public synchronized void start() {
+        if (intervalSeconds <= 0 || scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "workload-optimizer");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                runCycle();
+            } catch (Exception e) {
+                logger.warn("Workload optimizer cycle failed: {}", e.getMessage());
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized void shutdown() {
+        stopping = true;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Kill switch: false stops the running cycle at its next slice or batch and skips the next ones. */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        logger.info("Workload optimizer {}", enabled ? "enabled" : "disabled");
+    }
+
+    /**
+     * One cycle: snapshot, search, batched writes. Returns the cycle's metrics, or null when
+     * the optimizer is disabled.
+     */
+    public Map<String, Object> runCycle() throws SQLException {
+        if (!enabled || stopping) return null;
+        long start = System.nanoTime();
+        AllocationProgress killSwitch = new AllocationProgress() {
+            @Override
+            public boolean isCancelled() {
+                return !enabled || stopping;
+            }
+        };
+
+        // Instantané cohérent : mêmes lectures dans une seule transaction (REPEATABLE READ)
+        List<Member> members = new ArrayList<>();
+        List<Task> tasks = new ArrayList<>();
+        DatabaseUtil.inTransaction(() -> {
+            members.addAll(memberDAO.findAll());
+            tasks.addAll(taskDAO.findAssignedByStatus(Task.TaskStatus.TODO, SNAPSHOT_FIELDS));
+            return null;
+        });
+
+        SkillMatrix matrix = new SkillMatrix(members);
+        List<Task> movable = new ArrayList<>();
+        List<Integer> owners = new ArrayList<>();
+        for (Task task : tasks) {
+            int row = matrix.rowOf(task.getAssignedMember().getId());
+            if (row < 0) continue;
+            movable.add(task);
+            owners.add(row);
+        }
+
+        Map<String, Object> cycle = new LinkedHashMap<>();
+        cycle.put("startedAt", System.currentTimeMillis());
+        cycle.put("members", members.size());
+        cycle.put("tasks", movable.size());
+        int[] applied = {0, 0};
+        double[] load = new double[members.size()];
+        for (int row = 0; row < load.length; row++) {
+            load[row] = members.get(row).getCurrentWorkload();
+        }
+        double overloadBefore = overload(load, matrix);
+        boolean stopped = false;
+        int skippedProjects = 0;
+        RebalanceReport search = RebalanceReport.empty();
+        try {
+            Rebalancer rebalancer = new Rebalancer(matrix, movable,
+                owners.stream().mapToInt(Integer::intValue).toArray(), fitWeight);
+            search = search(rebalancer, killSwitch);
+
+            // Déplacements retenus, regroupés par projet (verrou et bail sont par projet)
+            Map<Integer, List<Integer>> byProject = new LinkedHashMap<>();
+            for (int i = 0; i < movable.size(); i++) {
+                if (rebalancer.ownerOf(i) != rebalancer.initialOwnerOf(i)) {
+                    byProject.computeIfAbsent(movable.get(i).getProjectId(), p -> new ArrayList<>()).add(i);
+                }
+            }
+            for (Map.Entry<Integer, List<Integer>> project : byProject.entrySet()) {
+                if (killSwitch.isCancelled()) {
+                    throw new CancellationException("Workload optimizer disabled");
+                }
+                if (!applyProject(project.getKey(), project.getValue(), movable, rebalancer, matrix, load, applied)) {
+                    skippedProjects++;
+                }
+            }
+        } catch (CancellationException e) {
+            stopped = true;
+            logger.info("Workload optimizer cycle stopped: {}", e.getMessage());
+        }
+
+        double removed = overloadBefore - overload(load, matrix);
+        cycle.put("search", search.toMap());
+        cycle.put("movesPlanned", search.getTasksMoved());
+        cycle.put("movesApplied", applied[0]);
+        cycle.put("movesStale", applied[1]);
+        cycle.put("projectsSkipped", skippedProjects);
+        cycle.put("overloadHoursBefore", round(overloadBefore));
+        cycle.put("overloadHoursRemoved", round(removed));
+        cycle.put("elapsedMillis", (System.nanoTime() - start) / 1_000_000);
+        cycle.put("stopped", stopped);
+        synchronized (history) {
+            cycles++;
+            movesApplied += applied[0];
+            overloadHoursRemoved += removed;
+            history.addFirst(cycle);
+            while (history.size() > historySize) {
+                history.removeLast();
+            }
+        }
+        logger.info("Workload optimizer: {} of {} moves applied ({} stale, {} projects skipped), overload {}h -> {}h",
+            applied[0], search.getTasksMoved(), applied[1], skippedProjects,
+            String.format("%.1f", overloadBefore), String.format("%.1f", overloadBefore - removed));
+        return cycle;
+    }
+
+    /**
+     * Runs the search in slices of sliceMillis, pausing after each one so the thread stays
+     * under cpuShare of a core, until it converges or maxSearchMillis of search is spent.
+     */
+    private RebalanceReport search(Rebalancer rebalancer, AllocationProgress killSwitch) {
+        RebalanceReport first = null;
+        RebalanceReport last;
+        int moves = 0;
+        int swaps = 0;
+        long searched = 0;
+        do {
+            long cpu = cpuTime();
+            last = rebalancer.run(sliceMillis, killSwitch);
+            if (first == null) first = last;
+            moves += last.getMoves();
+            swaps += last.getSwaps();
+            searched += last.getElapsedMillis();
+            throttle(cpuTime() - cpu);
+        } while (last.isBudgetExhausted() && searched < maxSearchMillis);
+        return new RebalanceReport(first.getTasksConsidered(), moves, swaps, last.getTasksMoved(),
+            first.getOverloadHoursBefore(), last.getOverloadHoursAfter(), first.getFitBefore(), last.getFitAfter(),
+            searched, last.isBudgetExhausted());
+    }
+
+    /**
+     * Writes the moves of one project in transactions of batchSize tasks, under the project's
+     * allocation lock and lease. Returns false when the project was busy and left untouched.
+     */
+    private boolean applyProject(int projectId, List<Integer> indices, List<Task> movable, Rebalancer rebalancer,
+                                 SkillMatrix matrix, double[] load, int[] applied) throws SQLException {
+        ReentrantLock lock = AllocationCoordinator.lockFor(projectId);
+        if (!lock.tryLock()) return false;
+        try {
+            AllocationLeases leases = AllocationLeases.getInstance();
+            LeaseDAO.Lease lease = null;
+            if (leases.isEnabled()) {
+                lease = leases.tryAcquire(projectId);
+                if (lease == null) return false;
+            }
+            try {
+                for (int from = 0; from < indices.size(); from += batchSize) {
+                    if (stopping || !enabled) {
+                        throw new CancellationException("Workload optimizer disabled");
+                    }
+                    long cpu = cpuTime();
+                    List<Integer> batch = indices.subList(from, Math.min(from + batchSize, indices.size()));
+                    applyBatch(projectId, lease, batch, movable, rebalancer, matrix, load, applied);
+                    throttle(cpuTime() - cpu);
+                }
+            } finally {
+                leases.release(lease);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return true;
+    }
+
+    private void applyBatch(int projectId, LeaseDAO.Lease lease, List<Integer> batch, List<Task> movable,
+                            Rebalancer rebalancer, SkillMatrix matrix, double[] load, int[] applied)
+            throws SQLException {
+        List<Integer> taskIds = new ArrayList<>(batch.size());
+        for (int i : batch) {
+            taskIds.add(movable.get(i).getId());
+        }
+        List<Integer> accepted = DatabaseUtil.inTransaction(() -> {
+            AllocationLeases.getInstance().checkFence(lease);
+            // Tâches verrouillées : seules celles encore TODO chez le même membre sont déplacées
+            Map<Integer, Integer> current = taskDAO.lockAssignments(taskIds, Task.TaskStatus.TODO);
+            Map<Integer, Integer> assignments = new LinkedHashMap<>();
+            Map<Integer, Double> deltas = new LinkedHashMap<>();
+            List<Integer> moved = new ArrayList<>();
+            for (int i : batch) {
+                Task task = movable.get(i);
+                Member from = matrix.member(rebalancer.initialOwnerOf(i));
+                Member to = matrix.member(rebalancer.ownerOf(i));
+                Integer now = current.get(task.getId());
+                if (now == null || now != from.getId()) continue;
+                assignments.put(task.getId(), to.getId());
+                deltas.merge(from.getId(), -task.getEstimatedHours(), Double::sum);
+                deltas.merge(to.getId(), task.getEstimatedHours(), Double::sum);
+                moved.add(i);
+            }
+            taskDAO.assignTasks(projectId, assignments);
+            memberDAO.addWorkloads(deltas);
+            return moved;
+        });
+        for (int i : accepted) {
+            double hours = movable.get(i).getEstimatedHours();
+            load[rebalancer.initialOwnerOf(i)] -= hours;
+            load[rebalancer.ownerOf(i)] += hours;
+        }
+        applied[0] += accepted.size();
+        applied[1] += batch.size() - accepted.size();
+    }
+
+    /** Sleeps long enough for cpuNanos of work to stay within cpuShare of one core. */
+    private void throttle(long cpuNanos) {
+        long pauseMillis = (long) (cpuNanos * (1 - cpuShare) / cpuShare / 1_000_000);
+        if (pauseMillis <= 0) return;
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Workload optimizer interrupted");
+        }
+    }
+
+    private long cpuTime() {
+        // Temps CPU du thread quand la JVM le fournit, sinon temps écoulé (plus prudent)
+        return threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    private static double overload(double[] load, SkillMatrix matrix) {
+        double total = 0;
+        for (int row = 0; row < load.length; row++) {
+            total += Math.max(0, load[row] - matrix.member(row).getWeeklyAvailability());
+        }
+        return total;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    /** State, totals since startup and the last cycles (most recent first). */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("enabled", enabled);
+        map.put("intervalSeconds", intervalSeconds);
+        map.put("cpuShare", cpuShare);
+        synchronized (history) {
+            map.put("cycles", cycles);
+            map.put("movesApplied", movesApplied);
+            map.put("overloadHoursRemoved", round(overloadHoursRemoved));
+            map.put("history", new ArrayList<>(history));
+        }
+        return map;
+    }
+}
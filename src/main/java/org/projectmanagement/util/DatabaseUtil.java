@@ -51,6 +51,8 @@ public class DatabaseUtil {
             config.addDataSourceProperty("cachePrepStmts", "true");
             config.addDataSourceProperty("prepStmtCacheSize", "250");
             config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+            // Lots JDBC (allocation) envoyés en une requête multi-lignes
+            config.addDataSourceProperty("rewriteBatchedStatements", "true");
 
             dataSource = new HikariDataSource(config);
 
@@ -76,14 +78,70 @@ public class DatabaseUtil {
      * Gets a connection from the pool.
      * IMPORTANT: This connection MUST be closed in a try-with-resources or finally block!
      * When closed, it returns to the pool (it's not actually closed).
+     * Inside inTransaction() it is the transaction's connection, and closing it does nothing.
      */
     public static Connection getConnection() throws SQLException {
+        Connection shared = TransactionScope.currentConnection();
+        if (shared != null) {
+            return shared;
+        }
         if (dataSource == null || dataSource.isClosed()) {
             throw new SQLException("Connection pool is not available");
         }
         return dataSource.getConnection();
     }
 
+    /**
+     * Work run by inTransaction().
+     */
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        T run() throws SQLException;
+    }
+
+    /**
+     * Runs the work over a single connection and transaction: every DAO call made by this
+     * thread in the meantime uses it. Committed when the work returns, rolled back when it
+     * throws anything (Errors included) or calls TransactionScope.setRollbackOnly(). A nested
+     * call joins the outer one.
+     */
+    public static <T> T inTransaction(SqlWork<T> work) throws SQLException {
+        if (TransactionScope.isActive()) {
+            return work.run();
+        }
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            TransactionScope scope = TransactionScope.begin(conn);
+            boolean committed = false;
+            try {
+                T result = work.run();
+                if (scope.isRollbackOnly()) {
+                    conn.rollback();
+                } else {
+                    scope.runBeforeCommit();
+                    conn.commit();
+                    committed = true;
+                }
+                return result;
+            } catch (Throwable e) {
+                // Error comprise (OOM, StackOverflow...) : sinon setAutoCommit(true) validerait
+                // le travail partiel
+                try {
+                    conn.rollback();
+                } catch (SQLException rollbackFailure) {
+                    e.addSuppressed(rollbackFailure);
+                }
+                throw e;
+            } finally {
+                scope.end();
+                conn.setAutoCommit(true);
+                if (committed) {
+                    scope.runAfterCommit();
+                }
+            }
+        }
+    }
+
     /**
      * Closes the connection pool completely (call on application shutdown only)
      */
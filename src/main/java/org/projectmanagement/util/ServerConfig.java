@@ -0,0 +1,73 @@
+package org.projectmanagement.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Reads server.properties from the classpath.
+ * A JVM system property with the same key always wins over the file value.
+ */
+public class ServerConfig {
+    private static final Properties props = new Properties();
+
+    static {
+        try (InputStream is = ServerConfig.class.getClassLoader().getResourceAsStream("server.properties")) {
+            if (is != null) {
+                props.load(is);
+            } else {
+                System.err.println("WARNING: server.properties not found in classpath, using defaults");
+            }
+        } catch (IOException e) {
+            System.err.println("WARNING: could not read server.properties, using defaults");
+            e.printStackTrace();
+        }
+    }
+
+    public static String getString(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            value = props.getProperty(key);
+        }
+        return value != null ? value.trim() : defaultValue;
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = getString(key, null);
+        if (value == null || value.isEmpty()) return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.err.println("WARNING: invalid integer for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        if (value == null || value.isEmpty()) return defaultValue;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            System.err.println("WARNING: invalid number for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    public static double getDouble(String key, double defaultValue) {
+        String value = getString(key, null);
+        if (value == null || value.isEmpty()) return defaultValue;
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            System.err.println("WARNING: invalid number for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        if (value == null || value.isEmpty()) return defaultValue;
+        return Boolean.parseBoolean(value);
+    }
+}
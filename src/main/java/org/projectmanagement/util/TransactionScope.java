@@ -0,0 +1,139 @@
+package org.projectmanagement.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Transaction bound to the current thread by DatabaseUtil.inTransaction().
+ * While it is active, DatabaseUtil.getConnection() hands out the same connection wrapped so
+ * that the DAOs' close(), commit(), rollback() and setAutoCommit() leave it alone: existing
+ * DAO methods join the transaction without being rewritten.
+ * Side effects that must only happen once the data is visible (cache versions, events)
+ * are registered with afterCommit(); last statements of the transaction (shared version
+ * rows) with beforeCommit().
+ */
+public final class TransactionScope {
+    private static final ThreadLocal<TransactionScope> CURRENT = new ThreadLocal<>();
+
+    private final Connection shared;
+    private final List<Runnable> afterCommit = new ArrayList<>();
+    private final List<DatabaseUtil.SqlWork<?>> beforeCommit = new ArrayList<>();
+    private final Map<Object, Object> resources = new HashMap<>();
+    private boolean rollbackOnly;
+
+    private TransactionScope(Connection connection) {
+        this.shared = (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[] { Connection.class },
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "close":
+                    case "commit":
+                    case "rollback":
+                    case "setAutoCommit":
+                        return null;
+                    case "isClosed":
+                        return false;
+                    case "unwrap":
+                        return ((Class<?>) args[0]).isInstance(proxy) ? proxy : connection.unwrap((Class<?>) args[0]);
+                    default:
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                }
+            });
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /** Runs the action now, or after the commit of the current transaction (dropped on rollback). */
+    public static void afterCommit(Runnable action) {
+        TransactionScope scope = CURRENT.get();
+        if (scope == null) {
+            action.run();
+        } else {
+            scope.afterCommit.add(action);
+        }
+    }
+
+    /**
+     * Runs the work now, or on the transaction's connection just before its commit (a failure
+     * rolls the transaction back). Row locks taken there are held only until the commit.
+     */
+    public static void beforeCommit(DatabaseUtil.SqlWork<?> work) throws SQLException {
+        TransactionScope scope = CURRENT.get();
+        if (scope == null) {
+            work.run();
+        } else {
+            scope.beforeCommit.add(work);
+        }
+    }
+
+    /**
+     * Object attached to the current transaction under key, created by factory on first use;
+     * null outside a transaction.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T resource(Object key, Supplier<T> factory) {
+        TransactionScope scope = CURRENT.get();
+        if (scope == null) return null;
+        Object value = scope.resources.get(key);
+        if (value == null) {
+            value = factory.get();
+            scope.resources.put(key, value);
+        }
+        return (T) value;
+    }
+
+    /** Marks the current transaction to be rolled back instead of committed. */
+    public static void setRollbackOnly() {
+        TransactionScope scope = CURRENT.get();
+        if (scope == null) {
+            throw new IllegalStateException("No transaction in progress");
+        }
+        scope.rollbackOnly = true;
+    }
+
+    static TransactionScope begin(Connection connection) {
+        TransactionScope scope = new TransactionScope(connection);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    static Connection currentConnection() {
+        TransactionScope scope = CURRENT.get();
+        return scope != null ? scope.shared : null;
+    }
+
+    boolean isRollbackOnly() {
+        return rollbackOnly;
+    }
+
+    void end() {
+        CURRENT.remove();
+    }
+
+    void runBeforeCommit() throws SQLException {
+        // Index : une action peut en enregistrer d'autres
+        for (int i = 0; i < beforeCommit.size(); i++) {
+            beforeCommit.get(i).run();
+        }
+    }
+
+    void runAfterCommit() {
+        for (Runnable action : afterCommit) {
+            action.run();
+        }
+    }
+}
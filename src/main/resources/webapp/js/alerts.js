@@ -12,14 +12,18 @@ async function loadAlerts() {
 async function loadAlertCount() {
     try {
         const result = await AlertsAPI.getUnreadCount();
-        const badge = document.getElementById('alertBadge');
-        badge.textContent = result.count;
-        badge.style.display = result.count > 0 ? 'inline-block' : 'none';
+        updateAlertBadge(result.count);
     } catch (error) {
         console.error('Error loading alert count:', error);
     }
 }
 
+function updateAlertBadge(count) {
+    const badge = document.getElementById('alertBadge');
+    badge.textContent = count;
+    badge.style.display = count > 0 ? 'inline-block' : 'none';
+}
+
 function displayAlerts(alerts) {
     const container = document.getElementById('alertsList');
 
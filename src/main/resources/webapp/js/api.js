@@ -161,8 +161,48 @@ const AlertsAPI = {
 
 // Allocation API
 const AllocationAPI = {
-    allocateTasks: (projectId) => apiRequest(`/allocate/${projectId}`, {
+    // Soumet l'allocation et renvoie le job (jobId, state...) ; engine : 'greedy' ou 'optimal'
+    allocateTasks: (projectId, engine) => apiRequest(`/allocate/${projectId}${engine ? `?engine=${engine}` : ''}`, {
         method: 'POST'
+    }),
+
+    getJob: (jobId) => apiRequest(`/allocate/jobs/${jobId}`),
+
+    cancelJob: (jobId) => apiRequest(`/allocate/jobs/${jobId}`, {
+        method: 'DELETE'
+    }),
+
+    // Suit un job jusqu'à sa fin (flux SSE, sinon polling) ; onProgress reçoit chaque état
+    followJob: (jobId, onProgress) => new Promise((resolve, reject) => {
+        const isDone = (job) => ['SUCCEEDED', 'FAILED', 'CANCELLED'].includes(job.state);
+        const poll = async () => {
+            try {
+                const job = await AllocationAPI.getJob(jobId);
+                if (onProgress) onProgress(job);
+                if (isDone(job)) resolve(job); else setTimeout(poll, 1000);
+            } catch (error) {
+                reject(error);
+            }
+        };
+        if (!window.EventSource) {
+            poll();
+            return;
+        }
+        const source = new EventSource(`${API_BASE}/allocate/events/${jobId}`);
+        source.addEventListener('progress', (e) => {
+            if (onProgress) onProgress(JSON.parse(e.data));
+        });
+        source.addEventListener('done', (e) => {
+            source.close();
+            const job = JSON.parse(e.data);
+            if (onProgress) onProgress(job);
+            resolve(job);
+        });
+        // Flux coupé : on termine en polling
+        source.onerror = () => {
+            source.close();
+            poll();
+        };
     })
 };
 
@@ -173,4 +213,18 @@ const StatisticsAPI = {
     getWorkload: () => apiRequest('/statistics/workload'),
 
     getProject: (projectId) => apiRequest(`/statistics/project/${projectId}`)
-};
\ No newline at end of file
+};
+
+// Schedule API - planned start/finish of the open tasks (weekly capacity and dependencies)
+const ScheduleAPI = {
+    getProject: (projectId) => apiRequest(`/schedule/project/${projectId}`)
+};
+
+// Batch API - several calls in one request and one transaction.
+// An operation can use "${id.field}" to reference the response of an earlier one.
+const BatchAPI = {
+    run: (operations) => apiRequest('/batch', {
+        method: 'POST',
+        body: JSON.stringify({ operations })
+    })
+};
@@ -8,9 +8,53 @@ document.addEventListener('DOMContentLoaded', async () => {
     await loadSkills();
     await loadDashboard();
     await loadAlertCount();
-    setInterval(loadAlertCount, 30000);
+    connectAlertStream();
 });
 
+// Slow poll kept next to the stream: each server only pushes the alerts written through it,
+// so changes made on another server show up here within this delay (the count answers 304
+// while nothing changed)
+const ALERT_FALLBACK_POLL_MS = 60000;
+
+// Alert updates pushed by the server (SSE); fast polling only when EventSource is missing
+function connectAlertStream() {
+    if (!window.EventSource) {
+        setInterval(loadAlertCount, 30000);
+        return;
+    }
+    setInterval(pollAlertCount, ALERT_FALLBACK_POLL_MS);
+    // EventSource reconnects by itself and sends Last-Event-ID to resume
+    const source = new EventSource(`${API_BASE}/alerts/stream`);
+    source.onmessage = (e) => {
+        const event = JSON.parse(e.data);
+        if (event.unreadCount >= 0) {
+            updateAlertBadge(event.unreadCount);
+        } else {
+            loadAlertCount();
+        }
+        if (currentPage === 'alerts') {
+            loadAlerts();
+        }
+    };
+    // Too many missed events (or server restarted): reload the state
+    source.addEventListener('reset', () => {
+        loadAlertCount();
+        if (currentPage === 'alerts') {
+            loadAlerts();
+        }
+    });
+}
+
+async function pollAlertCount() {
+    if (document.hidden) return;
+    const badge = document.getElementById('alertBadge');
+    const before = badge.textContent;
+    await loadAlertCount();
+    if (currentPage === 'alerts' && badge.textContent !== before) {
+        loadAlerts();
+    }
+}
+
 // Page Navigation
 function showPage(pageName) {
     document.querySelectorAll('.page').forEach(page => {
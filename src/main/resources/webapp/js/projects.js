@@ -250,8 +250,15 @@ async function addTask(event) {
         }
     }
     
+    // Task and required skills saved together (one round trip, all or nothing);
+    // '${task.id}' is resolved by the server, hence the plain quotes
+    const operations = [{ id: 'task', method: 'POST', path: '/api/tasks/', body: task }];
+    task.requiredSkills.forEach(skill => {
+        operations.push({ method: 'POST', path: '/api/tasks/${task.id}/skills', body: skill });
+    });
+    
     try {
-        await TasksAPI.create(task);
+        await BatchAPI.run(operations);
         closeModal('addTaskModal');
         form.reset();
         showNotification('Task added successfully!', 'success');
@@ -269,7 +276,22 @@ async function allocateProjectTasks(projectId) {
     
     try {
         showNotification('Allocating tasks...', 'info');
-        const result = await AllocationAPI.allocateTasks(projectId);
+        const submitted = await AllocationAPI.allocateTasks(projectId);
+        const job = await AllocationAPI.followJob(submitted.jobId, (progress) => {
+            if (progress.state === 'RUNNING' && progress.total > 0) {
+                console.log(`Allocation ${progress.phase}: ${progress.evaluated}/${progress.total} ` +
+                    `(assigned ${progress.assigned}, failed ${progress.failed})`);
+            }
+        });
+        
+        if (job.state === 'CANCELLED') {
+            showNotification('Allocation cancelled', 'warning');
+            return;
+        }
+        if (job.state === 'FAILED') {
+            throw new Error(job.error || 'Allocation failed');
+        }
+        const result = job.result;
         
         if (result.success) {
             showNotification(`Successfully assigned ${result.assignedCount} tasks!`, 'success');
@@ -7,11 +7,23 @@ class TimelineVisualizer {
         this.endDate = null;
     }
 
-    setData(tasks, project) {
+    setData(tasks, project, schedule) {
         this.tasks = tasks;
         this.startDate = new Date(project.startDate);
         this.endDate = new Date(project.deadline);
         
+        // Planned dates from the capacity schedule, when available
+        const planned = new Map();
+        if (schedule) {
+            schedule.tasks.forEach(entry => planned.set(entry.taskId, entry));
+            if (schedule.plannedFinish && new Date(schedule.plannedFinish) > this.endDate) {
+                this.endDate = new Date(schedule.plannedFinish);
+            }
+        }
+        tasks.forEach(task => {
+            task.plan = planned.get(task.id) || null;
+        });
+        
         this.members.clear();
         tasks.forEach(task => {
             if (task.assignedMember && task.assignedMember.id) {
@@ -70,9 +82,15 @@ class TimelineVisualizer {
         html += '<div class="timeline-bars">';
         
         member.tasks.forEach(task => {
-            if (task.deadline) {
-                const taskStart = task.startDate ? new Date(task.startDate) : this.startDate;
-                const taskEnd = new Date(task.deadline);
+            const plan = task.plan && task.plan.plannedFinish ? task.plan : null;
+            if (plan || task.deadline) {
+                const taskStart = plan ? new Date(plan.plannedStart)
+                    : (task.startDate ? new Date(task.startDate) : this.startDate);
+                // Planned finish is the last working day: the bar covers it entirely
+                const taskEnd = plan ? new Date(new Date(plan.plannedFinish).getTime() + 1000 * 60 * 60 * 24)
+                    : new Date(task.deadline);
+                const lateClass = plan && plan.late ? ' late' : '';
+                const planText = plan ? `\nPlanned: ${plan.plannedStart} - ${plan.plannedFinish}${plan.late ? ' (late)' : ''}` : '';
                 
                 const startOffset = Math.max(0, (taskStart - this.startDate) / (1000 * 60 * 60 * 24));
                 const duration = (taskEnd - taskStart) / (1000 * 60 * 60 * 24);
@@ -80,9 +98,10 @@ class TimelineVisualizer {
                 const leftPercent = (startOffset / totalDays) * 100;
                 const widthPercent = Math.max(1, (duration / totalDays) * 100);
                 
-                html += `<div class="timeline-bar ${task.status.toLowerCase()}" 
+                const deadlineText = task.deadline ? new Date(task.deadline).toLocaleDateString() : '-';
+                html += `<div class="timeline-bar ${task.status.toLowerCase()}${lateClass}" 
                     style="left: ${leftPercent}%; width: ${widthPercent}%;"
-                    title="${task.title}\nDuration: ${task.estimatedHours}h\nStatus: ${task.status}\nDeadline: ${taskEnd.toLocaleDateString()}">
+                    title="${task.title}\nDuration: ${task.estimatedHours}h\nStatus: ${task.status}\nDeadline: ${deadlineText}${planText}">
                     <span>${task.title}</span>
                 </div>`;
             }
@@ -118,12 +137,14 @@ async function loadTimeline() {
     try {
         const project = await ProjectsAPI.getById(projectId);
         const tasks = await ProjectsAPI.getTasks(projectId);
+        // Without a schedule the bars fall back to the task's own dates
+        const schedule = await ScheduleAPI.getProject(projectId).catch(() => null);
         
         if (!timelineVisualizer) {
             initTimeline();
         }
         
-        timelineVisualizer.setData(tasks, project);
+        timelineVisualizer.setData(tasks, project, schedule);
         timelineVisualizer.render();
     } catch (error) {
         console.error('Error loading timeline:', error);
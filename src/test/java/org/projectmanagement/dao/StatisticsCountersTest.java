@@ -0,0 +1,61 @@
+package org.projectmanagement.dao;
+
+import org.junit.Test;
+import org.projectmanagement.model.Member;
+import org.projectmanagement.model.Task;
+
+import static org.junit.Assert.*;
+
+public class StatisticsCountersTest {
+
+    @Test
+    public void statusOnlyDriftIsDetected() {
+        // Même nombre de tâches et de membres surchargés : seul le statut a changé ailleurs
+        StatisticsCounters.State local = state(Task.TaskStatus.TODO, 8);
+        StatisticsCounters.State rebuilt = state(Task.TaskStatus.IN_PROGRESS, 8);
+
+        assertEquals(local.totalTasks, rebuilt.totalTasks);
+        assertEquals(local.overloaded, rebuilt.overloaded);
+        assertFalse(local.sameAs(rebuilt));
+    }
+
+    @Test
+    public void hoursAndWorkloadDriftAreDetected() {
+        assertFalse(state(Task.TaskStatus.TODO, 8).sameAs(state(Task.TaskStatus.TODO, 5)));
+
+        StatisticsCounters.State local = state(Task.TaskStatus.TODO, 8);
+        StatisticsCounters.State rebuilt = state(Task.TaskStatus.TODO, 8);
+        rebuilt.putMember(1, member(1, 20));
+        assertFalse(local.sameAs(rebuilt));
+    }
+
+    @Test
+    public void sameRowsAreNotDrift() {
+        StatisticsCounters.State local = state(Task.TaskStatus.TODO, 8);
+        // Une tâche ajoutée puis supprimée laisse des compteurs à 0
+        StatisticsCounters.TaskRow row = row(Task.TaskStatus.COMPLETED, 3);
+        local.addTask(row, 1);
+        local.addTask(row, -1);
+        assertTrue(local.sameAs(state(Task.TaskStatus.TODO, 8)));
+    }
+
+    private static StatisticsCounters.State state(Task.TaskStatus status, double hours) {
+        StatisticsCounters.State state = new StatisticsCounters.State();
+        state.putMember(1, member(1, 10));
+        state.addTask(row(status, hours), 1);
+        return state;
+    }
+
+    private static StatisticsCounters.TaskRow row(Task.TaskStatus status, double hours) {
+        return new StatisticsCounters.TaskRow(1, status, Task.Priority.MEDIUM, 1, hours);
+    }
+
+    private static Member member(int id, double workload) {
+        Member member = new Member();
+        member.setId(id);
+        member.setName("Alice");
+        member.setWeeklyAvailability(40);
+        member.setCurrentWorkload(workload);
+        return member;
+    }
+}
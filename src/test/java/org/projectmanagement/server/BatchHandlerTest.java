@@ -0,0 +1,66 @@
+package org.projectmanagement.server;
+
+import com.google.gson.JsonObject;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+import static org.junit.Assert.*;
+
+public class BatchHandlerTest {
+
+    private final Router router = new Router(exchange -> { }, (exchange, e) -> exchange.sendResponseHeaders(500, -1));
+    private final BatchHandler batch = new BatchHandler(router, 10);
+    private int called;
+
+    public BatchHandlerTest() {
+        Router.Route ok = (exchange, params) -> {
+            called++;
+            byte[] body = "{\"ok\":true}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        };
+        router.get("/api/members/", ok)
+            .post("/api/allocate/{projectId:int}", ok)
+            .put("/api/optimizer", ok)
+            .post("/api/batch", batch)
+            .excludeFromBatch("/api/allocate/{projectId:int}")
+            .excludeFromBatch("/api/optimizer")
+            .excludeFromBatch("/api/batch");
+    }
+
+    @Test
+    public void refusesExcludedRoutesWhateverTheSpelling() throws Exception {
+        String[][] operations = {
+            {"POST", "/api/allocate/5"},
+            {"POST", "/api//allocate/5"},
+            {"POST", "/api/allocate//5/"},
+            {"PUT", "/api//optimizer"},
+            {"PUT", "/api/%6Fptimizer"},
+            {"POST", "/api//batch"},
+        };
+        for (String[] operation : operations) {
+            try {
+                batch.execute(null, operation(operation[0], operation[1]), new HashMap<>());
+                fail("accepted " + operation[1]);
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage(), e.getMessage().startsWith("Operation path not allowed in a batch"));
+            }
+        }
+        assertEquals(0, called);
+    }
+
+    @Test
+    public void otherRoutesStillRun() throws Exception {
+        batch.execute(null, operation("GET", "/api//members"), new HashMap<>());
+        assertEquals(1, called);
+    }
+
+    private static JsonObject operation(String method, String path) {
+        JsonObject operation = new JsonObject();
+        operation.addProperty("method", method);
+        operation.addProperty("path", path);
+        return operation;
+    }
+}
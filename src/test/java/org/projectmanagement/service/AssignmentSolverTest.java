@@ -0,0 +1,169 @@
+package org.projectmanagement.service;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class AssignmentSolverTest {
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+    private static final double DELTA = 1e-6;
+
+    @Test
+    public void matchesBruteForceOnSmallInstances() {
+        Random random = new Random(42);
+        for (int round = 0; round < 300; round++) {
+            Instance instance = Instance.random(random, 1 + random.nextInt(6), 1 + random.nextInt(3));
+            AssignmentSolver solver = instance.solver(instance.tasks);
+            int[] assignment = solver.solve(NO_DEADLINE);
+
+            assertTrue(solver.isComplete());
+            double best = instance.bruteForce(instance.tasks);
+            assertEquals("round " + round, best, solver.getObjective(), DELTA);
+            // L'objectif annoncé est bien celui de l'affectation rendue (options + créneaux)
+            assertEquals("round " + round, instance.objective(assignment), solver.getObjective(), DELTA);
+            assertEquals(placed(assignment), solver.getPlaced());
+        }
+    }
+
+    @Test
+    public void everyPrefixIsOptimalForTheTasksAddedSoFar() {
+        // Une exécution coupée après k tâches a le même graphe que le solveur des k premières
+        Random random = new Random(7);
+        for (int round = 0; round < 100; round++) {
+            Instance instance = Instance.random(random, 6, 3);
+            for (int k = 0; k <= instance.tasks; k++) {
+                AssignmentSolver solver = instance.solver(k);
+                int[] assignment = solver.solve(NO_DEADLINE);
+                assertEquals("round " + round + ", prefix " + k, instance.bruteForce(k), solver.getObjective(), DELTA);
+                assertEquals(instance.objective(assignment), solver.getObjective(), DELTA);
+            }
+        }
+    }
+
+    @Test
+    public void expiredDeadlineLeavesEveryTaskUnassigned() {
+        Instance instance = Instance.random(new Random(1), 5, 2);
+        AssignmentSolver solver = instance.solver(instance.tasks);
+        int[] assignment = solver.solve(System.nanoTime() - 1);
+
+        assertFalse(solver.isComplete());
+        assertEquals(0, solver.getPlaced());
+        assertEquals(0, solver.getObjective(), DELTA);
+        int[] none = new int[instance.tasks];
+        Arrays.fill(none, -1);
+        assertArrayEquals(none, assignment);
+    }
+
+    @Test
+    public void laterTaskCanMoveAnEarlierOne() {
+        // Tâche 0 : A (5) ou B (4) ; tâche 1 : A seulement (5). Un créneau chacun
+        AssignmentSolver solver = new AssignmentSolver(2, 2);
+        solver.addOption(0, 0, 5);
+        solver.addOption(0, 1, 4);
+        solver.addOption(1, 0, 5);
+        solver.addSlot(0, 0);
+        solver.addSlot(1, 0);
+
+        assertArrayEquals(new int[] {1, 0}, solver.solve(NO_DEADLINE));
+        assertEquals(9, solver.getObjective(), DELTA);
+    }
+
+    private static int placed(int[] assignment) {
+        int count = 0;
+        for (int member : assignment) {
+            if (member >= 0) count++;
+        }
+        return count;
+    }
+
+    /** Random instance: option gains and non-increasing slot gains, in quarters (exact in doubles). */
+    private static final class Instance {
+        final int tasks;
+        final int members;
+        final double[][] option; // NaN : pas d'option
+        final double[][] slot;
+
+        Instance(int tasks, int members, double[][] option, double[][] slot) {
+            this.tasks = tasks;
+            this.members = members;
+            this.option = option;
+            this.slot = slot;
+        }
+
+        static Instance random(Random random, int tasks, int members) {
+            double[][] option = new double[tasks][members];
+            for (int t = 0; t < tasks; t++) {
+                for (int m = 0; m < members; m++) {
+                    option[t][m] = random.nextInt(3) == 0 ? Double.NaN : random.nextInt(20) / 4.0;
+                }
+            }
+            double[][] slot = new double[members][];
+            for (int m = 0; m < members; m++) {
+                slot[m] = new double[random.nextInt(tasks + 1)];
+                double gain = random.nextInt(8) / 4.0;
+                for (int k = 0; k < slot[m].length; k++) {
+                    slot[m][k] = gain;
+                    gain -= random.nextInt(8) / 4.0;
+                }
+            }
+            return new Instance(tasks, members, option, slot);
+        }
+
+        /** Solver over the first taskLimit tasks. */
+        AssignmentSolver solver(int taskLimit) {
+            AssignmentSolver solver = new AssignmentSolver(taskLimit, members);
+            for (int t = 0; t < taskLimit; t++) {
+                for (int m = 0; m < members; m++) {
+                    if (!Double.isNaN(option[t][m])) solver.addOption(t, m, option[t][m]);
+                }
+            }
+            for (int m = 0; m < members; m++) {
+                for (double gain : slot[m]) solver.addSlot(m, gain);
+            }
+            return solver;
+        }
+
+        /** Option gains plus the first k slots of a member given k tasks; NaN when infeasible. */
+        double objective(int[] assignment) {
+            double total = 0;
+            int[] count = new int[members];
+            for (int t = 0; t < assignment.length; t++) {
+                int m = assignment[t];
+                if (m < 0) continue;
+                if (Double.isNaN(option[t][m])) return Double.NaN;
+                total += option[t][m];
+                count[m]++;
+            }
+            for (int m = 0; m < members; m++) {
+                if (count[m] > slot[m].length) return Double.NaN;
+                for (int k = 0; k < count[m]; k++) total += slot[m][k];
+            }
+            return total;
+        }
+
+        /** Best objective over every assignment of the first taskLimit tasks. */
+        double bruteForce(int taskLimit) {
+            int[] assignment = new int[taskLimit];
+            Arrays.fill(assignment, -1);
+            return search(assignment, 0);
+        }
+
+        private double search(int[] assignment, int t) {
+            if (t == assignment.length) {
+                double value = objective(assignment);
+                return Double.isNaN(value) ? Double.NEGATIVE_INFINITY : value;
+            }
+            double best = Double.NEGATIVE_INFINITY;
+            for (int m = -1; m < members; m++) {
+                if (m >= 0 && Double.isNaN(option[t][m])) continue;
+                assignment[t] = m;
+                best = Math.max(best, search(assignment, t + 1));
+            }
+            assignment[t] = -1;
+            return best;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package org.projectmanagement.service;
+
+import org.junit.Test;
+import org.projectmanagement.model.Member;
+import org.projectmanagement.model.Task;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class CapacitySchedulerTest {
+    // Un lundi : semaine 0 du planning
+    private static final LocalDate MONDAY = LocalDate.of(2026, 10, 19);
+
+    private final CapacityScheduler scheduler = new CapacityScheduler(MONDAY, 104, 40);
+
+    @Test
+    public void taskBeyondHorizonLeavesCapacityToOthers() {
+        Member member = member(1, 40);
+        Task huge = task(1, member, 100000, Task.Priority.URGENT);
+        Task small = task(2, member, 8, Task.Priority.LOW);
+
+        Map<Integer, Schedule.Entry> plan = run(Arrays.asList(member), huge, small);
+
+        assertFalse(plan.get(1).isScheduled());
+        assertEquals("beyond the 104-week horizon", plan.get(1).getReason());
+        assertTrue(plan.get(2).isScheduled());
+        assertEquals(MONDAY, plan.get(2).getPlannedStart());
+        assertEquals(MONDAY, plan.get(2).getPlannedFinish());
+    }
+
+    @Test
+    public void dependentStartsAfterItsDependencyFinishes() {
+        Member first = member(1, 40);
+        Member second = member(2, 40);
+        Task a = task(1, first, 40, Task.Priority.LOW);
+        Task b = task(2, second, 8, Task.Priority.URGENT);
+        b.getDependencies().add(1);
+
+        Map<Integer, Schedule.Entry> plan = run(Arrays.asList(first, second), a, b);
+
+        assertEquals(MONDAY, plan.get(1).getPlannedStart());
+        assertEquals(MONDAY.plusDays(4), plan.get(1).getPlannedFinish());
+        assertEquals(MONDAY.plusWeeks(1), plan.get(2).getPlannedStart());
+    }
+
+    @Test
+    public void completedDependencyDoesNotDelay() {
+        Member member = member(1, 40);
+        Task done = task(1, member, 40, Task.Priority.LOW);
+        done.setStatus(Task.TaskStatus.COMPLETED);
+        Task next = task(2, member, 8, Task.Priority.LOW);
+        next.getDependencies().add(1);
+
+        Map<Integer, Schedule.Entry> plan = run(Arrays.asList(member), done, next);
+
+        assertNull(plan.get(1));
+        assertEquals(MONDAY, plan.get(2).getPlannedStart());
+    }
+
+    @Test
+    public void cycleIsReportedAndOtherTasksArePlanned() {
+        Member member = member(1, 40);
+        Task a = task(1, member, 8, Task.Priority.HIGH);
+        Task b = task(2, member, 8, Task.Priority.HIGH);
+        Task dependent = task(3, member, 8, Task.Priority.HIGH);
+        Task free = task(4, member, 8, Task.Priority.LOW);
+        a.getDependencies().add(2);
+        b.getDependencies().add(1);
+        dependent.getDependencies().add(1);
+
+        Map<Integer, Schedule.Entry> plan = run(Arrays.asList(member), a, b, dependent, free);
+
+        for (int id = 1; id <= 3; id++) {
+            assertFalse(plan.get(id).isScheduled());
+            assertEquals("dependency cycle", plan.get(id).getReason());
+        }
+        assertTrue(plan.get(4).isScheduled());
+    }
+
+    @Test
+    public void lateWhenPlannedFinishIsAfterDeadline() {
+        Member member = member(1, 40);
+        Task tight = task(1, member, 80, Task.Priority.URGENT);
+        tight.setDeadline(Date.valueOf(MONDAY.plusDays(3)));
+        Task relaxed = task(2, member, 8, Task.Priority.LOW);
+        relaxed.setDeadline(Date.valueOf(MONDAY.plusWeeks(4)));
+
+        Map<Integer, Schedule.Entry> plan = run(Arrays.asList(member), tight, relaxed);
+
+        assertEquals(MONDAY.plusWeeks(1).plusDays(4), plan.get(1).getPlannedFinish());
+        assertTrue(plan.get(1).isLate());
+        assertEquals(MONDAY.plusWeeks(2), plan.get(2).getPlannedStart());
+        assertFalse(plan.get(2).isLate());
+    }
+
+    private Map<Integer, Schedule.Entry> run(List<Member> members, Task... tasks) {
+        Schedule schedule = scheduler.schedule(members, new ArrayList<>(Arrays.asList(tasks)));
+        Map<Integer, Schedule.Entry> byTask = new HashMap<>();
+        for (Schedule.Entry entry : schedule.getEntries()) {
+            byTask.put(entry.getTaskId(), entry);
+        }
+        return byTask;
+    }
+
+    private static Member member(int id, int weeklyHours) {
+        Member member = new Member("member" + id, "member" + id + "@example.com", weeklyHours);
+        member.setId(id);
+        return member;
+    }
+
+    private static Task task(int id, Member member, double hours, Task.Priority priority) {
+        Task task = new Task();
+        task.setId(id);
+        task.setProjectId(1);
+        task.setEstimatedHours(hours);
+        task.setPriority(priority);
+        task.setAssignedMember(member);
+        return task;
+    }
+}
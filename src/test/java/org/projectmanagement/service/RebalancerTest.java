@@ -0,0 +1,160 @@
+package org.projectmanagement.service;
+
+import org.junit.Test;
+import org.projectmanagement.model.Member;
+import org.projectmanagement.model.MemberSkill;
+import org.projectmanagement.model.Skill;
+import org.projectmanagement.model.Task;
+import org.projectmanagement.model.TaskSkill;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RebalancerTest {
+    private static final Skill JAVA = skill(1);
+    private static final Skill SQL = skill(2);
+
+    @Test
+    public void swapsWhenNoSingleMoveHelps() {
+        // A : 8h + 4h pour 10h ; B : 6h pour 10h. Déplacer 8h surcharge B, 4h ne peut pas partir
+        Member a = member(1, 10, JAVA, 3, SQL, 3);
+        Member b = member(2, 10, JAVA, 3);
+        Task big = task(1, 8, JAVA, 3);
+        Task pinned = task(2, 4, SQL, 3);
+        Task other = task(3, 6, JAVA, 3);
+        a.setCurrentWorkload(12);
+        b.setCurrentWorkload(6);
+
+        Rebalancer rebalancer = new Rebalancer(new SkillMatrix(Arrays.asList(a, b)),
+            Arrays.asList(big, pinned, other), new int[] {0, 0, 1}, 1.0);
+        RebalanceReport report = rebalancer.run(1000, AllocationProgress.NONE);
+
+        assertEquals(0, report.getMoves());
+        assertEquals(1, report.getSwaps());
+        assertEquals(1, rebalancer.ownerOf(0));
+        assertEquals(0, rebalancer.ownerOf(1));
+        assertEquals(0, rebalancer.ownerOf(2));
+        assertEquals(2, report.getOverloadHoursBefore(), 1e-9);
+        assertEquals(0, report.getOverloadHoursAfter(), 1e-9);
+    }
+
+    @Test
+    public void prefersMemberClosestToTheRequiredLevel() {
+        Member overloaded = member(1, 10, JAVA, 2, SQL, 3);
+        Member expert = member(2, 40, JAVA, 5);
+        Member matching = member(3, 40, JAVA, 2);
+        Task light = task(1, 2, JAVA, 2);
+        Task pinned = task(2, 10, SQL, 3);
+        overloaded.setCurrentWorkload(12);
+
+        Rebalancer rebalancer = new Rebalancer(new SkillMatrix(Arrays.asList(overloaded, expert, matching)),
+            Arrays.asList(light, pinned), new int[] {0, 0}, 1.0);
+        RebalanceReport report = rebalancer.run(1000, AllocationProgress.NONE);
+
+        assertEquals(2, rebalancer.ownerOf(0));
+        assertEquals(0, report.getOverloadHoursAfter(), 1e-9);
+        assertEquals(report.getFitBefore(), report.getFitAfter(), 1e-9);
+    }
+
+    @Test
+    public void fitWeightTradesOverloadForABetterMatch() {
+        // Le déplacement ajoute 1h de surcharge au total et gagne 0.8 de fit
+        Member overloaded = member(1, 10, JAVA, 5);
+        Member matching = member(2, 10, JAVA, 1);
+        Task task = task(1, 2, JAVA, 1);
+        overloaded.setCurrentWorkload(11);
+        matching.setCurrentWorkload(10);
+        List<Member> members = Arrays.asList(overloaded, matching);
+
+        Rebalancer strong = new Rebalancer(new SkillMatrix(members), Arrays.asList(task), new int[] {0}, 2.0);
+        RebalanceReport report = strong.run(1000, AllocationProgress.NONE);
+        assertEquals(1, strong.ownerOf(0));
+        assertEquals(1.0, report.getFitAfter(), 1e-9);
+        assertEquals(0.2, report.getFitBefore(), 1e-9);
+
+        Rebalancer weak = new Rebalancer(new SkillMatrix(members), Arrays.asList(task), new int[] {0}, 1.0);
+        weak.run(1000, AllocationProgress.NONE);
+        assertEquals(0, weak.ownerOf(0));
+    }
+
+    @Test
+    public void terminatesAndCannotImproveFurther() {
+        Random random = new Random(3);
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            members.add(member(i + 1, 40, JAVA, 1 + random.nextInt(5)));
+        }
+        List<Task> tasks = new ArrayList<>();
+        int[] owners = new int[600];
+        for (int i = 0; i < owners.length; i++) {
+            Task task = task(i + 1, 1 + random.nextInt(8), JAVA, 1 + random.nextInt(2));
+            tasks.add(task);
+            owners[i] = random.nextInt(5);
+            Member owner = members.get(owners[i]);
+            owner.setCurrentWorkload(owner.getCurrentWorkload() + task.getEstimatedHours());
+        }
+
+        Rebalancer rebalancer = new Rebalancer(new SkillMatrix(members), tasks, owners, 1.0);
+        RebalanceReport first = rebalancer.run(60_000, AllocationProgress.NONE);
+        assertFalse(first.isBudgetExhausted());
+        assertTrue(first.getOverloadHoursAfter() < first.getOverloadHoursBefore());
+
+        RebalanceReport second = rebalancer.run(60_000, AllocationProgress.NONE);
+        assertEquals(0, second.getMoves() + second.getSwaps());
+    }
+
+    @Test
+    public void stopsAtTheBudgetAndResumes() {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            members.add(member(i + 1, 10, JAVA, 1));
+        }
+        List<Task> tasks = new ArrayList<>();
+        int[] owners = new int[1000];
+        for (int i = 0; i < owners.length; i++) {
+            tasks.add(task(i + 1, 1, JAVA, 1));
+            owners[i] = i % 4;
+            Member owner = members.get(owners[i]);
+            owner.setCurrentWorkload(owner.getCurrentWorkload() + 1);
+        }
+
+        Rebalancer rebalancer = new Rebalancer(new SkillMatrix(members), tasks, owners, 1.0);
+        RebalanceReport cut = rebalancer.run(0, AllocationProgress.NONE);
+        assertTrue(cut.isBudgetExhausted());
+        assertTrue(cut.getOverloadHoursAfter() > 0);
+
+        RebalanceReport resumed = rebalancer.run(60_000, AllocationProgress.NONE);
+        assertFalse(resumed.isBudgetExhausted());
+        assertEquals(0, resumed.getOverloadHoursAfter(), 1e-9);
+    }
+
+    private static Skill skill(int id) {
+        Skill skill = new Skill("skill" + id, null);
+        skill.setId(id);
+        return skill;
+    }
+
+    /** Membre avec des paires (compétence, niveau). */
+    private static Member member(int id, int weeklyHours, Object... skillLevels) {
+        Member member = new Member("member" + id, "member" + id + "@example.com", weeklyHours);
+        member.setId(id);
+        List<MemberSkill> skills = new ArrayList<>();
+        for (int i = 0; i < skillLevels.length; i += 2) {
+            skills.add(new MemberSkill(member, (Skill) skillLevels[i], (Integer) skillLevels[i + 1]));
+        }
+        member.setSkills(skills);
+        return member;
+    }
+
+    private static Task task(int id, double hours, Skill skill, int level) {
+        Task task = new Task();
+        task.setId(id);
+        task.setEstimatedHours(hours);
+        task.getRequiredSkills().add(new TaskSkill(task, skill, level));
+        return task;
+    }
+}